@@ -0,0 +1,91 @@
+package com.readme.collector;
+
+import com.readme.core.config.ContentEncoding;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Runs a {@link LocalCollector} until the process is terminated.
+ * <p>
+ * Usage: {@code java -jar metrics-collector.jar --socket=/run/readme/collector.sock [--metrics-url=...]
+ * [--max-batch-logs=500] [--max-batch-bytes=5242880] [--flush-interval-millis=1000] [--upload-threads=2]
+ * [--upload-queue-capacity=64] [--max-projects=64] [--socket-permissions=rw-rw----] [--compression=GZIP]}
+ */
+@Slf4j
+public final class CollectorMain {
+
+    private CollectorMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CollectorOptions options = parse(args);
+        LocalCollector collector = new LocalCollector(options);
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                collector.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                stopped.countDown();
+            }
+        }, "readme-collector-shutdown"));
+        collector.start();
+        stopped.await();
+    }
+
+    static CollectorOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        String socket = values.remove("socket");
+        if (socket == null) {
+            throw new IllegalArgumentException("--socket is required");
+        }
+        CollectorOptions.CollectorOptionsBuilder builder = CollectorOptions.builder().socketPath(Paths.get(socket));
+        for (Map.Entry<String, String> value : values.entrySet()) {
+            switch (value.getKey()) {
+                case "metrics-url":
+                    builder.metricsUrl(value.getValue());
+                    break;
+                case "max-batch-logs":
+                    builder.maxBatchLogs(Integer.parseInt(value.getValue()));
+                    break;
+                case "max-batch-bytes":
+                    builder.maxBatchBytes(Long.parseLong(value.getValue()));
+                    break;
+                case "flush-interval-millis":
+                    builder.flushIntervalMillis(Long.parseLong(value.getValue()));
+                    break;
+                case "upload-threads":
+                    builder.uploadThreads(Integer.parseInt(value.getValue()));
+                    break;
+                case "upload-queue-capacity":
+                    builder.uploadQueueCapacity(Integer.parseInt(value.getValue()));
+                    break;
+                case "max-projects":
+                    builder.maxProjects(Integer.parseInt(value.getValue()));
+                    break;
+                case "socket-permissions":
+                    builder.socketPermissions(value.getValue());
+                    break;
+                case "compression":
+                    builder.contentEncoding(ContentEncoding.valueOf(value.getValue().toUpperCase()));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option --" + value.getKey());
+            }
+        }
+        return builder.build();
+    }
+
+}
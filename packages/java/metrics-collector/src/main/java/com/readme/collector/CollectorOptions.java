@@ -0,0 +1,90 @@
+package com.readme.collector;
+
+import com.readme.core.config.ContentEncoding;
+import com.readme.core.config.CoreConfig;
+import lombok.Builder;
+import lombok.Value;
+
+import java.nio.file.Path;
+
+import static com.readme.core.config.ReadmeApiConfig.README_METRICS_URL;
+
+/**
+ * Settings of a {@link LocalCollector}.
+ */
+@Builder
+@Value
+public class CollectorOptions {
+
+    public static final int DEFAULT_MAX_BATCH_LOGS = 500;
+    public static final long DEFAULT_MAX_BATCH_BYTES = CoreConfig.DEFAULT_MAX_REQUEST_BYTES;
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+    public static final int DEFAULT_UPLOAD_THREADS = 2;
+    public static final int DEFAULT_UPLOAD_QUEUE_CAPACITY = 64;
+    public static final int DEFAULT_MAX_PROJECTS = 64;
+    public static final String DEFAULT_SOCKET_PERMISSIONS = "rw-rw----";
+
+    /**
+     * Path of the Unix domain socket the applications connect to.
+     */
+    Path socketPath;
+
+    /**
+     * Endpoint the logs are uploaded to.
+     */
+    @Builder.Default
+    String metricsUrl = README_METRICS_URL;
+
+    /**
+     * Number of logs of one project after which they are uploaded.
+     */
+    @Builder.Default
+    int maxBatchLogs = DEFAULT_MAX_BATCH_LOGS;
+
+    /**
+     * Serialized size in bytes of the logs of one project after which they are uploaded.
+     * It should stay below the largest request accepted by the metrics endpoint.
+     */
+    @Builder.Default
+    long maxBatchBytes = DEFAULT_MAX_BATCH_BYTES;
+
+    /**
+     * Maximum time in milliseconds a log waits for its batch to fill up.
+     */
+    @Builder.Default
+    long flushIntervalMillis = DEFAULT_FLUSH_INTERVAL_MILLIS;
+
+    /**
+     * Number of threads uploading batches in parallel.
+     */
+    @Builder.Default
+    int uploadThreads = DEFAULT_UPLOAD_THREADS;
+
+    /**
+     * Maximum number of batches waiting for an upload thread. Batches completed while the queue is full,
+     * e.g. because ReadMe is slow or down, are dropped and counted instead of piling up in memory.
+     */
+    @Builder.Default
+    int uploadQueueCapacity = DEFAULT_UPLOAD_QUEUE_CAPACITY;
+
+    /**
+     * Maximum number of projects, i.e. distinct API keys, the collector uploads for. Connections
+     * announcing another API key are closed.
+     */
+    @Builder.Default
+    int maxProjects = DEFAULT_MAX_PROJECTS;
+
+    /**
+     * POSIX permissions set on the socket file after it is bound, e.g. {@code rw-rw----} so only the
+     * collector's user and group can connect. Not applied if null or not supported by the file system.
+     */
+    @Builder.Default
+    String socketPermissions = DEFAULT_SOCKET_PERMISSIONS;
+
+    /**
+     * Compression of the uploads.
+     */
+    @Builder.Default
+    ContentEncoding contentEncoding = ContentEncoding.GZIP;
+
+}
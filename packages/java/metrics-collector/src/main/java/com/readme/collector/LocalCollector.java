@@ -0,0 +1,350 @@
+package com.readme.collector;
+
+import com.readme.core.config.CoreConfig;
+import com.readme.core.config.HttpClientOptions;
+import com.readme.core.datatransfer.DataSender;
+import com.readme.core.datatransfer.HttpClients;
+import com.readme.core.datatransfer.HttpDataSender;
+import com.readme.core.datatransfer.collector.CollectorProtocol;
+import com.readme.core.datatransfer.collector.UnixSocketDataSender;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Collector process receiving the logs of all applications on a host from {@link UnixSocketDataSender}s
+ * and uploading them to ReadMe.
+ * <p>
+ * Logs are grouped by the API key their application connected with. A project's logs are uploaded as one
+ * batch when {@code CollectorOptions.getMaxBatchLogs()} or {@code CollectorOptions.getMaxBatchBytes()} is
+ * reached, or when the flush interval elapses. The logs are forwarded as they were serialized by the
+ * applications, without being parsed, so a batch is just the records joined into a JSON array. Uploads use
+ * the SDK's {@link HttpDataSender}, with its retries, circuit breaker and compression, and a single
+ * connection pool shared by all projects. A batch which still fails is dropped and counted.
+ * <p>
+ * The memory of the collector is bounded when ReadMe is slow or down: at most
+ * {@code CollectorOptions.getUploadQueueCapacity()} batches wait for an upload thread, further batches are
+ * dropped and counted. The socket is restricted to {@code CollectorOptions.getSocketPermissions()}, and at
+ * most {@code CollectorOptions.getMaxProjects()} API keys are accepted.
+ */
+@Slf4j
+public class LocalCollector implements AutoCloseable {
+
+    private final CollectorOptions options;
+
+    private final Function<String, DataSender> senderFactory;
+
+    private final Map<String, ProjectBatch> batches = new ConcurrentHashMap<>();
+
+    private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService connectionExecutor;
+
+    private final ExecutorService uploadExecutor;
+
+    private final ScheduledExecutorService flushScheduler;
+
+    private final LongAdder droppedLogs = new LongAdder();
+
+    private ServerSocketChannel serverChannel;
+
+    private volatile boolean closed;
+
+    /**
+     * Creates a collector uploading with a shared OkHttp client.
+     */
+    public LocalCollector(CollectorOptions options) {
+        this(options, sharedHttpDataSenderFactory(options));
+    }
+
+    /**
+     * @param options       settings of the collector
+     * @param senderFactory creates the sender uploading the logs of the project with the given API key;
+     *                      the sender must support {@link DataSender#sendSerialized(byte[])}
+     */
+    public LocalCollector(CollectorOptions options, Function<String, DataSender> senderFactory) {
+        this.options = options;
+        this.senderFactory = senderFactory;
+        this.connectionExecutor = Executors.newCachedThreadPool(threadFactory("readme-collector-connection"));
+        int uploadThreads = Math.max(1, options.getUploadThreads());
+        this.uploadExecutor = new ThreadPoolExecutor(uploadThreads, uploadThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, options.getUploadQueueCapacity())),
+                threadFactory("readme-collector-upload"), new ThreadPoolExecutor.AbortPolicy());
+        this.flushScheduler = Executors.newSingleThreadScheduledExecutor(threadFactory("readme-collector-flush"));
+    }
+
+    /**
+     * Binds the socket, replacing a socket file left over by a previous process, and starts accepting
+     * connections.
+     *
+     * @throws IOException if the socket cannot be bound
+     */
+    public void start() throws IOException {
+        Files.deleteIfExists(options.getSocketPath());
+        serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        serverChannel.bind(UnixDomainSocketAddress.of(options.getSocketPath()));
+        restrictSocketPermissions();
+        connectionExecutor.execute(this::acceptConnections);
+        flushScheduler.scheduleWithFixedDelay(this::flushAll,
+                options.getFlushIntervalMillis(), options.getFlushIntervalMillis(), TimeUnit.MILLISECONDS);
+        log.info("readme-metrics: Collector listening on {}", options.getSocketPath());
+    }
+
+    private void restrictSocketPermissions() throws IOException {
+        if (options.getSocketPermissions() == null) {
+            return;
+        }
+        try {
+            Files.setPosixFilePermissions(options.getSocketPath(),
+                    PosixFilePermissions.fromString(options.getSocketPermissions()));
+        } catch (UnsupportedOperationException e) {
+            log.warn("readme-metrics: The file system does not support POSIX permissions, the collector socket "
+                    + "is accessible according to its directory");
+        }
+    }
+
+    private void acceptConnections() {
+        while (!closed) {
+            try {
+                SocketChannel connection = serverChannel.accept();
+                connections.add(connection);
+                connectionExecutor.execute(() -> readConnection(connection));
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException | RejectedExecutionException e) {
+                if (!closed) {
+                    log.error("readme-metrics: Error while accepting a collector connection: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void readConnection(SocketChannel connection) {
+        try (connection) {
+            DataInputStream in = new DataInputStream(Channels.newInputStream(connection));
+            ProjectBatch batch = projectBatch(CollectorProtocol.readHello(in));
+            if (batch == null) {
+                log.warn("readme-metrics: The collector already uploads for {} projects, a connection for another "
+                        + "API key has been closed", options.getMaxProjects());
+                return;
+            }
+            byte[] record;
+            while ((record = CollectorProtocol.readFrame(in)) != null) {
+                List<byte[]> fullBatch = batch.add(record);
+                if (fullBatch != null) {
+                    upload(batch, fullBatch);
+                }
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                log.warn("readme-metrics: Collector connection closed: {}", e.getMessage());
+            }
+        } finally {
+            connections.remove(connection);
+        }
+    }
+
+    /**
+     * Returns the batch of the project with the given API key, or null if it would exceed the maximum
+     * number of projects.
+     */
+    private ProjectBatch projectBatch(String readmeApiKey) {
+        ProjectBatch batch = batches.get(readmeApiKey);
+        if (batch != null) {
+            return batch;
+        }
+        synchronized (batches) {
+            if (!batches.containsKey(readmeApiKey) && batches.size() >= options.getMaxProjects()) {
+                return null;
+            }
+            return batches.computeIfAbsent(readmeApiKey, this::newProjectBatch);
+        }
+    }
+
+    private ProjectBatch newProjectBatch(String readmeApiKey) {
+        return new ProjectBatch(senderFactory.apply(readmeApiKey), options.getMaxBatchLogs(), options.getMaxBatchBytes());
+    }
+
+    /**
+     * Uploads the pending logs of all projects.
+     */
+    void flushAll() {
+        for (ProjectBatch batch : batches.values()) {
+            List<byte[]> records = batch.drain();
+            if (!records.isEmpty()) {
+                upload(batch, records);
+            }
+        }
+    }
+
+    private void upload(ProjectBatch batch, List<byte[]> records) {
+        try {
+            uploadExecutor.execute(() -> send(batch, records));
+        } catch (RejectedExecutionException e) {
+            droppedLogs.add(records.size());
+            log.error("readme-metrics: Dropped {} collected logs because too many batches are waiting to be uploaded",
+                    records.size());
+        }
+    }
+
+    private void send(ProjectBatch batch, List<byte[]> records) {
+        try {
+            if (batch.sender.sendSerialized(toJsonArray(records))) {
+                return;
+            }
+        } catch (Exception e) {
+            log.error("readme-metrics: Error while uploading collected logs: {}", e.getMessage());
+        }
+        droppedLogs.add(records.size());
+        log.error("readme-metrics: Dropped {} collected logs which could not be uploaded", records.size());
+    }
+
+    static byte[] toJsonArray(List<byte[]> records) {
+        int size = 2 + Math.max(0, records.size() - 1);
+        for (byte[] record : records) {
+            size += record.length;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+        out.write('[');
+        for (int i = 0; i < records.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.writeBytes(records.get(i));
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    /**
+     * Returns the number of logs dropped because their upload failed or too many batches were waiting.
+     */
+    public long getDroppedLogsCount() {
+        return droppedLogs.sum();
+    }
+
+    /**
+     * Stops accepting logs, uploads the pending ones and waits up to the given time for the uploads.
+     *
+     * @return true if all uploads completed in time
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        closed = true;
+        try {
+            if (serverChannel != null) {
+                serverChannel.close();
+                Files.deleteIfExists(options.getSocketPath());
+            }
+            for (SocketChannel connection : connections) {
+                connection.close();
+            }
+        } catch (IOException e) {
+            log.warn("readme-metrics: Error while closing the collector socket: {}", e.getMessage());
+        }
+        connectionExecutor.shutdown();
+        flushScheduler.shutdown();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        connectionExecutor.awaitTermination(timeout, unit);
+        flushScheduler.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        flushAll();
+        uploadExecutor.shutdown();
+        return uploadExecutor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        if (!closed) {
+            shutdown(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static Function<String, DataSender> sharedHttpDataSenderFactory(CollectorOptions options) {
+        OkHttpClient client = HttpClients.newClient(HttpClientOptions.builder().build());
+        return readmeApiKey -> new HttpDataSender(client, CoreConfig.builder()
+                .readmeAPIKey(readmeApiKey)
+                .metricsUrl(options.getMetricsUrl())
+                .contentEncoding(options.getContentEncoding())
+                .build());
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Pending logs of one project.
+     */
+    private static final class ProjectBatch {
+
+        private final DataSender sender;
+        private final int maxLogs;
+        private final long maxBytes;
+
+        private List<byte[]> records = new ArrayList<>();
+        private long bytes;
+
+        ProjectBatch(DataSender sender, int maxLogs, long maxBytes) {
+            this.sender = sender;
+            this.maxLogs = maxLogs;
+            this.maxBytes = maxBytes;
+        }
+
+        /**
+         * Adds the record and returns the full batch if one was completed, otherwise null.
+         * A record which does not fit anymore starts the next batch.
+         */
+        synchronized List<byte[]> add(byte[] record) {
+            List<byte[]> fullBatch = null;
+            if (!records.isEmpty() && bytes + record.length > maxBytes) {
+                fullBatch = drain();
+            }
+            records.add(record);
+            bytes += record.length;
+            if (fullBatch == null && records.size() >= maxLogs) {
+                fullBatch = drain();
+            }
+            return fullBatch;
+        }
+
+        synchronized List<byte[]> drain() {
+            List<byte[]> drained = records;
+            records = new ArrayList<>();
+            bytes = 0;
+            return drained;
+        }
+
+    }
+
+}
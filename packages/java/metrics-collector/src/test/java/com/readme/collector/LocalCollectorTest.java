@@ -0,0 +1,244 @@
+package com.readme.collector;
+
+import com.readme.core.config.ContentEncoding;
+import com.readme.core.config.CoreConfig;
+import com.readme.core.dataextraction.LogOptions;
+import com.readme.core.datatransfer.DataSender;
+import com.readme.core.datatransfer.OutgoingLogBody;
+import com.readme.core.datatransfer.ReadmeApiKeyEncoder;
+import com.readme.core.datatransfer.collector.UnixSocketDataSender;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalCollectorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private MockWebServer mockWebServer;
+    private LocalCollector collector;
+    private Path socketPath;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+        socketPath = tempDir.resolve("collector.sock");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (collector != null) {
+            collector.close();
+        }
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void collector_ShouldUploadBatch_WhenItIsFull() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(202));
+        startCollector(collectorOptions().maxBatchLogs(3).flushIntervalMillis(60_000));
+        List<OutgoingLogBody> logs = logs(3);
+
+        try (UnixSocketDataSender sender = sender("testApiKey")) {
+            assertTrue(sender.send(logs.subList(0, 2), LogOptions.builder().build()));
+            assertTrue(sender.send(logs.subList(2, 3), LogOptions.builder().build()));
+        }
+
+        RecordedRequest request = mockWebServer.takeRequest(5, TimeUnit.SECONDS);
+        assertNotNull(request);
+        assertEquals(ReadmeApiKeyEncoder.encode("testApiKey"), request.getHeader("Authorization"));
+        String body = request.getBody().readString(StandardCharsets.UTF_8);
+        assertTrue(body.startsWith("[") && body.endsWith("]"));
+        for (OutgoingLogBody log : logs) {
+            assertTrue(body.contains(log.getId().toString()));
+        }
+    }
+
+    @Test
+    void collector_ShouldUploadEachProjectWithItsApiKey_OnFlush() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(202));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(202));
+        startCollector(collectorOptions().flushIntervalMillis(100));
+
+        try (UnixSocketDataSender first = sender("firstApiKey");
+             UnixSocketDataSender second = sender("secondApiKey")) {
+            assertTrue(first.send(logs(1), LogOptions.builder().build()));
+            assertTrue(second.send(logs(2), LogOptions.builder().build()));
+        }
+
+        List<String> authorizations = new ArrayList<>();
+        authorizations.add(mockWebServer.takeRequest(5, TimeUnit.SECONDS).getHeader("Authorization"));
+        authorizations.add(mockWebServer.takeRequest(5, TimeUnit.SECONDS).getHeader("Authorization"));
+        assertTrue(authorizations.contains(ReadmeApiKeyEncoder.encode("firstApiKey")));
+        assertTrue(authorizations.contains(ReadmeApiKeyEncoder.encode("secondApiKey")));
+    }
+
+    @Test
+    void shutdown_ShouldUploadPendingLogs() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(202));
+        startCollector(collectorOptions().flushIntervalMillis(60_000));
+
+        try (UnixSocketDataSender sender = sender("testApiKey")) {
+            assertTrue(sender.send(logs(2), LogOptions.builder().build()));
+        }
+        Thread.sleep(200);
+
+        assertTrue(collector.shutdown(5, TimeUnit.SECONDS));
+        assertEquals(1, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void collector_ShouldDropBatches_WhenUploadQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        DataSender blockingSender = serializedSender(() -> release.await(5, TimeUnit.SECONDS));
+        collector = new LocalCollector(collectorOptions()
+                .maxBatchLogs(1)
+                .flushIntervalMillis(60_000)
+                .uploadThreads(1)
+                .uploadQueueCapacity(1)
+                .build(), readmeApiKey -> blockingSender);
+        collector.start();
+
+        try (UnixSocketDataSender sender = sender("testApiKey")) {
+            assertTrue(sender.send(logs(4), LogOptions.builder().build()));
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (collector.getDroppedLogsCount() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+
+        assertEquals(2, collector.getDroppedLogsCount());
+    }
+
+    @Test
+    void collector_ShouldIgnoreProjects_BeyondMaxProjects() throws Exception {
+        List<String> apiKeys = new CopyOnWriteArrayList<>();
+        collector = new LocalCollector(collectorOptions().maxProjects(1).flushIntervalMillis(60_000).build(),
+                readmeApiKey -> {
+                    apiKeys.add(readmeApiKey);
+                    return serializedSender(() -> true);
+                });
+        collector.start();
+
+        try (UnixSocketDataSender first = sender("firstApiKey")) {
+            assertTrue(first.send(logs(1), LogOptions.builder().build()));
+        }
+        Thread.sleep(200);
+        try (UnixSocketDataSender second = sender("secondApiKey")) {
+            second.send(logs(1), LogOptions.builder().build());
+        }
+        Thread.sleep(200);
+
+        assertEquals(List.of("firstApiKey"), apiKeys);
+    }
+
+    @Test
+    void start_ShouldRestrictSocketPermissions() throws Exception {
+        startCollector(collectorOptions().socketPermissions("rw-------"));
+
+        assertEquals(PosixFilePermissions.fromString("rw-------"), Files.getPosixFilePermissions(socketPath));
+    }
+
+    @Test
+    void send_ShouldFail_WhenCollectorIsNotRunning() {
+        try (UnixSocketDataSender sender = sender("testApiKey")) {
+            assertFalse(sender.send(logs(1), LogOptions.builder().build()));
+        }
+    }
+
+    @Test
+    void toJsonArray_ShouldJoinRecords() {
+        byte[] json = LocalCollector.toJsonArray(List.of("{\"a\":1}".getBytes(StandardCharsets.UTF_8),
+                "{\"b\":2}".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("[{\"a\":1},{\"b\":2}]", new String(json, StandardCharsets.UTF_8));
+    }
+
+    private void startCollector(CollectorOptions.CollectorOptionsBuilder options) throws IOException {
+        collector = new LocalCollector(options.build());
+        collector.start();
+    }
+
+    @Test
+    void sender_ShouldFailBatch_WhenCollectorStopsReading() throws Exception {
+        try (ServerSocketChannel stalledCollector = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            stalledCollector.bind(UnixDomainSocketAddress.of(socketPath));
+            List<OutgoingLogBody> logs = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                logs.add(OutgoingLogBody.builder().id(UUID.randomUUID()).clientIPAddress("1".repeat(256 * 1024)).build());
+            }
+
+            try (UnixSocketDataSender sender = new UnixSocketDataSender(socketPath, new CoreConfig("testApiKey"), 200)) {
+                long started = System.nanoTime();
+                assertFalse(sender.send(logs, LogOptions.builder().build()));
+                assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(5));
+            }
+        }
+    }
+
+    private CollectorOptions.CollectorOptionsBuilder collectorOptions() {
+        return CollectorOptions.builder()
+                .socketPath(socketPath)
+                .metricsUrl(mockWebServer.url("/v1/request").toString())
+                .contentEncoding(ContentEncoding.NONE);
+    }
+
+    private UnixSocketDataSender sender(String readmeApiKey) {
+        return new UnixSocketDataSender(socketPath, new CoreConfig(readmeApiKey));
+    }
+
+    /**
+     * Returns a sender whose uploads complete with the result of the given call.
+     */
+    private static DataSender serializedSender(Callable<Boolean> upload) {
+        return new DataSender() {
+            @Override
+            public boolean send(List<OutgoingLogBody> payloadData, LogOptions logOptions) {
+                return false;
+            }
+
+            @Override
+            public boolean sendSerialized(byte[] serializedLogs) {
+                try {
+                    return upload.call();
+                } catch (Exception e) {
+                    return false;
+                }
+            }
+        };
+    }
+
+    private static List<OutgoingLogBody> logs(int count) {
+        List<OutgoingLogBody> logs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            logs.add(OutgoingLogBody.builder().id(UUID.randomUUID()).build());
+        }
+        return logs;
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.readme.core.config;
+
+/**
+ * Compression applied to the batches of logs sent to the metrics endpoint.
+ */
+public enum ContentEncoding {
+
+    /**
+     * Batches are sent uncompressed.
+     */
+    NONE(null),
+
+    GZIP("gzip"),
+
+    /**
+     * Requires {@code com.github.luben:zstd-jni} on the classpath; gzip is used otherwise.
+     */
+    ZSTD("zstd");
+
+    private final String token;
+
+    ContentEncoding(String token) {
+        this.token = token;
+    }
+
+    /**
+     * Returns the value of the {@code Content-Encoding} header, or null if nothing is compressed.
+     */
+    public String getToken() {
+        return token;
+    }
+
+}
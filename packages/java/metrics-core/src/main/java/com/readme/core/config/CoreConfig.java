@@ -3,14 +3,101 @@ package com.readme.core.config;
 import lombok.Builder;
 import lombok.Value;
 
+import static com.readme.core.config.ReadmeApiConfig.README_METRICS_URL;
+
 @Builder
 @Value
 public class CoreConfig {
 
+    public static final long DEFAULT_COMPRESSION_MIN_BYTES = 1024;
+    public static final int DEFAULT_MAX_IN_FLIGHT_BATCHES = 64;
+    public static final long DEFAULT_MAX_IN_FLIGHT_BYTES = 16L * 1024 * 1024;
+    public static final long DEFAULT_IN_FLIGHT_ADMISSION_TIMEOUT_MILLIS = 0;
+    public static final long DEFAULT_MAX_REQUEST_BYTES = 5L * 1024 * 1024;
+
     String readmeAPIKey;
 
+    /**
+     * The API key with its derived values, e.g. the encoded {@code Authorization} header.
+     * Derived from {@link #readmeAPIKey} if not set; if set, it also provides the API key.
+     */
+    ReadmeCredentials credentials;
+
+    /**
+     * Retry and circuit breaker settings; defaults are used if null.
+     */
+    RetryPolicy retryPolicy;
+
+    /**
+     * Compression of the outgoing batches; batches are not compressed if null.
+     */
+    ContentEncoding contentEncoding;
+
+    /**
+     * Batches with an estimated size below this number of bytes are sent uncompressed,
+     * as compressing them costs more than it saves.
+     */
+    @Builder.Default
+    long compressionMinBytes = DEFAULT_COMPRESSION_MIN_BYTES;
+
+    /**
+     * Maximum number of batches sent asynchronously or waiting to be sent at the same time. It applies to
+     * fire-and-forget sends and to every batch of the dispatcher, which is sent with {@code sendAsync}.
+     */
+    @Builder.Default
+    int maxInFlightBatches = DEFAULT_MAX_IN_FLIGHT_BATCHES;
+
+    /**
+     * Maximum estimated size in bytes of the batches sent asynchronously or waiting to be sent at the same time,
+     * see {@link #maxInFlightBatches}. A single batch larger than this is still sent when nothing else is in flight.
+     */
+    @Builder.Default
+    long maxInFlightBytes = DEFAULT_MAX_IN_FLIGHT_BYTES;
+
+    /**
+     * How long in milliseconds an asynchronously sent batch may wait for the in-flight limits to allow it;
+     * with 0 it is rejected immediately. A rejected fire-and-forget batch is dropped, while a rejected batch
+     * of the dispatcher is reported as not sent and put back into its buffer.
+     */
+    @Builder.Default
+    long inFlightAdmissionTimeoutMillis = DEFAULT_IN_FLIGHT_ADMISSION_TIMEOUT_MILLIS;
+
+    /**
+     * Endpoint the logs are posted to, e.g. a local stand-in for load testing.
+     */
+    @Builder.Default
+    String metricsUrl = README_METRICS_URL;
+
+    /**
+     * Maximum estimated size in bytes of one request to the metrics endpoint. Larger batches are split
+     * before they are sent; with 0 or less, batches are only split when the endpoint rejects them with 413.
+     */
+    @Builder.Default
+    long maxRequestBytes = DEFAULT_MAX_REQUEST_BYTES;
+
     public CoreConfig(String readmeAPIKey) {
-        this.readmeAPIKey = readmeAPIKey;
+        this(readmeAPIKey, null, null, null, DEFAULT_COMPRESSION_MIN_BYTES,
+                DEFAULT_MAX_IN_FLIGHT_BATCHES, DEFAULT_MAX_IN_FLIGHT_BYTES, DEFAULT_IN_FLIGHT_ADMISSION_TIMEOUT_MILLIS,
+                README_METRICS_URL, DEFAULT_MAX_REQUEST_BYTES);
+    }
+
+    /**
+     * Used by the builder; settings beyond the API key are only set through {@link #builder()},
+     * so adding one does not change a public signature.
+     */
+    private CoreConfig(String readmeAPIKey, ReadmeCredentials credentials, RetryPolicy retryPolicy,
+                      ContentEncoding contentEncoding, long compressionMinBytes, int maxInFlightBatches, long maxInFlightBytes,
+                      long inFlightAdmissionTimeoutMillis, String metricsUrl, long maxRequestBytes) {
+        this.credentials = credentials != null ? credentials : ReadmeCredentials.of(readmeAPIKey);
+        this.readmeAPIKey = this.credentials.getReadmeApiKey();
+        this.retryPolicy = retryPolicy;
+        this.contentEncoding = contentEncoding;
+        this.compressionMinBytes = compressionMinBytes;
+        this.maxInFlightBatches = maxInFlightBatches;
+        this.maxInFlightBytes = maxInFlightBytes;
+        this.inFlightAdmissionTimeoutMillis = inFlightAdmissionTimeoutMillis;
+        this.metricsUrl = metricsUrl;
+        this.maxRequestBytes = maxRequestBytes;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,61 @@
+package com.readme.core.config;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Connection settings of the HTTP client shared by the SDK to send logs and call the ReadMe API.
+ */
+@Builder
+@Value
+public class HttpClientOptions {
+
+    public static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
+    public static final long DEFAULT_KEEP_ALIVE_MILLIS = 5 * 60 * 1000;
+    public static final long DEFAULT_CONNECT_TIMEOUT_MILLIS = 10_000;
+    public static final long DEFAULT_READ_TIMEOUT_MILLIS = 10_000;
+    public static final long DEFAULT_WRITE_TIMEOUT_MILLIS = 10_000;
+    public static final long DEFAULT_CALL_TIMEOUT_MILLIS = 30_000;
+
+    /**
+     * Maximum number of idle connections kept in the pool.
+     */
+    @Builder.Default
+    int maxIdleConnections = DEFAULT_MAX_IDLE_CONNECTIONS;
+
+    /**
+     * Time in milliseconds an idle connection is kept in the pool.
+     */
+    @Builder.Default
+    long keepAliveMillis = DEFAULT_KEEP_ALIVE_MILLIS;
+
+    @Builder.Default
+    long connectTimeoutMillis = DEFAULT_CONNECT_TIMEOUT_MILLIS;
+
+    @Builder.Default
+    long readTimeoutMillis = DEFAULT_READ_TIMEOUT_MILLIS;
+
+    @Builder.Default
+    long writeTimeoutMillis = DEFAULT_WRITE_TIMEOUT_MILLIS;
+
+    /**
+     * Maximum duration in milliseconds of a whole call, including retries of connections and redirects.
+     */
+    @Builder.Default
+    long callTimeoutMillis = DEFAULT_CALL_TIMEOUT_MILLIS;
+
+    /**
+     * Protocols in order of preference, e.g. HTTP/2 then HTTP/1.1; the transport's defaults are used if null or empty.
+     */
+    List<HttpProtocol> protocols;
+
+    /**
+     * If true, a connection to the metrics endpoint is opened at startup, so the first batch
+     * does not pay for DNS resolution and the TLS handshake. Off by default, so the SDK does not
+     * reach out to the network before it has logs to send.
+     */
+    boolean warmUp;
+
+}
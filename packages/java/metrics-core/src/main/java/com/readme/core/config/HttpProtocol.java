@@ -0,0 +1,78 @@
+package com.readme.core.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * HTTP protocol the SDK's HTTP client may negotiate, see {@code HttpClientOptions.getProtocols()}.
+ * <p>
+ * The transports map these to their own types: OkHttp supports all of them, the JDK client
+ * only distinguishes HTTP/2 from HTTP/1.1.
+ */
+public enum HttpProtocol {
+
+    HTTP_1_1("http/1.1"),
+
+    /**
+     * HTTP/2 negotiated with ALPN over TLS.
+     */
+    HTTP_2("h2"),
+
+    /**
+     * Cleartext HTTP/2 without an upgrade, e.g. for a local collector known to support it.
+     */
+    H2_PRIOR_KNOWLEDGE("h2_prior_knowledge");
+
+    private final String id;
+
+    HttpProtocol(String id) {
+        this.id = id;
+    }
+
+    /**
+     * Returns the protocol's ALPN identifier, e.g. {@code h2}.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Returns the protocol with the given ALPN identifier, e.g. {@code http/1.1} or {@code h2}.
+     *
+     * @throws IllegalArgumentException if the identifier is unknown
+     */
+    public static HttpProtocol get(String id) {
+        for (HttpProtocol protocol : values()) {
+            if (protocol.id.equalsIgnoreCase(id)) {
+                return protocol;
+            }
+        }
+        throw new IllegalArgumentException("Unknown HTTP protocol: " + id);
+    }
+
+    /**
+     * Completes a list of protocols in order of preference so every transport accepts it:
+     * {@link #HTTP_1_1} is added as the fallback if it is missing, unless {@link #H2_PRIOR_KNOWLEDGE}
+     * is the only protocol.
+     *
+     * @param protocols the configured protocols; null or empty for the transport's defaults
+     * @return the protocols to use, with the fallback added if needed
+     * @throws IllegalArgumentException if {@link #H2_PRIOR_KNOWLEDGE} is combined with other protocols
+     */
+    public static List<HttpProtocol> withFallback(List<HttpProtocol> protocols) {
+        if (protocols == null || protocols.isEmpty() || protocols.contains(HTTP_1_1) && !protocols.contains(H2_PRIOR_KNOWLEDGE)) {
+            return protocols;
+        }
+        if (protocols.contains(H2_PRIOR_KNOWLEDGE)) {
+            if (protocols.size() > 1) {
+                throw new IllegalArgumentException("HTTP protocol " + H2_PRIOR_KNOWLEDGE.id
+                        + " cannot be combined with other protocols: " + protocols);
+            }
+            return protocols;
+        }
+        List<HttpProtocol> withFallback = new ArrayList<>(protocols);
+        withFallback.add(HTTP_1_1);
+        return withFallback;
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.readme.core.config;
+
+/**
+ * HTTP client used to send logs to ReadMe.
+ */
+public enum HttpTransport {
+
+    /**
+     * OkHttp, see {@link com.readme.core.datatransfer.HttpDataSender}.
+     */
+    OKHTTP,
+
+    /**
+     * The JDK's {@link java.net.http.HttpClient}, see {@link com.readme.core.datatransfer.JdkHttpDataSender}.
+     */
+    JDK
+
+}
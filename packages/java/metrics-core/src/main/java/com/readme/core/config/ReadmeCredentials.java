@@ -0,0 +1,44 @@
+package com.readme.core.config;
+
+import com.readme.core.datatransfer.ReadmeApiKeyEncoder;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * API key of a ReadMe project and the values derived from it. They are derived once, when the SDK is configured,
+ * and the instance is shared by the filter, the senders and {@link com.readme.core.datatransfer.BaseLogUrlFetcher},
+ * so requests never encode the key again.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ReadmeCredentials {
+
+    String readmeApiKey;
+
+    /**
+     * Value of the {@code Authorization} header sent to ReadMe: HTTP Basic with the API key as user name.
+     */
+    String authorizationHeader;
+
+    /**
+     * @param readmeApiKey the API key of the ReadMe project
+     * @return the credentials derived from the key
+     * @throws IllegalArgumentException if the key is null or blank
+     */
+    public static ReadmeCredentials of(String readmeApiKey) {
+        if (readmeApiKey == null || readmeApiKey.trim().isEmpty()) {
+            throw new IllegalArgumentException("The ReadMe API key is missing; set it to the API key of your ReadMe project");
+        }
+        return new ReadmeCredentials(readmeApiKey, ReadmeApiKeyEncoder.encode(readmeApiKey));
+    }
+
+    /**
+     * Keeps the API key out of logs.
+     */
+    @Override
+    public String toString() {
+        return "ReadmeCredentials(readmeApiKey=****)";
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.readme.core.config;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Retry and circuit breaker settings used when sending logs to the metrics endpoint.
+ */
+@Builder
+@Value
+public class RetryPolicy {
+
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final long DEFAULT_BASE_DELAY_MILLIS = 100;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 5000;
+    public static final int DEFAULT_CIRCUIT_BREAKER_FAILURE_THRESHOLD = 5;
+    public static final long DEFAULT_CIRCUIT_BREAKER_OPEN_MILLIS = 30_000;
+
+    /**
+     * Number of retries after a failed attempt; 0 disables retries.
+     */
+    @Builder.Default
+    int maxRetries = DEFAULT_MAX_RETRIES;
+
+    /**
+     * Minimal delay in milliseconds before a retry.
+     */
+    @Builder.Default
+    long baseDelayMillis = DEFAULT_BASE_DELAY_MILLIS;
+
+    /**
+     * Maximal delay in milliseconds before a retry. A {@code Retry-After} delay longer than this
+     * is not waited for: the batch fails and the circuit breaker stays open for the requested time.
+     */
+    @Builder.Default
+    long maxDelayMillis = DEFAULT_MAX_DELAY_MILLIS;
+
+    /**
+     * Number of consecutive failed sends after which the circuit breaker opens; 0 disables it.
+     */
+    @Builder.Default
+    int circuitBreakerFailureThreshold = DEFAULT_CIRCUIT_BREAKER_FAILURE_THRESHOLD;
+
+    /**
+     * Time in milliseconds the circuit breaker stays open before a single probe request is let through.
+     */
+    @Builder.Default
+    long circuitBreakerOpenMillis = DEFAULT_CIRCUIT_BREAKER_OPEN_MILLIS;
+
+}
@@ -0,0 +1,121 @@
+package com.readme.core.dataextraction;
+
+import java.nio.charset.Charset;
+
+/**
+ * Copy of the first bytes of a streamed body, together with the body's true size.
+ * <p>
+ * The stream wrappers pass every chunk they forward to {@link #write(byte[], int, int)}; bytes beyond the
+ * pool's maximum are only counted. Captures are used by one request at a time and are not thread-safe.
+ * {@link #release()} gives the buffer back to its {@link BodyCapturePool}, so the captured content has to be
+ * read before.
+ */
+public class BodyCapture {
+
+    private final BodyCapturePool pool;
+
+    private byte[] buffer;
+
+    private int capturedBytes;
+
+    private long totalBytes;
+
+    private boolean countOnly;
+
+    BodyCapture(BodyCapturePool pool) {
+        this.pool = pool;
+    }
+
+    public void write(int b) {
+        totalBytes++;
+        if (!countOnly && capturedBytes < pool.getMaxCapturedBytes()) {
+            ensureBuffer();
+            buffer[capturedBytes++] = (byte) b;
+        }
+    }
+
+    public void write(byte[] bytes, int offset, int length) {
+        totalBytes += length;
+        int captured = countOnly ? 0 : Math.min(length, pool.getMaxCapturedBytes() - capturedBytes);
+        if (captured > 0) {
+            ensureBuffer();
+            System.arraycopy(bytes, offset, buffer, capturedBytes, captured);
+            capturedBytes += captured;
+        }
+    }
+
+    private void ensureBuffer() {
+        if (buffer == null) {
+            buffer = pool.borrowBuffer();
+        }
+    }
+
+    /**
+     * Drops the bytes captured so far and only counts the following ones, e.g. for a streamed body
+     * of which only the metadata is logged.
+     */
+    public void stopCapturing() {
+        countOnly = true;
+        capturedBytes = 0;
+        returnBuffer();
+    }
+
+    public boolean isCapturing() {
+        return !countOnly;
+    }
+
+    /**
+     * Returns the maximum number of bytes kept; 0 if body capture is disabled.
+     */
+    public int getMaxCapturedBytes() {
+        return pool.getMaxCapturedBytes();
+    }
+
+    /**
+     * Decodes the captured bytes. A multi-byte character cut off at the end of a truncated body is
+     * decoded as a replacement character.
+     */
+    public String toString(Charset charset) {
+        return capturedBytes == 0 ? "" : new String(buffer, 0, capturedBytes, charset);
+    }
+
+    public int getCapturedBytes() {
+        return capturedBytes;
+    }
+
+    /**
+     * Returns the number of bytes that went through the stream, including those which were not captured.
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public boolean isTruncated() {
+        return totalBytes > capturedBytes;
+    }
+
+    /**
+     * Empties the capture and captures again from the next byte on, e.g. after the response buffer was reset.
+     */
+    public void reset() {
+        release();
+        countOnly = false;
+    }
+
+    /**
+     * Returns the buffer to the pool; the capture is empty afterwards.
+     */
+    public void release() {
+        returnBuffer();
+        capturedBytes = 0;
+        totalBytes = 0;
+    }
+
+    private void returnBuffer() {
+        if (buffer != null) {
+            pool.returnBuffer(buffer);
+            buffer = null;
+        }
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.readme.core.dataextraction;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Hands out {@link BodyCapture}s, which copy at most {@code maxCapturedBytes} of a request or response
+ * body for logging while the body itself is streamed to its destination.
+ * <p>
+ * The capture buffers are reused: a capture borrows a buffer with its first byte and gives it back on
+ * {@link BodyCapture#release()}. At most {@code maxPooledBuffers} idle buffers are kept; when the pool is
+ * empty a new buffer is allocated, and a buffer released into a full pool is left to the garbage collector.
+ * The memory used for logging bodies is thus bounded per request, and steady traffic does not allocate.
+ */
+public class BodyCapturePool {
+
+    public static final int DEFAULT_MAX_CAPTURED_BYTES = 64 * 1024;
+    public static final int DEFAULT_MAX_POOLED_BUFFERS = 32;
+
+    private final int maxCapturedBytes;
+
+    private final ArrayBlockingQueue<byte[]> buffers;
+
+    public BodyCapturePool() {
+        this(DEFAULT_MAX_CAPTURED_BYTES, DEFAULT_MAX_POOLED_BUFFERS);
+    }
+
+    /**
+     * @param maxCapturedBytes maximum number of bytes of a body kept for logging; 0 disables body capture
+     * @param maxPooledBuffers maximum number of idle buffers kept for reuse
+     */
+    public BodyCapturePool(int maxCapturedBytes, int maxPooledBuffers) {
+        if (maxCapturedBytes < 0) {
+            throw new IllegalArgumentException("Maximum captured bytes must not be negative");
+        }
+        this.maxCapturedBytes = maxCapturedBytes;
+        this.buffers = new ArrayBlockingQueue<>(Math.max(1, maxPooledBuffers));
+    }
+
+    /**
+     * Returns a new, empty capture; it does not hold a buffer until something is written to it.
+     */
+    public BodyCapture acquire() {
+        return new BodyCapture(this);
+    }
+
+    public int getMaxCapturedBytes() {
+        return maxCapturedBytes;
+    }
+
+    byte[] borrowBuffer() {
+        byte[] buffer = buffers.poll();
+        return buffer != null ? buffer : new byte[maxCapturedBytes];
+    }
+
+    void returnBuffer(byte[] buffer) {
+        buffers.offer(buffer);
+    }
+
+}
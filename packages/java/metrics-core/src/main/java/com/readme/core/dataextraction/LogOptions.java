@@ -49,6 +49,43 @@ public class LogOptions {
      */
     int bufferLength;
 
+    /**
+     * Maximum estimated size in bytes of the logs sent in one request. A batch is closed as soon as
+     * it reaches either {@code bufferLength} logs or this size, whichever comes first; a single log
+     * larger than the budget is sent on its own. A value of 0 or less disables the size limit.
+     */
+    private long maxBatchBytes;
+
+    /**
+     * Maximum time in milliseconds a log may wait in the buffer before it is flushed by the
+     * background flush thread, even if {@code bufferLength} has not been reached yet.
+     * A value of 0 or less disables time-based flushing.
+     */
+    private long flushIntervalMillis;
+
+    /**
+     * Maximum number of batches the dispatcher sends at the same time without waiting for their results,
+     * so a single flushing thread can keep several requests in flight. Values below 1 are treated as 1.
+     */
+    private int maxPendingBatches;
+
+    /**
+     * Maximum number of logs kept in memory while waiting to be sent. When it is reached,
+     * new logs are handled according to {@code overflowPolicy}. The capacity is never lower
+     * than {@code bufferLength}.
+     */
+    private int bufferCapacity;
+
+    /**
+     * What to do with new logs when the buffer is full
+     */
+    private OverflowPolicy overflowPolicy;
+
+    /**
+     * How long in milliseconds to wait for free space with {@link OverflowPolicy#BLOCK}
+     */
+    private long overflowTimeoutMillis;
+
     private LogOptions(Builder builder) {
         this.allowlist = builder.allowlist;
         this.denylist = builder.denylist;
@@ -56,6 +93,12 @@ public class LogOptions {
         this.fireAndForget = builder.fireAndForget;
         this.baseLogUrl = builder.baseLogUrl;
         this.bufferLength = builder.bufferLength;
+        this.maxBatchBytes = builder.maxBatchBytes;
+        this.flushIntervalMillis = builder.flushIntervalMillis;
+        this.maxPendingBatches = builder.maxPendingBatches;
+        this.bufferCapacity = builder.bufferCapacity;
+        this.overflowPolicy = builder.overflowPolicy;
+        this.overflowTimeoutMillis = builder.overflowTimeoutMillis;
     }
 
     public static Builder builder() {
@@ -69,6 +112,12 @@ public class LogOptions {
         private boolean fireAndForget;
         private String baseLogUrl;
         private int bufferLength = 1; // default
+        private long maxBatchBytes = 1024 * 1024; // default
+        private long flushIntervalMillis = 500; // default
+        private int maxPendingBatches = 4; // default
+        private int bufferCapacity = 1024; // default
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_NEWEST; // default
+        private long overflowTimeoutMillis = 100; // default
 
         @NotNull
         private static Set<String> castToSetWithLowercase(List<String> allowlist) {
@@ -108,6 +157,36 @@ public class LogOptions {
             return this;
         }
 
+        public Builder maxBatchBytes(long maxBatchBytes) {
+            this.maxBatchBytes = maxBatchBytes;
+            return this;
+        }
+
+        public Builder flushIntervalMillis(long flushIntervalMillis) {
+            this.flushIntervalMillis = flushIntervalMillis;
+            return this;
+        }
+
+        public Builder maxPendingBatches(int maxPendingBatches) {
+            this.maxPendingBatches = maxPendingBatches;
+            return this;
+        }
+
+        public Builder bufferCapacity(int bufferCapacity) {
+            this.bufferCapacity = bufferCapacity;
+            return this;
+        }
+
+        public Builder overflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        public Builder overflowTimeoutMillis(long overflowTimeoutMillis) {
+            this.overflowTimeoutMillis = overflowTimeoutMillis;
+            return this;
+        }
+
         public LogOptions build() {
             return new LogOptions(this);
         }
@@ -0,0 +1,25 @@
+package com.readme.core.dataextraction;
+
+/**
+ * Defines what happens to a new log when the dispatch buffer has reached its capacity,
+ * for example because the metrics endpoint is unavailable and batches cannot be sent.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * The new log is dropped and the buffered logs are kept.
+     */
+    DROP_NEWEST,
+
+    /**
+     * The oldest buffered log is dropped to make room for the new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * The dispatching thread waits up to {@code LogOptions.getOverflowTimeoutMillis()} for free space
+     * and drops the new log if none becomes available.
+     */
+    BLOCK
+
+}
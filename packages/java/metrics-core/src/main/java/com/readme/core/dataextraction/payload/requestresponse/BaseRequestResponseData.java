@@ -19,4 +19,15 @@ public abstract class BaseRequestResponseData {
      */
     Map<String, String> headers;
 
+    /**
+     * Size in bytes of the body as it was transferred, or null if unknown. It can be larger than
+     * the logged body, which is limited to a prefix of the transferred one.
+     */
+    Long bodySize;
+
+    /**
+     * True if the logged body is only a prefix of the transferred one.
+     */
+    boolean bodyTruncated;
+
 }
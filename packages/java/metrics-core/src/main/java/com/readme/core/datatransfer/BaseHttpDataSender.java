@@ -0,0 +1,466 @@
+package com.readme.core.datatransfer;
+
+import com.readme.core.config.ContentEncoding;
+import com.readme.core.config.CoreConfig;
+import com.readme.core.config.RetryPolicy;
+import com.readme.core.dataextraction.LogOptions;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.readme.core.config.ReadmeApiConfig.README_METRICS_URL;
+
+/**
+ * Sending logic shared by the {@link DataSender} implementations over HTTP, independent of the HTTP client:
+ * in-flight admission, the {@link CircuitBreaker}, retries according to the {@link RetryPolicy},
+ * and splitting of oversized batches with the {@link BatchSplitter}.
+ * <p>
+ * Subclasses only adapt their HTTP client: they build the request for a batch and execute it,
+ * reporting the status and the {@code Retry-After} header of the response.
+ *
+ * @param <R> request type of the HTTP client
+ */
+@Slf4j
+abstract class BaseHttpDataSender<R> implements DataSender {
+
+    protected final CoreConfig coreConfig;
+    protected final ContentEncoding contentEncoding;
+    protected final String authorizationHeader;
+    protected final String metricsUrl;
+    protected final JsonMappers jsonMappers;
+    private final RetryPolicy retryPolicy;
+    private final CircuitBreaker circuitBreaker;
+    private final InFlightLimiter inFlightLimiter;
+    private final BatchSplitter batchSplitter;
+
+    BaseHttpDataSender(CoreConfig coreConfig, JsonMappers jsonMappers) {
+        this.coreConfig = coreConfig;
+        this.jsonMappers = jsonMappers;
+        this.contentEncoding = Compressors.resolve(coreConfig.getContentEncoding());
+        this.authorizationHeader = coreConfig.getCredentials().getAuthorizationHeader();
+        this.metricsUrl = coreConfig.getMetricsUrl() != null ? coreConfig.getMetricsUrl() : README_METRICS_URL;
+        this.retryPolicy = coreConfig.getRetryPolicy() != null ? coreConfig.getRetryPolicy() : RetryPolicy.builder().build();
+        this.circuitBreaker = new CircuitBreaker(retryPolicy.getCircuitBreakerFailureThreshold(),
+                retryPolicy.getCircuitBreakerOpenMillis());
+        this.inFlightLimiter = new InFlightLimiter(
+                coreConfig.getMaxInFlightBatches() > 0
+                        ? coreConfig.getMaxInFlightBatches()
+                        : CoreConfig.DEFAULT_MAX_IN_FLIGHT_BATCHES,
+                coreConfig.getMaxInFlightBytes() > 0
+                        ? coreConfig.getMaxInFlightBytes()
+                        : CoreConfig.DEFAULT_MAX_IN_FLIGHT_BYTES);
+        this.batchSplitter = new BatchSplitter(coreConfig.getMaxRequestBytes(), this::sendPartAsync);
+    }
+
+    /**
+     * Builds the request for a batch of logs.
+     *
+     * @param estimatedSize estimated size of the serialized logs
+     */
+    abstract R createRequest(List<OutgoingLogBody> payloadData, long estimatedSize) throws IOException;
+
+    /**
+     * Builds the request for logs which were already serialized to a JSON array.
+     */
+    abstract R createRequest(byte[] serializedLogs) throws IOException;
+
+    /**
+     * Returns the length of the request body if it is known up front, the estimated size of the logs otherwise.
+     */
+    abstract long requestBytes(R request, long estimatedSize);
+
+    /**
+     * Executes the request and waits for the response.
+     *
+     * @throws IOException if no response was received
+     */
+    abstract EndpointResponse execute(R request) throws IOException, InterruptedException;
+
+    /**
+     * Executes the request without blocking the calling thread. The future completes exceptionally
+     * with an {@link IOException} if no response was received.
+     */
+    abstract CompletableFuture<EndpointResponse> executeAsync(R request);
+
+    /**
+     * Returns true if a body of the given size is compressed before it is sent.
+     */
+    boolean isCompressed(long estimatedSize) {
+        return contentEncoding != ContentEncoding.NONE && estimatedSize >= coreConfig.getCompressionMinBytes();
+    }
+
+    @Override
+    public boolean send(List<OutgoingLogBody> payloadData, LogOptions logOptions) {
+        if (payloadData != null) {
+            try {
+                long estimatedSize = estimateSize(payloadData);
+                boolean oversized = batchSplitter.isOversized(estimatedSize);
+                R request = oversized ? null : createRequest(payloadData, estimatedSize);
+                boolean fireAndForget = logOptions.isFireAndForget();
+                if (fireAndForget && !inFlightLimiter.admit(estimatedSize, coreConfig.getInFlightAdmissionTimeoutMillis())) {
+                    log.debug("Too many fire-and-forget batches in flight, the outgoing payload has been rejected");
+                    return false;
+                }
+                if (!circuitBreaker.allowRequest()) {
+                    if (fireAndForget) {
+                        inFlightLimiter.release(estimatedSize);
+                    }
+                    log.debug("The circuit breaker is open, the outgoing payload has not been sent");
+                    return false;
+                }
+                if (fireAndForget) {
+                    sendBatchAsync(payloadData, request, estimatedSize)
+                            .whenComplete((result, e) -> inFlightLimiter.release(estimatedSize));
+                    return true;
+                }
+                if (oversized) {
+                    return await(batchSplitter.send(payloadData));
+                }
+                return await(splitIfTooLarge(payloadData, executeWithRetries(request, estimatedSize)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                circuitBreaker.recordFailure();
+                log.error("Error while sending collected data: ", e);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sends the batch without waiting for the response. The batch is admitted within the same
+     * in-flight limits as fire-and-forget batches.
+     */
+    @Override
+    public CompletableFuture<SendResult> sendAsync(List<OutgoingLogBody> payloadData, LogOptions logOptions) {
+        if (payloadData == null) {
+            return CompletableFuture.completedFuture(SendResult.notSent());
+        }
+        long start = System.nanoTime();
+        try {
+            long estimatedSize = estimateSize(payloadData);
+            R request = batchSplitter.isOversized(estimatedSize)
+                    ? null
+                    : createRequest(payloadData, estimatedSize);
+            if (!inFlightLimiter.admit(estimatedSize, coreConfig.getInFlightAdmissionTimeoutMillis())) {
+                log.debug("Too many batches in flight, the outgoing payload has been rejected");
+                return CompletableFuture.completedFuture(SendResult.notSent());
+            }
+            if (!circuitBreaker.allowRequest()) {
+                inFlightLimiter.release(estimatedSize);
+                log.debug("The circuit breaker is open, the outgoing payload has not been sent");
+                return CompletableFuture.completedFuture(SendResult.notSent());
+            }
+            return sendBatchAsync(payloadData, request, estimatedSize).handle((result, e) -> {
+                inFlightLimiter.release(estimatedSize);
+                SendResult sendResult = result != null ? result : SendResult.notSent();
+                return sendResult.toBuilder()
+                        .latencyMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+                        .build();
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            circuitBreaker.recordFailure();
+            log.error("Error while sending collected data: ", e);
+        }
+        return CompletableFuture.completedFuture(SendResult.notSent());
+    }
+
+    /**
+     * Sends logs which were already serialized. They cannot be split, so a batch rejected as too large
+     * is dropped and reported as handled, otherwise it would be spooled and resent forever.
+     */
+    @Override
+    public boolean sendSerialized(byte[] serializedLogs) {
+        if (!circuitBreaker.allowRequest()) {
+            return false;
+        }
+        SendResult result;
+        try {
+            result = executeWithRetries(createRequest(serializedLogs), serializedLogs.length);
+        } catch (IOException | RuntimeException e) {
+            circuitBreaker.recordFailure();
+            log.error("Error while sending collected data: ", e);
+            return false;
+        }
+        if (result.isTooLarge()) {
+            log.error("readme-metrics: A serialized batch of {} bytes is too large for the metrics endpoint and has been dropped",
+                    serializedLogs.length);
+            return true;
+        }
+        return result.isSuccessful();
+    }
+
+    /**
+     * Returns the number of batches rejected because of the in-flight limits, fire-and-forget or sent asynchronously.
+     */
+    public long getRejectedBatchesCount() {
+        return inFlightLimiter.getRejectedCount();
+    }
+
+    /**
+     * Returns the number of logs dropped because they were too large for the metrics endpoint.
+     */
+    public long getDroppedOversizedLogsCount() {
+        return batchSplitter.getDroppedLogsCount();
+    }
+
+    @Override
+    public boolean awaitCompletion(long timeout, TimeUnit unit) {
+        return inFlightLimiter.awaitIdle(timeout, unit);
+    }
+
+    /**
+     * Sends the batch asynchronously, split up front if it is oversized.
+     *
+     * @param request request with the whole batch, or null if the batch is oversized
+     */
+    private CompletableFuture<SendResult> sendBatchAsync(List<OutgoingLogBody> payloadData, R request,
+                                                         long estimatedSize) {
+        if (request == null) {
+            return batchSplitter.send(payloadData);
+        }
+        return sendAsync(request, estimatedSize).thenCompose(result -> splitIfTooLarge(payloadData, result));
+    }
+
+    private CompletableFuture<SendResult> splitIfTooLarge(List<OutgoingLogBody> payloadData, SendResult result) {
+        if (result.isTooLarge()) {
+            log.debug("The metrics endpoint rejected a batch of {} logs as too large, splitting it", payloadData.size());
+            return batchSplitter.bisect(payloadData);
+        }
+        return CompletableFuture.completedFuture(result);
+    }
+
+    private static boolean await(CompletableFuture<SendResult> result) throws InterruptedException {
+        try {
+            return result.get().isSuccessful();
+        } catch (ExecutionException e) {
+            log.error("Error while sending collected data: ", e.getCause());
+            return false;
+        }
+    }
+
+    /**
+     * Sends the request on the calling thread, sleeping between attempts. Asynchronous sends are retried
+     * on the {@link Retries} scheduler instead, see {@link RetryingExchange}.
+     */
+    private SendResult executeWithRetries(R request, long estimatedSize) {
+        long start = System.nanoTime();
+        long bytes = requestBytes(request, estimatedSize);
+        long previousDelay = retryPolicy.getBaseDelayMillis();
+        int statusCode = SendResult.NO_STATUS;
+        for (int attempt = 0; ; attempt++) {
+            long retryDelay;
+            try {
+                EndpointResponse response = execute(request);
+                statusCode = response.getStatusCode();
+                if (response.isSuccessful()) {
+                    circuitBreaker.recordSuccess();
+                    return result(true, statusCode, bytes, start, -1);
+                }
+                if (statusCode == 413) {
+                    // the endpoint is reachable, only this batch has to be split
+                    circuitBreaker.recordSuccess();
+                    return result(false, statusCode, bytes, start, -1);
+                }
+                if (!Retries.isRetryable(statusCode)) {
+                    circuitBreaker.recordFailure();
+                    log.error("The metrics endpoint rejected the outgoing payload with status {}", statusCode);
+                    return result(false, statusCode, bytes, start, -1);
+                }
+                retryDelay = response.getRetryAfterMillis();
+            } catch (IOException e) {
+                log.debug("Error while sending collected data: {}", e.getMessage());
+                retryDelay = -1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                circuitBreaker.recordNeutral();
+                return result(false, statusCode, bytes, start, -1);
+            } catch (Exception e) {
+                circuitBreaker.recordFailure();
+                log.error("Error while sending collected data: ", e);
+                return result(false, statusCode, bytes, start, -1);
+            }
+
+            if (retryDelay > retryPolicy.getMaxDelayMillis()) {
+                circuitBreaker.openFor(retryDelay, TimeUnit.MILLISECONDS);
+                return result(false, statusCode, bytes, start, retryDelay);
+            }
+            if (attempt >= retryPolicy.getMaxRetries()) {
+                circuitBreaker.recordFailure();
+                log.error("Failed to send outgoing payload after {} attempts", attempt + 1);
+                return result(false, statusCode, bytes, start, retryDelay);
+            }
+            if (retryDelay < 0) {
+                retryDelay = Retries.nextBackoffMillis(retryPolicy, previousDelay);
+                previousDelay = retryDelay;
+            }
+            try {
+                Thread.sleep(retryDelay);
+            } catch (InterruptedException e) {
+                // e.g. on shutdown: give up without counting it against the endpoint
+                Thread.currentThread().interrupt();
+                circuitBreaker.recordNeutral();
+                return result(false, statusCode, bytes, start, -1);
+            }
+        }
+    }
+
+    /**
+     * Sends a part of a split batch asynchronously, so the parts are sent in parallel.
+     */
+    private CompletableFuture<SendResult> sendPartAsync(List<OutgoingLogBody> payloadData) {
+        try {
+            long estimatedSize = estimateSize(payloadData);
+            return sendAsync(createRequest(payloadData, estimatedSize), estimatedSize);
+        } catch (IOException | RuntimeException e) {
+            circuitBreaker.recordFailure();
+            log.error("Error while sending collected data: ", e);
+            return CompletableFuture.completedFuture(SendResult.notSent());
+        }
+    }
+
+    private CompletableFuture<SendResult> sendAsync(R request, long estimatedSize) {
+        RetryingExchange exchange = new RetryingExchange(request, requestBytes(request, estimatedSize));
+        exchange.attempt();
+        return exchange.result;
+    }
+
+    /**
+     * Sends a request and retries it on a scheduler, so no thread is blocked while waiting. The result is
+     * completed once the endpoint accepted the logs, rejected them as too large, or no retry is allowed.
+     */
+    private class RetryingExchange {
+
+        private final R request;
+        private final long bytes;
+        private final long start = System.nanoTime();
+        private final CompletableFuture<SendResult> result = new CompletableFuture<>();
+        private int attempt;
+        private long previousDelay = retryPolicy.getBaseDelayMillis();
+        private int statusCode = SendResult.NO_STATUS;
+        private long retryAfter = SendResult.NO_RETRY_AFTER;
+
+        private RetryingExchange(R request, long bytes) {
+            this.request = request;
+            this.bytes = bytes;
+        }
+
+        private void attempt() {
+            CompletableFuture<EndpointResponse> response;
+            try {
+                response = executeAsync(request);
+            } catch (RuntimeException e) {
+                complete(false);
+                log.error("Error while sending collected data: ", e);
+                return;
+            }
+            response.whenComplete(this::onResponse);
+        }
+
+        private void onResponse(EndpointResponse response, Throwable error) {
+            long retryDelay;
+            if (error == null) {
+                statusCode = response.getStatusCode();
+                retryAfter = response.getRetryAfterMillis();
+                if (response.isSuccessful()) {
+                    complete(true);
+                    return;
+                }
+                if (statusCode == 413) {
+                    circuitBreaker.recordSuccess();
+                    result.complete(result(false, statusCode, bytes, start, retryAfter));
+                    return;
+                }
+                if (!Retries.isRetryable(statusCode)) {
+                    complete(false);
+                    log.error("The metrics endpoint rejected the outgoing payload with status {}", statusCode);
+                    return;
+                }
+                retryDelay = retryAfter;
+            } else {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                if (!(cause instanceof IOException)) {
+                    complete(false);
+                    log.error("Error while sending collected data: ", cause);
+                    return;
+                }
+                log.debug("Error while sending collected data: {}", cause.getMessage());
+                retryDelay = -1;
+            }
+
+            if (retryDelay > retryPolicy.getMaxDelayMillis()) {
+                circuitBreaker.openFor(retryDelay, TimeUnit.MILLISECONDS);
+                result.complete(result(false, statusCode, bytes, start, retryAfter));
+                return;
+            }
+            if (attempt++ >= retryPolicy.getMaxRetries()) {
+                complete(false);
+                log.error("Failed to send outgoing payload after {} attempts", attempt);
+                return;
+            }
+            if (retryDelay < 0) {
+                retryDelay = Retries.nextBackoffMillis(retryPolicy, previousDelay);
+                previousDelay = retryDelay;
+            }
+            Retries.schedule(this::attempt, retryDelay);
+        }
+
+        private void complete(boolean successful) {
+            if (successful) {
+                circuitBreaker.recordSuccess();
+            } else {
+                circuitBreaker.recordFailure();
+            }
+            result.complete(result(successful, statusCode, bytes, start, retryAfter));
+        }
+    }
+
+    private static SendResult result(boolean successful, int statusCode, long bytes, long start, long retryAfterMillis) {
+        return SendResult.builder()
+                .successful(successful)
+                .statusCode(statusCode)
+                .bytes(bytes)
+                .latencyMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+                .retryAfterMillis(retryAfterMillis)
+                .build();
+    }
+
+    private static long estimateSize(List<OutgoingLogBody> payloadData) {
+        long estimatedSize = 0;
+        for (OutgoingLogBody outgoingLogBody : payloadData) {
+            estimatedSize += outgoingLogBody.getEstimatedSize();
+        }
+        return estimatedSize;
+    }
+
+    /**
+     * What the retry logic needs from a response of the metrics endpoint.
+     */
+    @Value
+    static class EndpointResponse {
+
+        int statusCode;
+
+        /**
+         * Delay requested with {@code Retry-After}, or {@link SendResult#NO_RETRY_AFTER}.
+         */
+        long retryAfterMillis;
+
+        static EndpointResponse of(int statusCode, String retryAfterHeader) {
+            return new EndpointResponse(statusCode, Retries.retryAfterMillis(statusCode, retryAfterHeader));
+        }
+
+        boolean isSuccessful() {
+            return statusCode >= 200 && statusCode < 300;
+        }
+    }
+
+}
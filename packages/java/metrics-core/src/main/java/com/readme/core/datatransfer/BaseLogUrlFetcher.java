@@ -1,10 +1,20 @@
 package com.readme.core.datatransfer;
 
-import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.AsyncCache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.readme.core.config.ReadmeCredentials;
 import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Function;
 
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -12,59 +22,241 @@ import okhttp3.Response;
 import org.json.JSONObject;
 
 import static com.readme.core.config.ReadmeApiConfig.README_API_URL;
-import static com.readme.core.datatransfer.ReadmeApiKeyEncoder.encode;
 
+/**
+ * Looks up the base URL of a project's logs with the ReadMe API and caches it per API key.
+ * <p>
+ * The static methods use a default instance with its own HTTP client. An application sharing its
+ * client with the SDK, so both use a single connection pool, creates its own instance instead,
+ * e.g. for a {@link BaseLogUrlResolver}; nothing is shared between instances.
+ * <p>
+ * An instance created with the JDK's {@link HttpClient} does not load any OkHttp class, like {@link JdkHttpDataSender}.
+ */
 @Slf4j
 public class BaseLogUrlFetcher {
 
     protected static final int CACHE_EXPIRATION_DAYS = 1;
     protected static final int REQUEST_TIMEOUT_SECONDS = 10;
+    protected static final int FAILURE_CACHE_EXPIRATION_SECONDS = 30;
 
-    private static final Cache<String, String> baseUrlCache;
-    private static final OkHttpClient httpClient;
+    private static final Executor DEFAULT_FETCH_EXECUTOR = Executors.newCachedThreadPool(
+            DispatchExecutors.namedDaemonThreadFactory("readme-metrics-fetcher-"));
 
-    static {
-        baseUrlCache = Caffeine.newBuilder()
-                .expireAfterWrite(CACHE_EXPIRATION_DAYS, TimeUnit.DAYS)
-                .maximumSize(512)
-                .build();
+    private final AsyncCache<String, String> baseUrlCache = Caffeine.newBuilder()
+            .expireAfter(new BaseUrlExpiry())
+            .maximumSize(512)
+            .buildAsync();
 
-        httpClient = new OkHttpClient.Builder()
-                .callTimeout(REQUEST_TIMEOUT_SECONDS, TimeUnit.SECONDS)
-                .build();
+    private final ApiCall apiCall;
+
+    /**
+     * Executor running the HTTP lookups. The lookup is never run inside the cache's own
+     * compute lock, so waiting callers park instead of pinning their (possibly virtual) thread.
+     */
+    private final Executor fetchExecutor;
+
+    /**
+     * @param httpClient client calling the ReadMe API, e.g. the one sending the logs (see {@link HttpClients})
+     */
+    public BaseLogUrlFetcher(OkHttpClient httpClient) {
+        this(httpClient, DEFAULT_FETCH_EXECUTOR);
+    }
+
+    /**
+     * @param httpClient    client calling the ReadMe API
+     * @param fetchExecutor executor running the HTTP lookups, e.g. a virtual-thread-per-task executor
+     */
+    public BaseLogUrlFetcher(OkHttpClient httpClient, Executor fetchExecutor) {
+        this(new OkHttpApiCall(httpClient), fetchExecutor);
+    }
+
+    /**
+     * @param httpClient JDK client calling the ReadMe API, e.g. the one sending the logs with {@link JdkHttpDataSender}
+     */
+    public BaseLogUrlFetcher(HttpClient httpClient) {
+        this(httpClient, DEFAULT_FETCH_EXECUTOR);
+    }
+
+    /**
+     * @param httpClient    JDK client calling the ReadMe API
+     * @param fetchExecutor executor running the HTTP lookups, e.g. a virtual-thread-per-task executor
+     */
+    public BaseLogUrlFetcher(HttpClient httpClient, Executor fetchExecutor) {
+        this(new JdkApiCall(httpClient), fetchExecutor);
     }
 
+    private BaseLogUrlFetcher(ApiCall apiCall, Executor fetchExecutor) {
+        this.apiCall = apiCall;
+        this.fetchExecutor = fetchExecutor;
+    }
+
+    /**
+     * @param readmeApiKey the API key itself, not the encoded {@code Authorization} header
+     */
     public static String fetchBaseLogUrl(String readmeApiKey) {
-        return fetchBaseLogUrl(readmeApiKey, README_API_URL);
+        return fetchBaseLogUrl(ReadmeCredentials.of(readmeApiKey), README_API_URL);
     }
 
+    /**
+     * @param readmeApiKey the API key itself, not the encoded {@code Authorization} header
+     * @param apiUrl       URL of the ReadMe API
+     */
     public static String fetchBaseLogUrl(String readmeApiKey, String apiUrl) {
-        Function<String, String> fetcher = key -> baseUrlCache.get(key, readmeApiKey1
-                -> fetchBaseUrlFromApi(readmeApiKey1, apiUrl));
-        return fetcher.apply(readmeApiKey);
+        return fetchBaseLogUrl(ReadmeCredentials.of(readmeApiKey), apiUrl);
+    }
+
+    public static String fetchBaseLogUrl(ReadmeCredentials credentials) {
+        return fetchBaseLogUrl(credentials, README_API_URL);
     }
 
-    private static String fetchBaseUrlFromApi(String readmeApiKey, String apiUrl) {
-        String encodedApiKey = encode(readmeApiKey);
+    /**
+     * Looks the base URL up with the default instance, see {@link #fetch(ReadmeCredentials, String)}.
+     */
+    public static String fetchBaseLogUrl(ReadmeCredentials credentials, String apiUrl) {
+        return DefaultHolder.DEFAULT.fetch(credentials, apiUrl);
+    }
+
+    /**
+     * Returns the default instance, used by the static methods.
+     */
+    static BaseLogUrlFetcher defaultFetcher() {
+        return DefaultHolder.DEFAULT;
+    }
 
-        Request request = new Request.Builder()
-                .url(apiUrl + "/v1")
-                .header("Authorization", encodedApiKey)
-                .build();
+    /**
+     * Returns the base URL of the project's logs, looked up once per API key and cached.
+     *
+     * @param credentials credentials of the project, providing the encoded {@code Authorization} header
+     * @param apiUrl      URL of the ReadMe API
+     * @return the base URL, or an empty string if it could not be looked up; a failed lookup is only
+     * cached for {@value #FAILURE_CACHE_EXPIRATION_SECONDS} seconds
+     */
+    public String fetch(ReadmeCredentials credentials, String apiUrl) {
+        return baseUrlCache.get(credentials.getReadmeApiKey(), (key, cacheExecutor) ->
+                        CompletableFuture.supplyAsync(
+                                () -> fetchBaseUrlFromApi(credentials.getAuthorizationHeader(), apiUrl), fetchExecutor))
+                .join();
+    }
 
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                log.error("Failed to fetch baseUrl: {} ", response.code() + " - " + response.message());
+    /**
+     * Looks up the base URL without the cache, e.g. to refresh it in the background.
+     *
+     * @return the base URL, or an empty string if it could not be looked up
+     */
+    String request(ReadmeCredentials credentials, String apiUrl) {
+        return fetchBaseUrlFromApi(credentials.getAuthorizationHeader(), apiUrl);
+    }
+
+    private String fetchBaseUrlFromApi(String authorizationHeader, String apiUrl) {
+        try {
+            String responseBody = apiCall.get(apiUrl + "/v1", authorizationHeader);
+            if (responseBody == null) {
                 return "";
             }
-
-            String responseBody = response.body() != null ? response.body().string() : "";
             JSONObject jsonResponse = new JSONObject(responseBody);
             return jsonResponse.optString("baseUrl", "");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "";
         } catch (Exception e) {
             log.error("Error while fetching baseUrl: {}", e.getMessage());
             return "";
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Default instance with its own OkHttp client, created on first use of the static methods only.
+     */
+    private static final class DefaultHolder {
+
+        private static final BaseLogUrlFetcher DEFAULT = new BaseLogUrlFetcher(new OkHttpClient.Builder()
+                .callTimeout(REQUEST_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .build());
+    }
+
+    /**
+     * A {@code GET} request to the ReadMe API with one of the supported HTTP clients.
+     */
+    private interface ApiCall {
+
+        /**
+         * @return the response body, or null if the API answered with an error status, which is logged
+         */
+        String get(String url, String authorizationHeader) throws Exception;
+    }
+
+    private static final class OkHttpApiCall implements ApiCall {
+
+        private final OkHttpClient httpClient;
+
+        private OkHttpApiCall(OkHttpClient httpClient) {
+            this.httpClient = httpClient;
+        }
+
+        @Override
+        public String get(String url, String authorizationHeader) throws Exception {
+            Request request = new Request.Builder()
+                    .url(url)
+                    .header("Authorization", authorizationHeader)
+                    .build();
+
+            try (Response response = httpClient.newCall(request).execute()) {
+                if (!response.isSuccessful()) {
+                    log.error("Failed to fetch baseUrl: {} ", response.code() + " - " + response.message());
+                    return null;
+                }
+                return response.body() != null ? response.body().string() : "";
+            }
+        }
+    }
+
+    private static final class JdkApiCall implements ApiCall {
+
+        private final HttpClient httpClient;
+
+        private JdkApiCall(HttpClient httpClient) {
+            this.httpClient = httpClient;
+        }
+
+        @Override
+        public String get(String url, String authorizationHeader) throws Exception {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                    .header("Authorization", authorizationHeader)
+                    .timeout(Duration.ofSeconds(REQUEST_TIMEOUT_SECONDS))
+                    .GET()
+                    .build();
+
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                log.error("Failed to fetch baseUrl: {} ", response.statusCode());
+                return null;
+            }
+            return response.body();
+        }
+    }
+
+    /**
+     * Keeps a base URL for {@value #CACHE_EXPIRATION_DAYS} day, but a failed lookup only briefly,
+     * so a ReadMe outage at startup does not hide the documentation links for a whole day.
+     */
+    private static final class BaseUrlExpiry implements Expiry<String, String> {
+
+        @Override
+        public long expireAfterCreate(String key, String baseUrl, long currentTime) {
+            return baseUrl.isEmpty()
+                    ? TimeUnit.SECONDS.toNanos(FAILURE_CACHE_EXPIRATION_SECONDS)
+                    : TimeUnit.DAYS.toNanos(CACHE_EXPIRATION_DAYS);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, String baseUrl, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, baseUrl, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, String baseUrl, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.readme.core.datatransfer;
+
+import com.readme.core.config.ReadmeCredentials;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.readme.core.config.ReadmeApiConfig.README_API_URL;
+
+/**
+ * Keeps the base URL of a project's logs up to date in the background, so the request path never
+ * waits for the ReadMe API.
+ * <p>
+ * {@link #start()} looks the URL up asynchronously. Once it is known, it is refreshed every
+ * {@code refreshIntervalMillis}, ahead of the one-day expiry used by {@link BaseLogUrlFetcher}; a failed
+ * lookup is retried after {@code retryIntervalMillis} and keeps the previously known URL meanwhile.
+ * {@link #getBaseLogUrl()} only reads a volatile field and returns null until the first lookup succeeded.
+ */
+@Slf4j
+public class BaseLogUrlResolver implements AutoCloseable {
+
+    public static final long DEFAULT_REFRESH_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(12);
+    public static final long DEFAULT_RETRY_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final ReadmeCredentials credentials;
+    private final BaseLogUrlFetcher fetcher;
+    private final String apiUrl;
+    private final long refreshIntervalMillis;
+    private final long retryIntervalMillis;
+
+    private final ScheduledExecutorService scheduler;
+
+    private volatile String baseLogUrl;
+
+    public BaseLogUrlResolver(ReadmeCredentials credentials) {
+        this(credentials, BaseLogUrlFetcher.defaultFetcher());
+    }
+
+    /**
+     * @param credentials credentials of the project
+     * @param fetcher     fetcher calling the ReadMe API, e.g. with the client sending the logs
+     */
+    public BaseLogUrlResolver(ReadmeCredentials credentials, BaseLogUrlFetcher fetcher) {
+        this(credentials, fetcher, README_API_URL, DEFAULT_REFRESH_INTERVAL_MILLIS, DEFAULT_RETRY_INTERVAL_MILLIS);
+    }
+
+    public BaseLogUrlResolver(ReadmeCredentials credentials, String apiUrl,
+                              long refreshIntervalMillis, long retryIntervalMillis) {
+        this(credentials, BaseLogUrlFetcher.defaultFetcher(), apiUrl, refreshIntervalMillis, retryIntervalMillis);
+    }
+
+    /**
+     * @param credentials           credentials of the project
+     * @param fetcher               fetcher calling the ReadMe API
+     * @param apiUrl                URL of the ReadMe API
+     * @param refreshIntervalMillis delay between a successful lookup and the next one
+     * @param retryIntervalMillis   delay between a failed lookup and the next one
+     */
+    public BaseLogUrlResolver(ReadmeCredentials credentials, BaseLogUrlFetcher fetcher, String apiUrl,
+                              long refreshIntervalMillis, long retryIntervalMillis) {
+        this.credentials = credentials;
+        this.fetcher = fetcher;
+        this.apiUrl = apiUrl;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.retryIntervalMillis = retryIntervalMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                DispatchExecutors.namedDaemonThreadFactory("readme-metrics-base-url-"));
+    }
+
+    /**
+     * Starts the first lookup in the background and returns immediately.
+     */
+    public void start() {
+        schedule(0);
+    }
+
+    /**
+     * Returns the last successfully looked up base URL without blocking.
+     *
+     * @return the base URL, or null if it is not known yet
+     */
+    public String getBaseLogUrl() {
+        return baseLogUrl;
+    }
+
+    void refresh() {
+        String url = fetcher.request(credentials, apiUrl);
+        if (url == null || url.isEmpty()) {
+            log.warn("readme-metrics: Base log URL could not be looked up, retrying in {} ms", retryIntervalMillis);
+            schedule(retryIntervalMillis);
+            return;
+        }
+        baseLogUrl = url;
+        schedule(refreshIntervalMillis);
+    }
+
+    private void schedule(long delayMillis) {
+        try {
+            scheduler.schedule(this::refresh, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.debug("readme-metrics: Base log URL refresh stopped");
+        }
+    }
+
+    /**
+     * Stops refreshing; the last known URL stays available.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+}
@@ -0,0 +1,209 @@
+package com.readme.core.datatransfer;
+
+import com.readme.core.datatransfer.har.Har;
+import com.readme.core.datatransfer.har.HarContent;
+import com.readme.core.datatransfer.har.HarEntry;
+import com.readme.core.datatransfer.har.HarLog;
+import com.readme.core.datatransfer.har.HarPostData;
+import com.readme.core.datatransfer.har.HarRequest;
+import com.readme.core.datatransfer.har.HarResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Keeps batches within what the metrics endpoint accepts.
+ * <p>
+ * A batch whose estimated size exceeds the maximal request size is split up front into chunks sent
+ * in parallel. A chunk the endpoint still rejects with 413 is bisected, and the halves are sent in
+ * parallel, until the offending log is isolated. Its bodies are then truncated; if it is still too
+ * large, it is dropped and counted. This way a single huge request or response body never keeps the
+ * rest of the buffer from being delivered.
+ */
+@Slf4j
+class BatchSplitter {
+
+    /**
+     * Number of characters kept from each body of a log which is too large to be sent.
+     */
+    static final int TRUNCATED_BODY_LENGTH = 1024;
+
+    static final String TRUNCATED_BODY_COMMENT = "Truncated by readme-metrics: the log exceeded the maximum request size";
+
+    private final long maxRequestBytes;
+
+    private final Function<List<OutgoingLogBody>, CompletableFuture<SendResult>> sender;
+
+    private final LongAdder droppedLogs = new LongAdder();
+
+    /**
+     * @param maxRequestBytes maximal estimated size of one request; 0 or less disables splitting up front
+     * @param sender          sends one request with retries; must not throw
+     */
+    BatchSplitter(long maxRequestBytes, Function<List<OutgoingLogBody>, CompletableFuture<SendResult>> sender) {
+        this.maxRequestBytes = maxRequestBytes;
+        this.sender = sender;
+    }
+
+    /**
+     * Returns true if the batch has to be split before it is sent.
+     */
+    boolean isOversized(long estimatedSize) {
+        return maxRequestBytes > 0 && estimatedSize > maxRequestBytes;
+    }
+
+    /**
+     * Sends the batch, split into chunks within the maximal request size.
+     *
+     * @return a future of the combined result, successful once every log was either sent or dropped as too large
+     */
+    CompletableFuture<SendResult> send(List<OutgoingLogBody> batch) {
+        List<List<OutgoingLogBody>> chunks = chunk(batch);
+        CompletableFuture<SendResult> result = sendChunk(chunks.get(0));
+        for (int i = 1; i < chunks.size(); i++) {
+            result = result.thenCombine(sendChunk(chunks.get(i)), SendResult::combine);
+        }
+        return result;
+    }
+
+    /**
+     * Sends the two halves of a batch rejected as too large in parallel, bisecting them further if needed.
+     */
+    CompletableFuture<SendResult> bisect(List<OutgoingLogBody> batch) {
+        if (batch.size() == 1) {
+            return sendOversizedLog(batch.get(0));
+        }
+        int middle = batch.size() / 2;
+        return sendChunk(batch.subList(0, middle))
+                .thenCombine(sendChunk(batch.subList(middle, batch.size())), SendResult::combine);
+    }
+
+    /**
+     * Returns the number of logs dropped because they were too large to be sent even with truncated bodies.
+     */
+    long getDroppedLogsCount() {
+        return droppedLogs.sum();
+    }
+
+    private CompletableFuture<SendResult> sendChunk(List<OutgoingLogBody> chunk) {
+        return sender.apply(chunk).thenCompose(result -> result.isTooLarge()
+                ? bisect(chunk)
+                : CompletableFuture.completedFuture(result));
+    }
+
+    private CompletableFuture<SendResult> sendOversizedLog(OutgoingLogBody outgoingLogBody) {
+        OutgoingLogBody truncated = truncateBodies(outgoingLogBody);
+        if (truncated == null) {
+            return CompletableFuture.completedFuture(drop(outgoingLogBody, SendResult.builder().statusCode(413).build()));
+        }
+        return sender.apply(Collections.singletonList(truncated))
+                .thenApply(result -> result.isTooLarge() ? drop(outgoingLogBody, result) : result);
+    }
+
+    /**
+     * Counts the log as dropped and reports it as handled, so it is not kept for another attempt.
+     */
+    private SendResult drop(OutgoingLogBody outgoingLogBody, SendResult result) {
+        droppedLogs.increment();
+        log.error("readme-metrics: Log {} is too large for the metrics endpoint and has been dropped",
+                outgoingLogBody.getId());
+        return result.toBuilder().successful(true).build();
+    }
+
+    /**
+     * Packs the logs into chunks within the maximal request size, keeping their order.
+     * A single log larger than the budget gets its bodies truncated up front.
+     */
+    private List<List<OutgoingLogBody>> chunk(List<OutgoingLogBody> batch) {
+        if (maxRequestBytes <= 0) {
+            return Collections.singletonList(batch);
+        }
+        List<List<OutgoingLogBody>> chunks = new ArrayList<>();
+        List<OutgoingLogBody> chunk = new ArrayList<>();
+        long chunkSize = 0;
+        for (OutgoingLogBody outgoingLogBody : batch) {
+            if (outgoingLogBody.getEstimatedSize() > maxRequestBytes) {
+                OutgoingLogBody truncated = truncateBodies(outgoingLogBody);
+                if (truncated != null) {
+                    outgoingLogBody = truncated;
+                }
+            }
+            if (!chunk.isEmpty() && chunkSize + outgoingLogBody.getEstimatedSize() > maxRequestBytes) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+                chunkSize = 0;
+            }
+            chunk.add(outgoingLogBody);
+            chunkSize += outgoingLogBody.getEstimatedSize();
+        }
+        if (!chunk.isEmpty() || chunks.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    /**
+     * Returns a copy of the log with its request and response bodies cut to {@link #TRUNCATED_BODY_LENGTH}
+     * characters, or null if no body is long enough to be truncated. The original log is not modified.
+     */
+    static OutgoingLogBody truncateBodies(OutgoingLogBody outgoingLogBody) {
+        Har har = outgoingLogBody.getRequest();
+        if (har == null || har.getLog() == null || har.getLog().getEntries() == null) {
+            return null;
+        }
+        boolean truncated = false;
+        long estimatedSize = 0;
+        List<HarEntry> entries = new ArrayList<>(har.getLog().getEntries().size());
+        for (HarEntry entry : har.getLog().getEntries()) {
+            HarEntry.HarEntryBuilder entryBuilder = entry.toBuilder();
+            HarRequest request = entry.getRequest();
+            if (request != null && request.getPostData() != null && isTooLong(request.getPostData().getText())) {
+                HarPostData postData = request.getPostData().toBuilder()
+                        .text(truncate(request.getPostData().getText()))
+                        .comment(TRUNCATED_BODY_COMMENT)
+                        .build();
+                entryBuilder.request(request.toBuilder().postData(postData).build());
+                truncated = true;
+            }
+            HarResponse response = entry.getResponse();
+            if (response != null && response.getContent() != null && isTooLong(response.getContent().getText())) {
+                HarContent content = response.getContent().toBuilder()
+                        .text(truncate(response.getContent().getText()))
+                        .comment(TRUNCATED_BODY_COMMENT)
+                        .build();
+                entryBuilder.response(response.toBuilder().content(content).build());
+                truncated = true;
+            }
+            HarEntry truncatedEntry = entryBuilder.build();
+            entries.add(truncatedEntry);
+            if (truncatedEntry.getRequest() != null && truncatedEntry.getResponse() != null
+                    && outgoingLogBody.getGroup() != null) {
+                estimatedSize += OutgoingLogBodyConstructor.estimateSize(truncatedEntry, outgoingLogBody.getGroup());
+            }
+        }
+        if (!truncated) {
+            return null;
+        }
+        HarLog harLog = har.getLog().toBuilder()
+                .entries(entries)
+                .build();
+        return outgoingLogBody.toBuilder()
+                .request(new Har(harLog))
+                .estimatedSize(estimatedSize)
+                .build();
+    }
+
+    private static boolean isTooLong(String text) {
+        return text != null && text.length() > TRUNCATED_BODY_LENGTH;
+    }
+
+    private static String truncate(String text) {
+        return text.substring(0, TRUNCATED_BODY_LENGTH);
+    }
+
+}
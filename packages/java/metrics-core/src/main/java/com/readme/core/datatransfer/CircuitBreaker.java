@@ -0,0 +1,94 @@
+package com.readme.core.datatransfer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker protecting the metrics endpoint during outages.
+ * <p>
+ * It opens after a number of consecutive failures and then rejects requests for a while. Once that
+ * time is over it is half-open: a single probe request is let through, and depending on its outcome
+ * the breaker closes again or stays open for another period.
+ */
+public class CircuitBreaker {
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean probeInFlight = new AtomicBoolean();
+    private volatile boolean open;
+    private volatile long openUntilNanos;
+
+    /**
+     * @param failureThreshold consecutive failures opening the breaker; 0 or less disables it
+     * @param openMillis       time the breaker stays open before a probe is let through
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this(failureThreshold, openMillis, System::nanoTime);
+    }
+
+    CircuitBreaker(int failureThreshold, long openMillis, LongSupplier nanoClock) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Returns true if a request may be sent: the breaker is closed, or it is half-open
+     * and this caller has been chosen to send the probe.
+     */
+    public boolean allowRequest() {
+        if (!open) {
+            return true;
+        }
+        if (nanoClock.getAsLong() - openUntilNanos < 0) {
+            return false;
+        }
+        return probeInFlight.compareAndSet(false, true);
+    }
+
+    public void recordSuccess() {
+        consecutiveFailures.set(0);
+        open = false;
+        probeInFlight.set(false);
+    }
+
+    /**
+     * Records a request whose outcome says nothing about the endpoint's health, e.g. one that was
+     * abandoned; a probe is released so the next caller can send another one.
+     */
+    public void recordNeutral() {
+        probeInFlight.set(false);
+    }
+
+    public void recordFailure() {
+        if (failureThreshold <= 0) {
+            return;
+        }
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold || open) {
+            openFor(openNanos);
+        }
+    }
+
+    /**
+     * Opens the breaker for the given time, e.g. as requested by the endpoint with {@code Retry-After}.
+     */
+    public void openFor(long duration, TimeUnit unit) {
+        openFor(Math.max(unit.toNanos(duration), openNanos));
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    private void openFor(long nanos) {
+        openUntilNanos = nanoClock.getAsLong() + nanos;
+        open = true;
+        probeInFlight.set(false);
+    }
+
+}
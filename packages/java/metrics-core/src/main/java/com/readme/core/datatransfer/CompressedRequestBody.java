@@ -0,0 +1,66 @@
+package com.readme.core.datatransfer;
+
+import com.readme.core.config.ContentEncoding;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.Okio;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Request body compressing another body on the fly while it is written to the connection.
+ */
+public class CompressedRequestBody extends RequestBody {
+
+    private final RequestBody delegate;
+
+    private final ContentEncoding contentEncoding;
+
+    /**
+     * @param delegate        uncompressed body
+     * @param contentEncoding gzip or zstd; see {@link #resolve(ContentEncoding)}
+     */
+    public CompressedRequestBody(RequestBody delegate, ContentEncoding contentEncoding) {
+        this.delegate = delegate;
+        this.contentEncoding = contentEncoding;
+    }
+
+    /**
+     * Returns the encoding which can actually be used: zstd falls back to gzip if no codec is on the classpath.
+     */
+    public static ContentEncoding resolve(ContentEncoding contentEncoding) {
+        return Compressors.resolve(contentEncoding);
+    }
+
+    public ContentEncoding getContentEncoding() {
+        return contentEncoding;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return delegate.contentType();
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        OutputStream target = new FilterOutputStream(sink.outputStream()) {
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                out.write(bytes, offset, length);
+            }
+
+            @Override
+            public void close() throws IOException {
+                // finishes the compressed stream, the sink itself belongs to OkHttp
+                flush();
+            }
+        };
+        try (BufferedSink compressedSink = Okio.buffer(Okio.sink(Compressors.compress(target, contentEncoding)))) {
+            delegate.writeTo(compressedSink);
+        }
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.readme.core.datatransfer;
+
+import com.readme.core.config.ContentEncoding;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Creates the compressing streams for the supported {@link ContentEncoding content encodings}.
+ * zstd is optional: it is only available when zstd-jni is on the classpath, so it is loaded reflectively.
+ */
+@Slf4j
+final class Compressors {
+
+    private static final String ZSTD_OUTPUT_STREAM = "com.github.luben.zstd.ZstdOutputStream";
+
+    private static final Constructor<?> ZSTD_CONSTRUCTOR = findZstdConstructor();
+
+    private Compressors() {
+    }
+
+    /**
+     * Returns the encoding which can actually be used: zstd falls back to gzip if no codec is on the classpath.
+     */
+    static ContentEncoding resolve(ContentEncoding contentEncoding) {
+        if (contentEncoding == null) {
+            return ContentEncoding.NONE;
+        }
+        if (contentEncoding == ContentEncoding.ZSTD && ZSTD_CONSTRUCTOR == null) {
+            log.warn("readme-metrics: zstd-jni is not on the classpath, falling back to gzip compression");
+            return ContentEncoding.GZIP;
+        }
+        return contentEncoding;
+    }
+
+    /**
+     * Wraps the target in a stream compressing with gzip or zstd. Closing the returned stream closes the target.
+     */
+    static OutputStream compress(OutputStream target, ContentEncoding contentEncoding) throws IOException {
+        if (contentEncoding == ContentEncoding.ZSTD) {
+            try {
+                return (OutputStream) ZSTD_CONSTRUCTOR.newInstance(target);
+            } catch (InvocationTargetException e) {
+                throw new IOException("Cannot create the zstd compressor", e.getCause());
+            } catch (ReflectiveOperationException e) {
+                throw new IOException("Cannot create the zstd compressor", e);
+            }
+        }
+        return new GZIPOutputStream(target);
+    }
+
+    private static Constructor<?> findZstdConstructor() {
+        try {
+            return Class.forName(ZSTD_OUTPUT_STREAM).getConstructor(OutputStream.class);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+}
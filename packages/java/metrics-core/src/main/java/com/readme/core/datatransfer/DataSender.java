@@ -3,10 +3,55 @@ package com.readme.core.datatransfer;
 import com.readme.core.dataextraction.LogOptions;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 public interface DataSender {
 
 
     boolean send(List<OutgoingLogBody> payloadData, LogOptions logOptions);
 
+    /**
+     * Sends the logs without blocking the calling thread for the network round trip, retries included.
+     * The returned future is completed with the result of the request and never completes exceptionally
+     * for failed requests, only for programming errors.
+     * <p>
+     * The default implementation calls {@link #send(List, LogOptions)} on the calling thread and reports
+     * only whether it succeeded.
+     *
+     * @param payloadData logs to send
+     * @param logOptions  options the logs were collected with
+     * @return a future of the result of the request
+     */
+    default CompletableFuture<SendResult> sendAsync(List<OutgoingLogBody> payloadData, LogOptions logOptions) {
+        long start = System.nanoTime();
+        boolean successful = send(payloadData, logOptions);
+        return CompletableFuture.completedFuture(SendResult.builder()
+                .successful(successful)
+                .latencyMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+                .build());
+    }
+
+    /**
+     * Sends logs which were already serialized to a JSON array, e.g. by a spool, and waits for the response.
+     *
+     * @param serializedLogs JSON array of outgoing log bodies
+     * @return true if the logs were accepted; false if they were not or if the sender does not support it
+     */
+    default boolean sendSerialized(byte[] serializedLogs) {
+        return false;
+    }
+
+    /**
+     * Waits for requests which were sent asynchronously (e.g. with {@code LogOptions.isFireAndForget()})
+     * and are still in flight. Used on shutdown, so these requests are not lost with the process.
+     *
+     * @param timeout maximum time to wait
+     * @param unit    unit of the timeout
+     * @return true if no request is in flight anymore
+     */
+    default boolean awaitCompletion(long timeout, TimeUnit unit) {
+        return true;
+    }
+
 }
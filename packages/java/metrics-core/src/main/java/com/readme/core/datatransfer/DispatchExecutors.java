@@ -0,0 +1,193 @@
+package com.readme.core.datatransfer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Factory methods for the executors owned by the SDK.
+ * <p>
+ * Collected data is processed on these executors instead of the JVM-wide
+ * {@link java.util.concurrent.ForkJoinPool#commonPool()}, so building HAR logs and sending them
+ * over the network never competes with the application's own parallel streams or async tasks.
+ * <p>
+ * On Java 21 and newer the blocking parts of the pipeline can optionally run on virtual threads.
+ * The SDK is compiled for older Java versions, so virtual threads are created reflectively.
+ */
+@Slf4j
+public class DispatchExecutors {
+
+    public static final int DEFAULT_DISPATCH_THREADS = 2;
+    public static final int DEFAULT_DISPATCH_QUEUE_CAPACITY = 1000;
+
+    private static final String DISPATCH_THREAD_PREFIX = "readme-metrics-dispatcher-";
+    private static final String VIRTUAL_THREAD_PREFIX = "readme-metrics-virtual-";
+    private static final long KEEP_ALIVE_SECONDS = 60;
+    private static final int VIRTUAL_THREADS_JAVA_VERSION = 21;
+
+    /**
+     * Creates a fixed-size pool of daemon platform threads with a bounded task queue.
+     * <p>
+     * When the queue is full, new tasks are rejected with a
+     * {@link java.util.concurrent.RejectedExecutionException} instead of blocking the submitting thread.
+     *
+     * @param threads       number of dispatching threads
+     * @param queueCapacity maximum number of tasks waiting for a free thread
+     * @return a new bounded executor
+     */
+    public static ExecutorService newBoundedExecutor(int threads, int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                namedDaemonThreadFactory(DISPATCH_THREAD_PREFIX),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Creates the default dispatching executor.
+     */
+    public static ExecutorService newDefaultExecutor() {
+        return newBoundedExecutor(DEFAULT_DISPATCH_THREADS, DEFAULT_DISPATCH_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Creates the dispatching executor: a virtual-thread-per-task executor if {@code virtualThreads}
+     * is enabled and supported by the running JVM, a bounded pool of platform threads otherwise.
+     * <p>
+     * Both are bounded the same way: at most {@code threads + queueCapacity} tasks are running or waiting,
+     * further tasks are rejected with a {@link RejectedExecutionException}.
+     *
+     * @param virtualThreads whether to use virtual threads
+     * @param threads        number of platform dispatching threads
+     * @param queueCapacity  maximum number of tasks waiting for a free platform thread
+     * @return a new dispatching executor
+     */
+    public static ExecutorService newDispatchExecutor(boolean virtualThreads, int threads, int queueCapacity) {
+        if (virtualThreads) {
+            if (isVirtualThreadSupported()) {
+                return bounded(newVirtualThreadPerTaskExecutor(), threads + queueCapacity);
+            }
+            log.warn("Virtual threads require Java 21 or newer, falling back to platform threads");
+        }
+        return newBoundedExecutor(threads, queueCapacity);
+    }
+
+    /**
+     * Returns true if the running JVM supports virtual threads.
+     */
+    public static boolean isVirtualThreadSupported() {
+        // virtual threads are a preview feature before Java 21
+        return Runtime.version().feature() >= VIRTUAL_THREADS_JAVA_VERSION;
+    }
+
+    /**
+     * Creates an executor that starts a new named virtual thread for each task.
+     *
+     * @throws UnsupportedOperationException if the running JVM does not support virtual threads
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Object threadBuilder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            threadBuilder = builderType.getMethod("name", String.class, long.class)
+                    .invoke(threadBuilder, VIRTUAL_THREAD_PREFIX, 1L);
+            ThreadFactory threadFactory = (ThreadFactory) builderType.getMethod("factory").invoke(threadBuilder);
+
+            Method executorFactory = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) executorFactory.invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Virtual threads are not supported by this JVM", e);
+        }
+    }
+
+    /**
+     * Limits the given unbounded executor to {@code maxTasks} tasks running or waiting at the same time.
+     */
+    static ExecutorService bounded(ExecutorService delegate, int maxTasks) {
+        return new BoundedExecutorService(delegate, maxTasks);
+    }
+
+    static ThreadFactory namedDaemonThreadFactory(String prefix) {
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Executor rejecting new tasks while {@code maxTasks} submitted tasks have not completed yet, so a slow
+     * endpoint cannot make tasks, and the logs they hold, pile up without limit on a virtual-thread-per-task
+     * executor. A permit is only acquired with {@code tryAcquire}, so the submitting thread never blocks.
+     */
+    private static final class BoundedExecutorService extends AbstractExecutorService {
+
+        private final ExecutorService delegate;
+
+        private final Semaphore permits;
+
+        BoundedExecutorService(ExecutorService delegate, int maxTasks) {
+            this.delegate = delegate;
+            this.permits = new Semaphore(Math.max(1, maxTasks));
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            if (!permits.tryAcquire()) {
+                throw new RejectedExecutionException("Too many tasks running or waiting");
+            }
+            try {
+                delegate.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+
+}
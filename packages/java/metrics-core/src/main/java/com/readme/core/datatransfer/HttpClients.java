@@ -0,0 +1,97 @@
+package com.readme.core.datatransfer;
+
+import com.readme.core.config.HttpClientOptions;
+import com.readme.core.config.HttpProtocol;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the OkHttp client shared by the SDK.
+ * <p>
+ * A single client, and so a single connection pool, should be used both to send logs with
+ * {@link HttpDataSender} and to call the ReadMe API with {@link BaseLogUrlFetcher}.
+ */
+@Slf4j
+public class HttpClients {
+
+    private HttpClients() {
+    }
+
+    /**
+     * Creates a client builder configured with the given options, which can be further customized,
+     * e.g. with a dispatcher running calls on virtual threads.
+     */
+    public static OkHttpClient.Builder newClientBuilder(HttpClientOptions options) {
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(options.getMaxIdleConnections(),
+                        options.getKeepAliveMillis(), TimeUnit.MILLISECONDS))
+                .connectTimeout(options.getConnectTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .readTimeout(options.getReadTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .writeTimeout(options.getWriteTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .callTimeout(options.getCallTimeoutMillis(), TimeUnit.MILLISECONDS);
+        if (options.getProtocols() != null && !options.getProtocols().isEmpty()) {
+            builder.protocols(toOkHttpProtocols(HttpProtocol.withFallback(options.getProtocols())));
+        }
+        return builder;
+    }
+
+    static List<Protocol> toOkHttpProtocols(List<HttpProtocol> protocols) {
+        List<Protocol> okHttpProtocols = new ArrayList<>(protocols.size());
+        for (HttpProtocol protocol : protocols) {
+            switch (protocol) {
+                case HTTP_1_1:
+                    okHttpProtocols.add(Protocol.HTTP_1_1);
+                    break;
+                case HTTP_2:
+                    okHttpProtocols.add(Protocol.HTTP_2);
+                    break;
+                case H2_PRIOR_KNOWLEDGE:
+                    okHttpProtocols.add(Protocol.H2_PRIOR_KNOWLEDGE);
+                    break;
+            }
+        }
+        return okHttpProtocols;
+    }
+
+    public static OkHttpClient newClient(HttpClientOptions options) {
+        return newClientBuilder(options).build();
+    }
+
+    /**
+     * Opens a pooled connection to the host of the given URL in the background with a {@code HEAD} request,
+     * so DNS resolution and the TLS handshake are done before the first batch is sent.
+     * The response itself does not matter.
+     *
+     * @param client client whose connection pool is warmed up
+     * @param url    any URL of the host to connect to
+     */
+    public static void warmUp(OkHttpClient client, String url) {
+        Request request = new Request.Builder()
+                .url(url)
+                .head()
+                .build();
+        client.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                log.debug("readme-metrics: Could not warm up the connection to {}: {}", url, e.getMessage());
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                response.close();
+            }
+        });
+    }
+
+}
@@ -1,17 +1,13 @@
 package com.readme.core.datatransfer;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.readme.core.config.CoreConfig;
+import com.readme.core.config.RetryPolicy;
 import com.readme.core.dataextraction.LogOptions;
-import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
 
 import java.io.IOException;
 import java.util.List;
-
-import static com.readme.core.config.ReadmeApiConfig.README_METRICS_URL;
-import static com.readme.core.datatransfer.ReadmeApiKeyEncoder.encode;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Implementation of the {@link DataSender} interface that sends metrics data to a remote server
@@ -19,79 +15,123 @@ import static com.readme.core.datatransfer.ReadmeApiKeyEncoder.encode;
  * to the specified metrics endpoint. It prepares the request payload, adds necessary headers (e.g.,
  * authentication and content type), and handles the response from the server.
  *
- * <p>The default endpoint for sending metrics is {@code https://metrics.readme.io/v1/request}.
+ * <p>The default endpoint for sending metrics is {@code https://metrics.readme.io/v1/request};
+ * another one can be set with {@code CoreConfig.getMetricsUrl()}.
+ *
+ * <p>Failed requests are retried according to the {@link RetryPolicy} with exponential backoff and
+ * decorrelated jitter; a {@code Retry-After} header sent with 429 or 503 is honored. After repeated
+ * failures a {@link CircuitBreaker} opens and sends fail immediately, so the buffered logs are kept or
+ * dropped by the dispatcher, until a probe request succeeds again.
+ *
+ * <p>Batches can be compressed with gzip or zstd (see {@code CoreConfig.getContentEncoding()}); batches
+ * smaller than {@code CoreConfig.getCompressionMinBytes()} are sent as they are.
+ *
+ * <p>Batches sent asynchronously, i.e. fire-and-forget batches and those sent with
+ * {@link #sendAsync(List, LogOptions)}, are admitted within {@code CoreConfig.getMaxInFlightBatches()} and
+ * {@code CoreConfig.getMaxInFlightBytes()}; batches exceeding these limits are rejected and counted,
+ * so a slow endpoint cannot make the queue of pending calls grow without bound.
+ *
+ * <p>Batches larger than {@code CoreConfig.getMaxRequestBytes()} are split before they are sent, and a batch
+ * rejected with 413 is bisected until the offending log is isolated and truncated or dropped,
+ * see {@link BatchSplitter}.
  *
+ * <p>{@link #sendAsync(List, LogOptions)} is implemented with OkHttp's {@code enqueue}, so no thread waits
+ * for the network round trip, and the returned {@link SendResult} reports the outcome of the request.
+ * The sending logic is shared with {@link JdkHttpDataSender}; this class only adapts OkHttp's requests and calls.
+ *
+ * @see JdkHttpDataSender for an implementation without OkHttp
  */
 
-@Slf4j
-public class HttpDataSender implements DataSender {
+public class HttpDataSender extends BaseHttpDataSender<Request> {
 
     public static final String APPLICATION_JSON_TYPE = "application/json";
 
     private final OkHttpClient client;
-    private final CoreConfig coreConfig;
 
     public HttpDataSender(OkHttpClient client, CoreConfig coreConfig) {
+        this(client, coreConfig, JsonMappers.shared());
+    }
+
+    /**
+     * @param client      OkHttp client, see {@link HttpClients}
+     * @param coreConfig  endpoint, credentials and sending settings
+     * @param jsonMappers JSON configuration serializing the batches, usually {@link JsonMappers#shared()}
+     */
+    public HttpDataSender(OkHttpClient client, CoreConfig coreConfig, JsonMappers jsonMappers) {
+        super(coreConfig, jsonMappers);
         this.client = client;
-        this.coreConfig = coreConfig;
     }
 
     @Override
-    public boolean send(List<OutgoingLogBody> payloadData, LogOptions logOptions) {
-        if (payloadData != null) {
-            String encodedReadmeApiKey = encode(coreConfig.getReadmeAPIKey());
-            Response response = null;
-            try {
-                Request request = createRequest(payloadData, logOptions, encodedReadmeApiKey);
-                if(logOptions.isFireAndForget()){
-                    makeAsyncRequest(request);
-                    return true;
-                }
-                response = client.newCall(request).execute();
-                return response.isSuccessful();
-            } catch (JsonProcessingException e) {
-                log.error("Error while building outgoing payload: ", e);
-            } catch (Exception e) {
-                log.error("Error while sending collected data: ", e);
-            } finally {
-                if (response != null) {
-                    response.close();
-                }
-            }
+    Request createRequest(List<OutgoingLogBody> payloadData, long estimatedSize) {
+        return createRequest(new JsonRequestBody(payloadData, jsonMappers.logsWriter()), estimatedSize);
+    }
+
+    @Override
+    Request createRequest(byte[] serializedLogs) {
+        RequestBody body = RequestBody.create(serializedLogs, MediaType.get(APPLICATION_JSON_TYPE));
+        return createRequest(body, serializedLogs.length);
+    }
+
+    /**
+     * Builds the request, compressing the body if compression is enabled and the batch is large enough.
+     */
+    private Request createRequest(RequestBody body, long estimatedSize) {
+        Request.Builder requestBuilder = new Request.Builder()
+                .url(metricsUrl)
+                .header("Accept", APPLICATION_JSON_TYPE)
+                .header("Content-Type", APPLICATION_JSON_TYPE)
+                .header("Authorization", authorizationHeader);
+        if (isCompressed(estimatedSize)) {
+            body = new CompressedRequestBody(body, contentEncoding);
+            requestBuilder.header("Content-Encoding", contentEncoding.getToken());
         }
-        return false;
+        return requestBuilder
+                .method("POST", body)
+                .build();
     }
 
-    private void makeAsyncRequest(Request request) {
+    @Override
+    long requestBytes(Request request, long estimatedSize) {
+        try {
+            long contentLength = request.body() != null ? request.body().contentLength() : -1;
+            return contentLength >= 0 ? contentLength : estimatedSize;
+        } catch (IOException e) {
+            return estimatedSize;
+        }
+    }
+
+    @Override
+    EndpointResponse execute(Request request) throws IOException {
+        try (Response response = client.newCall(request).execute()) {
+            return new EndpointResponse(response.code(), retryAfterMillis(response));
+        }
+    }
 
+    @Override
+    CompletableFuture<EndpointResponse> executeAsync(Request request) {
+        CompletableFuture<EndpointResponse> result = new CompletableFuture<>();
         client.newCall(request).enqueue(new Callback() {
             @Override
             public void onFailure(Call call, IOException e) {
-                log.error("Error while sending outgoing payload: ", e);
+                result.completeExceptionally(e);
             }
 
             @Override
-            public void onResponse(Call call, Response response) throws IOException {
-                response.close();
+            public void onResponse(Call call, Response response) {
+                try (Response closedResponse = response) {
+                    result.complete(new EndpointResponse(closedResponse.code(), retryAfterMillis(closedResponse)));
+                }
             }
         });
+        return result;
     }
 
-    private static Request createRequest(List<OutgoingLogBody> payloadData, LogOptions logOptions, String encodedReadmeApiKey) throws JsonProcessingException {
-        ObjectMapper objectMapper = new ObjectMapper();
-        String outgoingLogBody = objectMapper.writeValueAsString(payloadData);
-        RequestBody body = RequestBody
-                .create(outgoingLogBody, MediaType.get(APPLICATION_JSON_TYPE));
-
-        return new Request.Builder()
-                .url(README_METRICS_URL)
-                .header("Accept", APPLICATION_JSON_TYPE)
-                .header("Content-Type", APPLICATION_JSON_TYPE)
-                .header("Authorization", encodedReadmeApiKey)
-                .method("POST", body)
-                .build();
+    /**
+     * Returns the delay requested by a 429 or 503 response with {@code Retry-After}, or -1.
+     */
+    static long retryAfterMillis(Response response) {
+        return Retries.retryAfterMillis(response.code(), response.header("Retry-After"));
     }
 
-
-
 }
@@ -0,0 +1,92 @@
+package com.readme.core.datatransfer;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Limits the number and the estimated size of the asynchronous calls in flight.
+ * Every admitted call is queued by the HTTP client with its body, so these limits are what keeps
+ * the memory of batches sent asynchronously, fire-and-forget or by the dispatcher, bounded.
+ */
+class InFlightLimiter {
+
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final Semaphore permits;
+    private final long maxBytes;
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param maxBatches maximum number of calls in flight
+     * @param maxBytes   maximum estimated size of the calls in flight
+     */
+    InFlightLimiter(int maxBatches, long maxBytes) {
+        this.permits = new Semaphore(maxBatches);
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Reserves room for a call, waiting up to the given timeout. A rejected call is counted.
+     */
+    boolean admit(long estimatedSize, long timeoutMillis) throws InterruptedException {
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeoutMillis));
+        long deadline = System.nanoTime() + timeoutNanos;
+        if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+            rejected.increment();
+            return false;
+        }
+        while (true) {
+            long currentBytes = bytes.get();
+            // a batch larger than the limit is let through alone, otherwise it could never be sent
+            if (currentBytes == 0 || currentBytes + estimatedSize <= maxBytes) {
+                if (bytes.compareAndSet(currentBytes, currentBytes + estimatedSize)) {
+                    calls.incrementAndGet();
+                    return true;
+                }
+                continue;
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                permits.release();
+                rejected.increment();
+                return false;
+            }
+            LockSupport.parkNanos(POLL_NANOS);
+        }
+    }
+
+    /**
+     * Gives back the room reserved by {@link #admit(long, long)} once the call is completed.
+     */
+    void release(long estimatedSize) {
+        bytes.addAndGet(-estimatedSize);
+        permits.release();
+        calls.decrementAndGet();
+    }
+
+    /**
+     * Waits until no admitted call is in flight anymore.
+     *
+     * @return false if the timeout elapsed or the thread was interrupted first
+     */
+    boolean awaitIdle(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (calls.get() > 0) {
+            if (System.nanoTime() - deadline >= 0 || Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            LockSupport.parkNanos(POLL_NANOS);
+        }
+        return true;
+    }
+
+    long getRejectedCount() {
+        return rejected.sum();
+    }
+
+}
@@ -0,0 +1,170 @@
+package com.readme.core.datatransfer;
+
+import com.readme.core.config.CoreConfig;
+import com.readme.core.config.HttpClientOptions;
+import com.readme.core.config.HttpProtocol;
+import com.readme.core.config.RetryPolicy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Implementation of the {@link DataSender} interface built on the JDK's {@link HttpClient} instead of OkHttp.
+ * It behaves like {@link HttpDataSender}: the same {@link RetryPolicy}, circuit breaker, compression and
+ * in-flight limits of asynchronously sent batches apply, and the endpoint is {@code CoreConfig.getMetricsUrl()}.
+ *
+ * <p>It does not load any OkHttp class, so the sending path works with OkHttp and the Kotlin standard library
+ * excluded from the classpath. The sending logic is shared with {@link HttpDataSender}; this class only adapts
+ * the requests and exchanges of the JDK client. HTTP/2 is used when the endpoint supports it.
+ *
+ * <p>Batches are split like with {@link HttpDataSender} when they exceed {@code CoreConfig.getMaxRequestBytes()}
+ * or are rejected with 413, see {@link BatchSplitter}.
+ *
+ * <p>Unlike {@link JsonRequestBody}, the JDK client cannot stream into the connection, so each batch is
+ * serialized to a byte array before it is sent.
+ */
+@Slf4j
+public class JdkHttpDataSender extends BaseHttpDataSender<HttpRequest> {
+
+    private final HttpClient client;
+    private final Duration requestTimeout;
+    private final URI metricsUri;
+
+    public JdkHttpDataSender(HttpClient client, CoreConfig coreConfig) {
+        this(client, coreConfig, null);
+    }
+
+    /**
+     * @param client         JDK HTTP client, see {@link #newHttpClient(HttpClientOptions, Executor)}
+     * @param coreConfig     endpoint, credentials and sending settings
+     * @param requestTimeout maximum duration of a single attempt; no timeout if null
+     */
+    public JdkHttpDataSender(HttpClient client, CoreConfig coreConfig, Duration requestTimeout) {
+        this(client, coreConfig, requestTimeout, JsonMappers.shared());
+    }
+
+    /**
+     * @param client         JDK HTTP client, see {@link #newHttpClient(HttpClientOptions, Executor)}
+     * @param coreConfig     endpoint, credentials and sending settings
+     * @param requestTimeout maximum duration of a single attempt; no timeout if null
+     * @param jsonMappers    JSON configuration serializing the batches, usually {@link JsonMappers#shared()}
+     */
+    public JdkHttpDataSender(HttpClient client, CoreConfig coreConfig, Duration requestTimeout,
+                             JsonMappers jsonMappers) {
+        super(coreConfig, jsonMappers);
+        this.client = client;
+        this.requestTimeout = requestTimeout;
+        this.metricsUri = URI.create(metricsUrl);
+    }
+
+    /**
+     * Creates a JDK HTTP client with the connect timeout of the given options. It prefers HTTP/2 unless
+     * HTTP/1.1 is the first of the configured protocols. The pool settings of the options are specific
+     * to OkHttp and are not used.
+     *
+     * @param options  connection settings
+     * @param executor executor for the client's asynchronous tasks, e.g. virtual threads; the client's default if null
+     */
+    public static HttpClient newHttpClient(HttpClientOptions options, Executor executor) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(toVersion(options.getProtocols()))
+                .connectTimeout(Duration.ofMillis(options.getConnectTimeoutMillis()));
+        if (executor != null) {
+            builder.executor(executor);
+        }
+        return builder.build();
+    }
+
+    static HttpClient.Version toVersion(List<HttpProtocol> protocols) {
+        if (protocols != null && !protocols.isEmpty() && protocols.get(0) == HttpProtocol.HTTP_1_1) {
+            return HttpClient.Version.HTTP_1_1;
+        }
+        return HttpClient.Version.HTTP_2;
+    }
+
+    /**
+     * Opens a connection to the host of the given URL in the background with a {@code HEAD} request,
+     * so DNS resolution and the TLS handshake are done before the first batch is sent.
+     * The response itself does not matter.
+     */
+    public static void warmUp(HttpClient client, String url) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .build();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, e) -> {
+                    if (e != null) {
+                        log.debug("readme-metrics: Could not warm up the connection to {}: {}", url, e.getMessage());
+                    }
+                });
+    }
+
+    @Override
+    HttpRequest createRequest(List<OutgoingLogBody> payloadData, long estimatedSize) throws IOException {
+        return createRequest(jsonMappers.logsWriter().writeValueAsBytes(payloadData), estimatedSize);
+    }
+
+    @Override
+    HttpRequest createRequest(byte[] serializedLogs) throws IOException {
+        return createRequest(serializedLogs, serializedLogs.length);
+    }
+
+    /**
+     * Builds the request, compressing the body if compression is enabled and the batch is large enough.
+     */
+    private HttpRequest createRequest(byte[] body, long estimatedSize) throws IOException {
+        HttpRequest.Builder requestBuilder = HttpRequest.newBuilder(metricsUri)
+                .header("Accept", HttpDataSender.APPLICATION_JSON_TYPE)
+                .header("Content-Type", HttpDataSender.APPLICATION_JSON_TYPE)
+                .header("Authorization", authorizationHeader);
+        if (requestTimeout != null) {
+            requestBuilder.timeout(requestTimeout);
+        }
+        if (isCompressed(estimatedSize)) {
+            body = compress(body);
+            requestBuilder.header("Content-Encoding", contentEncoding.getToken());
+        }
+        return requestBuilder
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+    }
+
+    @Override
+    long requestBytes(HttpRequest request, long estimatedSize) {
+        return request.bodyPublisher().map(HttpRequest.BodyPublisher::contentLength).orElse(estimatedSize);
+    }
+
+    @Override
+    EndpointResponse execute(HttpRequest request) throws IOException, InterruptedException {
+        return toEndpointResponse(client.send(request, HttpResponse.BodyHandlers.discarding()));
+    }
+
+    @Override
+    CompletableFuture<EndpointResponse> executeAsync(HttpRequest request) {
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .thenApply(JdkHttpDataSender::toEndpointResponse);
+    }
+
+    private static EndpointResponse toEndpointResponse(HttpResponse<Void> response) {
+        return EndpointResponse.of(response.statusCode(), response.headers().firstValue("Retry-After").orElse(null));
+    }
+
+    private byte[] compress(byte[] body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+        try (OutputStream compressing = Compressors.compress(compressed, contentEncoding)) {
+            compressing.write(body);
+        }
+        return compressed.toByteArray();
+    }
+
+}
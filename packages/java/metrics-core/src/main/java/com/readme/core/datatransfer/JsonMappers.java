@@ -0,0 +1,104 @@
+package com.readme.core.datatransfer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+/**
+ * The JSON configuration shared by the whole SDK.
+ * <p>
+ * An {@link ObjectMapper} is expensive to create and caches the serializers it builds, so the SDK uses a single
+ * instance instead of creating one per request. The mapper itself stays private, since its configuration could
+ * still be changed; only its immutable, thread-safe readers and writers are handed out.
+ * The components reading or writing JSON take the {@link #shared()} instance in their constructors,
+ * so an application wiring them itself passes the same one around.
+ * If {@code com.fasterxml.jackson.module:jackson-module-blackbird} is on the classpath, its module is registered
+ * to replace reflective property access with generated lambdas.
+ */
+@Slf4j
+public final class JsonMappers {
+
+    private static final String BLACKBIRD_MODULE = "com.fasterxml.jackson.module.blackbird.BlackbirdModule";
+
+    private static final JsonMappers SHARED = new JsonMappers(createObjectMapper());
+
+    private final ObjectReader treeReader;
+
+    private final ObjectWriter treeWriter;
+
+    /**
+     * Writer for batches of logs. It does not close the target stream, which usually belongs to OkHttp.
+     */
+    private final ObjectWriter logsWriter;
+
+    /**
+     * Writer for single logs, e.g. the records sent to a local collector.
+     */
+    private final ObjectWriter logWriter;
+
+    private JsonMappers(ObjectMapper objectMapper) {
+        this.treeReader = objectMapper.reader();
+        this.treeWriter = objectMapper.writer();
+        this.logsWriter = objectMapper
+                .writerFor(new TypeReference<List<OutgoingLogBody>>() {})
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.logWriter = objectMapper.writerFor(OutgoingLogBody.class);
+    }
+
+    /**
+     * Returns the instance shared by the SDK.
+     */
+    public static JsonMappers shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns a reader for parsing JSON bodies into trees.
+     */
+    public ObjectReader treeReader() {
+        return treeReader;
+    }
+
+    /**
+     * Returns a writer for serializing trees read with {@link #treeReader()}.
+     */
+    public ObjectWriter treeWriter() {
+        return treeWriter;
+    }
+
+    /**
+     * Returns the writer serializing batches of {@link OutgoingLogBody}.
+     */
+    public ObjectWriter logsWriter() {
+        return logsWriter;
+    }
+
+    /**
+     * Returns the writer serializing a single {@link OutgoingLogBody}.
+     */
+    public ObjectWriter logWriter() {
+        return logWriter;
+    }
+
+    private static ObjectMapper createObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        try {
+            objectMapper.registerModule((Module) Class.forName(BLACKBIRD_MODULE).getDeclaredConstructor().newInstance());
+            log.debug("readme-metrics: Jackson Blackbird module registered");
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Blackbird is optional
+        }
+        return objectMapper;
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.readme.core.datatransfer;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Request body serializing a batch of logs straight into the connection's sink while the request is written.
+ * <p>
+ * The batch is never materialized as a {@link String} or byte array, so a flush only holds the log objects
+ * themselves in memory. The length is not known up front, so the body is sent with chunked transfer encoding.
+ * The body can be written more than once, which allows the request to be retried.
+ */
+public class JsonRequestBody extends RequestBody {
+
+    private static final MediaType JSON_MEDIA_TYPE = MediaType.get(HttpDataSender.APPLICATION_JSON_TYPE);
+
+    private final List<OutgoingLogBody> outgoingLogBodies;
+
+    private final ObjectWriter logsWriter;
+
+    public JsonRequestBody(List<OutgoingLogBody> outgoingLogBodies) {
+        this(outgoingLogBodies, JsonMappers.shared().logsWriter());
+    }
+
+    /**
+     * @param logsWriter writer for batches of logs, see {@link JsonMappers#logsWriter()}
+     */
+    public JsonRequestBody(List<OutgoingLogBody> outgoingLogBodies, ObjectWriter logsWriter) {
+        this.outgoingLogBodies = outgoingLogBodies;
+        this.logsWriter = logsWriter;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return JSON_MEDIA_TYPE;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        logsWriter.writeValue(sink.outputStream(), outgoingLogBodies);
+    }
+
+}
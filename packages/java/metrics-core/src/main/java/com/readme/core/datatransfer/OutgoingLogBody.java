@@ -1,5 +1,6 @@
 package com.readme.core.datatransfer;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.readme.core.datatransfer.har.Group;
 import com.readme.core.datatransfer.har.Har;
 import lombok.Builder;
@@ -8,7 +9,7 @@ import lombok.Value;
 import java.util.UUID;
 
 @Value
-@Builder
+@Builder(toBuilder = true)
 public class OutgoingLogBody {
 
     UUID id;
@@ -39,4 +40,11 @@ public class OutgoingLogBody {
      */
     Har request;
 
+    /**
+     * Rough estimate of the serialized size of this log in bytes, computed while the log is built.
+     * It is used to keep requests to the metrics endpoint within a size budget and is not sent.
+     */
+    @JsonIgnore
+    long estimatedSize;
+
 }
\ No newline at end of file
@@ -1,7 +1,8 @@
 package com.readme.core.datatransfer;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.readme.core.dataextraction.LogOptions;
 import com.readme.core.dataextraction.payload.PayloadData;
@@ -22,6 +23,32 @@ import static com.readme.core.dataextraction.ApiKeyMasker.mask;
 @Slf4j
 public class OutgoingLogBodyConstructor {
 
+    /**
+     * Approximate size of the fixed part of a serialized log: ids, creator, timings and field names.
+     */
+    private static final int LOG_ENVELOPE_SIZE = 768;
+
+    /**
+     * Approximate size of the JSON structure around a header or query parameter.
+     */
+    private static final int NAME_VALUE_OVERHEAD = 24;
+
+    /**
+     * Reader used to filter JSON bodies without creating a mapper per call.
+     */
+    private final ObjectReader treeReader;
+
+    public OutgoingLogBodyConstructor() {
+        this(JsonMappers.shared());
+    }
+
+    /**
+     * @param jsonMappers JSON configuration of the SDK, usually {@link JsonMappers#shared()}
+     */
+    public OutgoingLogBodyConstructor(JsonMappers jsonMappers) {
+        this.treeReader = jsonMappers.treeReader();
+    }
+
     public OutgoingLogBody construct(
             PayloadData payloadData,
             LogOptions logOptions
@@ -46,10 +73,55 @@ public class OutgoingLogBodyConstructor {
                 .development(logOptions.isDevelopment())
                 .group(group)
                 .request(har)
+                .estimatedSize(estimateSize(harEntry, group))
                 .build();
 
     }
 
+    /**
+     * Estimates the serialized size of a log without serializing it: the variable parts
+     * (URL, headers, query parameters and bodies) are summed up by their length and the rest
+     * of the JSON structure is accounted for with fixed overheads.
+     */
+    static long estimateSize(HarEntry harEntry, Group group) {
+        long size = LOG_ENVELOPE_SIZE
+                + length(harEntry.getPageRef())
+                + length(group.getId()) + length(group.getLabel()) + length(group.getEmail());
+
+        HarRequest request = harEntry.getRequest();
+        size += length(request.getUrl()) + estimateHeadersSize(request.getHeaders());
+        if (request.getQueryString() != null) {
+            for (HarQueryParam queryParam : request.getQueryString()) {
+                size += NAME_VALUE_OVERHEAD + length(queryParam.getName()) + length(queryParam.getValue());
+            }
+        }
+        if (request.getPostData() != null) {
+            size += length(request.getPostData().getMimeType()) + length(request.getPostData().getText());
+        }
+
+        HarResponse response = harEntry.getResponse();
+        size += length(response.getStatusText()) + estimateHeadersSize(response.getHeaders());
+        if (response.getContent() != null) {
+            size += length(response.getContent().getMimeType()) + length(response.getContent().getText());
+        }
+        return size;
+    }
+
+    private static long estimateHeadersSize(List<HarHeader> headers) {
+        if (headers == null) {
+            return 0;
+        }
+        long size = 0;
+        for (HarHeader header : headers) {
+            size += NAME_VALUE_OVERHEAD + length(header.getName()) + length(header.getValue());
+        }
+        return size;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
     private static Group assembleGroup(UserData userData) {
         String maskedApiKey = mask(userData.getApiKey());
         return Group.builder()
@@ -115,6 +187,9 @@ public class OutgoingLogBodyConstructor {
                 .url(requestData.getUrl() + "?" + requestParams)
                 .queryString(harQueryParameterList)
                 .headers(convertHeaders(headers));
+        if (requestData.getBodySize() != null) {
+            harRequestBuilder.bodySize(requestData.getBodySize());
+        }
 
         if(!requestData.getMethod().equals(HttpMethod.GET.name())) {
             if (requestBody != null) {
@@ -158,14 +233,20 @@ public class OutgoingLogBodyConstructor {
         HarContent content = HarContent.builder()
                 .mimeType(contentType)
                 .text(body)
-                .size(contentLength != null ? Long.parseLong(contentLength) : body.length())
+                .size(contentLength != null ? Long.parseLong(contentLength)
+                        : responseData.getBodySize() != null ? responseData.getBodySize()
+                        : body != null ? body.length() : 0)
+                .comment(responseData.isBodyTruncated() ? "truncated" : null)
                 .build();
-        return HarResponse.builder()
+        HarResponse.HarResponseBuilder harResponseBuilder = HarResponse.builder()
                 .status(responseData.getStatusCode())
                 .statusText(responseData.getStatusMessage())
                 .headers(convertHeaders(headers))
-                .content(content)
-                .build();
+                .content(content);
+        if (responseData.getBodySize() != null) {
+            harResponseBuilder.bodySize(responseData.getBodySize());
+        }
+        return harResponseBuilder.build();
     }
 
 
@@ -216,6 +297,10 @@ public class OutgoingLogBodyConstructor {
 
         if (!isPresent(allowList) && !isPresent(denyList)) return;
 
+        if (reqRespData.isBodyTruncated()) {
+            // a cut-off body cannot be parsed, so its fields could not be filtered
+            body = null;
+        }
         if (isJson(body)) {
             body = handleJsonRequestResponseData(reqRespData, allowList, denyList);
         } else if (isFormUrlEncoded(body)) {
@@ -243,7 +328,7 @@ public class OutgoingLogBodyConstructor {
 
     private String handleJsonRequestResponseData(BaseRequestResponseData data, Set<String> allowList, Set<String> denyList) {
         try {
-            JsonNode node = new ObjectMapper().readTree(data.getBody());
+            JsonNode node = treeReader.readTree(data.getBody());
             if (isPresent(allowList)) {
                 updateHeaders(data, allowList, true);
                 return applyJsonBodyAllowList(node, allowList).toString();
@@ -313,8 +398,7 @@ public class OutgoingLogBodyConstructor {
     }
 
     private ObjectNode applyJsonBodyAllowList(JsonNode obj, Set<String> allowedPaths) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode newObj = mapper.createObjectNode();
+        ObjectNode newObj = JsonNodeFactory.instance.objectNode();
         allowedPaths.forEach(path -> {
             if (obj.has(path)) {
                 newObj.set(path, obj.get(path));
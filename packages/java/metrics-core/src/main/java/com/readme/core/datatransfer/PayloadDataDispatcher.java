@@ -1,43 +1,480 @@
 package com.readme.core.datatransfer;
 
 import com.readme.core.dataextraction.LogOptions;
+import com.readme.core.dataextraction.OverflowPolicy;
 import com.readme.core.dataextraction.payload.PayloadData;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Buffers outgoing logs and hands them over to the {@link DataSender} in batches.
+ * <p>
+ * A batch is sent as soon as the buffer reaches {@code LogOptions.getBufferLength()} logs or
+ * {@code LogOptions.getMaxBatchBytes()} of estimated serialized size, whichever comes first,
+ * so the size of requests to the metrics endpoint stays predictable whatever the payload mix.
+ * When the dispatcher is created with {@link LogOptions} enabling time-based flushing, a dedicated
+ * flush thread takes over sending and also sends whatever is buffered every
+ * {@code LogOptions.getFlushIntervalMillis()}, so large buffers never delay delivery of logs
+ * on quiet nodes indefinitely.
+ * <p>
+ * Batches are sent with {@link DataSender#sendAsync(List, LogOptions)}, and up to
+ * {@code LogOptions.getMaxPendingBatches()} of them are in flight at the same time, so the flushing
+ * thread never waits for a network round trip and a single thread can keep the uplink busy.
+ * <p>
+ * The buffer is a pre-allocated {@link RingBuffer} bounded by {@code LogOptions.getBufferCapacity()},
+ * so memory stays capped even when the metrics endpoint is unreachable. Logs that do not fit
+ * are handled according to {@code LogOptions.getOverflowPolicy()} and counted in
+ * {@link #getDroppedLogsCount()}.
+ * <p>
+ * Collected payloads can be handed over with {@link #dispatchAsync(PayloadData, LogOptions)},
+ * which builds the outgoing logs on a bounded executor owned by the dispatcher.
+ * <p>
+ * On application shutdown the dispatcher should be closed (see {@link #shutdown(long, TimeUnit)}),
+ * so the buffered logs are sent instead of being lost with the process.
+ */
 @Slf4j
-public class PayloadDataDispatcher {
+public class PayloadDataDispatcher implements AutoCloseable {
+
+    public static final long DEFAULT_SHUTDOWN_TIMEOUT_MILLIS = 5000;
+
+    private static final String FLUSH_THREAD_PREFIX = "readme-metrics-flusher-";
+
+    private static final String SHUTDOWN_THREAD_PREFIX = "readme-metrics-shutdown-";
+
+    private static final int MAX_SHUTDOWN_SENDERS = 8;
+
+    private static final long OVERFLOW_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
 
     private DataSender dataSender;
 
     private OutgoingLogBodyConstructor payloadConstructor;
 
-    private final BlockingQueue<OutgoingLogBody> buffer;
+    private final RingBuffer<OutgoingLogBody> buffer;
+
+    private final ExecutorService dispatchExecutor;
+
+    private final ScheduledExecutorService flushScheduler;
+
+    private final LogOptions logOptions;
+
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    private final AtomicBoolean flushInProgress = new AtomicBoolean(false);
+
+    private final ReentrantLock consumerLock = new ReentrantLock();
+
+    private final LongAdder droppedLogs = new LongAdder();
+
+    private final AtomicLong bufferedBytes = new AtomicLong();
+
+    private final int maxPendingBatches;
+
+    private final Semaphore pendingBatches;
 
     public PayloadDataDispatcher(DataSender dataSender, OutgoingLogBodyConstructor payloadConstructor) {
-        this.buffer = new LinkedBlockingQueue<>();
+        this(dataSender, payloadConstructor, null);
+    }
+
+    public PayloadDataDispatcher(DataSender dataSender,
+                                 OutgoingLogBodyConstructor payloadConstructor,
+                                 LogOptions logOptions) {
+        this(dataSender, payloadConstructor, logOptions, DispatchExecutors.newDefaultExecutor());
+    }
+
+    /**
+     * Creates a dispatcher with a dedicated flush thread.
+     *
+     * @param dataSender         component to send data over HTTP
+     * @param payloadConstructor component to build HAR-like logs from payload data
+     * @param logOptions         options used to size the buffer and run the flush thread; if null or if
+     *                           time-based flushing is disabled, no flush thread is started and batches
+     *                           are sent on the dispatching thread
+     * @param dispatchExecutor   executor running {@link #dispatchAsync(PayloadData, LogOptions)};
+     *                           it is owned by the dispatcher and shut down with it
+     */
+    public PayloadDataDispatcher(DataSender dataSender,
+                                 OutgoingLogBodyConstructor payloadConstructor,
+                                 LogOptions logOptions,
+                                 ExecutorService dispatchExecutor) {
+        LogOptions bufferOptions = logOptions != null ? logOptions : LogOptions.builder().build();
+        this.buffer = new RingBuffer<>(Math.max(bufferOptions.getBufferCapacity(), bufferOptions.getBufferLength()));
         this.dataSender = dataSender;
         this.payloadConstructor = payloadConstructor;
+        this.dispatchExecutor = dispatchExecutor;
+        this.logOptions = bufferOptions;
+        this.maxPendingBatches = Math.max(1, bufferOptions.getMaxPendingBatches());
+        this.pendingBatches = new Semaphore(maxPendingBatches);
+        this.flushScheduler = logOptions != null && logOptions.getFlushIntervalMillis() > 0
+                ? createFlushScheduler(logOptions)
+                : null;
+    }
+
+    private ScheduledExecutorService createFlushScheduler(LogOptions logOptions) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+                DispatchExecutors.namedDaemonThreadFactory(FLUSH_THREAD_PREFIX));
+
+        long flushInterval = logOptions.getFlushIntervalMillis();
+        scheduler.scheduleWithFixedDelay(() -> flush(logOptions, true),
+                flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        return scheduler;
+    }
+
+    /**
+     * Builds and buffers the outgoing log on the dispatcher's own executor, so the calling
+     * (request) thread is never blocked. If the executor cannot accept more work, the payload
+     * is dropped and counted in {@link #getDroppedLogsCount()}.
+     *
+     * @param payloadData collected request, response and user data
+     * @param logOptions  options the data was collected with
+     */
+    public void dispatchAsync(PayloadData payloadData, LogOptions logOptions) {
+        try {
+            dispatchExecutor.execute(() -> dispatch(payloadData, logOptions));
+        } catch (RejectedExecutionException e) {
+            droppedLogs.increment();
+            log.debug("The dispatch queue is full, the collected payload has been dropped");
+        }
     }
 
     public void dispatch(PayloadData payloadData, LogOptions logOptions) {
         try {
             OutgoingLogBody outgoingLogBody = payloadConstructor.construct(payloadData, logOptions);
-            buffer.add(outgoingLogBody);
-            if (buffer.size() >= logOptions.getBufferLength()) {
-                List<OutgoingLogBody> outgoingLogBodies = List.copyOf(buffer);
-                if (dataSender.send(outgoingLogBodies, logOptions)) {
-                    buffer.clear();
-                } else {
-                    log.error("Failed to send outgoing log body");
-                }
+            if (enqueue(outgoingLogBody, logOptions) && isBatchReady(logOptions)) {
+                triggerFlush(logOptions);
             }
         } catch (Exception e) {
             log.error("Error occurred on data dispatch phase: {}", e.getMessage());
         }
     }
 
+    /**
+     * Sends everything that is currently buffered, regardless of the buffer length.
+     *
+     * @param logOptions options the buffered logs were collected with
+     */
+    public void flush(LogOptions logOptions) {
+        flush(logOptions, true);
+    }
+
+    /**
+     * Stops accepting new payloads and sends everything that is left, waiting up to
+     * {@link #DEFAULT_SHUTDOWN_TIMEOUT_MILLIS}.
+     */
+    @Override
+    public void close() {
+        shutdown(DEFAULT_SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Gracefully shuts the dispatcher down within the given deadline:
+     * <ol>
+     *     <li>payloads passed to {@link #dispatchAsync(PayloadData, LogOptions)} are no longer accepted,
+     *     while the already queued ones are still buffered;</li>
+     *     <li>the flush thread is stopped and the batches it has in flight are awaited;</li>
+     *     <li>the remaining logs are sent in parallel batches;</li>
+     *     <li>requests still in flight in the {@link DataSender} are awaited.</li>
+     * </ol>
+     * Calling it more than once has no effect.
+     *
+     * @param timeout maximum time to wait
+     * @param unit    unit of the timeout
+     * @return true if all logs were sent before the deadline
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) {
+        if (!closed.compareAndSet(false, true)) {
+            return true;
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        try {
+            dispatchExecutor.shutdown();
+            boolean dispatched = dispatchExecutor.awaitTermination(remainingNanos(deadline), TimeUnit.NANOSECONDS);
+            if (flushScheduler != null) {
+                flushScheduler.shutdown();
+                flushScheduler.awaitTermination(remainingNanos(deadline), TimeUnit.NANOSECONDS);
+            }
+            awaitPendingBatches(deadline);
+            boolean flushed = sendRemainingInParallel(deadline);
+            boolean completed = dataSender.awaitCompletion(remainingNanos(deadline), TimeUnit.NANOSECONDS);
+            if (!(dispatched && flushed && completed)) {
+                log.warn("Not all collected logs could be sent before the shutdown deadline");
+                return false;
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Registers a JVM shutdown hook calling {@link #close()}, for applications which
+     * do not manage the dispatcher's lifecycle themselves.
+     */
+    public void registerShutdownHook() {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, SHUTDOWN_THREAD_PREFIX + "hook"));
+    }
+
+    /**
+     * Waits for the batches sent by the flush thread, so the failed ones are back in the buffer.
+     */
+    private void awaitPendingBatches(long deadline) throws InterruptedException {
+        if (pendingBatches.tryAcquire(maxPendingBatches, remainingNanos(deadline), TimeUnit.NANOSECONDS)) {
+            pendingBatches.release(maxPendingBatches);
+        }
+    }
+
+    private boolean sendRemainingInParallel(long deadline) throws InterruptedException {
+        List<List<OutgoingLogBody>> batches = new ArrayList<>();
+        while (!buffer.isEmpty()) {
+            List<OutgoingLogBody> batch = drainBatch(logOptions);
+            if (batch.isEmpty()) {
+                break;
+            }
+            batches.add(batch);
+        }
+        if (batches.isEmpty()) {
+            return true;
+        }
+
+        ExecutorService senders = Executors.newFixedThreadPool(Math.min(batches.size(), MAX_SHUTDOWN_SENDERS),
+                DispatchExecutors.namedDaemonThreadFactory(SHUTDOWN_THREAD_PREFIX));
+        try {
+            CompletableFuture<?>[] sends = batches.stream()
+                    .map(batch -> CompletableFuture.supplyAsync(() -> send(batch, logOptions), senders))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(sends).get(remainingNanos(deadline), TimeUnit.NANOSECONDS);
+            return Arrays.stream(sends).allMatch(send -> Boolean.TRUE.equals(send.join()));
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        } finally {
+            senders.shutdownNow();
+        }
+    }
+
+    private static long remainingNanos(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    /**
+     * Returns the number of logs dropped because the buffer or the dispatch queue was full.
+     */
+    public long getDroppedLogsCount() {
+        return droppedLogs.sum();
+    }
+
+    private boolean enqueue(OutgoingLogBody outgoingLogBody, LogOptions logOptions) {
+        if (offer(outgoingLogBody)) {
+            return true;
+        }
+
+        OverflowPolicy overflowPolicy = logOptions.getOverflowPolicy() != null
+                ? logOptions.getOverflowPolicy()
+                : OverflowPolicy.DROP_NEWEST;
+        switch (overflowPolicy) {
+            case DROP_OLDEST:
+                while (!offer(outgoingLogBody)) {
+                    dropOldest();
+                }
+                return true;
+            case BLOCK:
+                triggerFlush(logOptions);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(logOptions.getOverflowTimeoutMillis());
+                while (!offer(outgoingLogBody)) {
+                    if (System.nanoTime() - deadline >= 0) {
+                        recordDroppedLog();
+                        return false;
+                    }
+                    LockSupport.parkNanos(OVERFLOW_PARK_NANOS);
+                }
+                return true;
+            default:
+                recordDroppedLog();
+                return false;
+        }
+    }
+
+    private boolean offer(OutgoingLogBody outgoingLogBody) {
+        if (buffer.offer(outgoingLogBody)) {
+            bufferedBytes.addAndGet(outgoingLogBody.getEstimatedSize());
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the oldest buffered log to make room. The dispatching thread takes the consumer's turn for it.
+     */
+    private void dropOldest() {
+        consumerLock.lock();
+        try {
+            OutgoingLogBody oldest = buffer.poll();
+            if (oldest != null) {
+                bufferedBytes.addAndGet(-oldest.getEstimatedSize());
+                recordDroppedLog();
+            }
+        } finally {
+            consumerLock.unlock();
+        }
+    }
+
+    /**
+     * Returns true if the buffered logs fill a batch, either by count or by size.
+     */
+    private boolean isBatchReady(LogOptions logOptions) {
+        long maxBatchBytes = logOptions.getMaxBatchBytes();
+        return buffer.size() >= logOptions.getBufferLength()
+                || (maxBatchBytes > 0 && bufferedBytes.get() >= maxBatchBytes);
+    }
+
+    /**
+     * Takes the oldest logs out of the buffer, up to the buffer length and the byte budget.
+     * The buffer has a single consumer, so draining and evicting take turns with a lock.
+     */
+    private List<OutgoingLogBody> drainBatch(LogOptions logOptions) {
+        int bufferLength = Math.max(1, logOptions.getBufferLength());
+        long maxBatchBytes = logOptions.getMaxBatchBytes() > 0 ? logOptions.getMaxBatchBytes() : Long.MAX_VALUE;
+        List<OutgoingLogBody> batch = new ArrayList<>(Math.min(bufferLength, buffer.capacity()));
+        consumerLock.lock();
+        try {
+            buffer.drainTo(batch, bufferLength, OutgoingLogBody::getEstimatedSize, maxBatchBytes);
+        } finally {
+            consumerLock.unlock();
+        }
+        for (OutgoingLogBody outgoingLogBody : batch) {
+            bufferedBytes.addAndGet(-outgoingLogBody.getEstimatedSize());
+        }
+        return batch;
+    }
+
+    private void recordDroppedLog() {
+        droppedLogs.increment();
+        log.debug("The buffer is full, the outgoing log body has been dropped");
+    }
+
+    private void triggerFlush(LogOptions logOptions) {
+        if (flushScheduler != null) {
+            try {
+                flushScheduler.execute(() -> flush(logOptions, false));
+                return;
+            } catch (RejectedExecutionException e) {
+                // the flush thread has been stopped by shutdown
+            }
+        }
+        flush(logOptions, false);
+    }
+
+    /**
+     * Sends the buffered logs.
+     * <p>
+     * Only one thread flushes at a time: the flushing thread atomically drains a batch out of
+     * the buffer, so every log is sent exactly once, and concurrent callers return immediately.
+     * The flushing thread does not wait for the results: when all pending batch slots are taken,
+     * it stops, and the next batch completing successfully flushes again. A batch that could not
+     * be sent is returned to the buffer, as far as capacity allows, to be retried with the next flush.
+     *
+     * @param logOptions options the logs were collected with
+     * @param force      if true, the buffer is sent even if it has not reached the buffer length
+     */
+    private void flush(LogOptions logOptions, boolean force) {
+        boolean sent;
+        do {
+            if (!flushInProgress.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                sent = drainAndSend(logOptions, force);
+            } finally {
+                flushInProgress.set(false);
+            }
+            // logs added while the flag was held were not picked up by their dispatching thread
+        } while (sent && isBatchReady(logOptions));
+    }
+
+    private boolean drainAndSend(LogOptions logOptions, boolean force) {
+        while (force ? !buffer.isEmpty() : isBatchReady(logOptions)) {
+            if (!pendingBatches.tryAcquire()) {
+                return false;
+            }
+            List<OutgoingLogBody> batch = drainBatch(logOptions);
+            if (batch.isEmpty()) {
+                pendingBatches.release();
+                return true;
+            }
+            CompletableFuture<SendResult> result = sendAsync(batch, logOptions);
+            result.whenComplete((sendResult, e) -> onBatchCompleted(batch, sendResult, e, logOptions));
+            if (result.isDone() && !isSuccessful(result)) {
+                // the batch is already back in the buffer, sending it again right away would fail as well
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private CompletableFuture<SendResult> sendAsync(List<OutgoingLogBody> batch, LogOptions logOptions) {
+        try {
+            return dataSender.sendAsync(batch, logOptions);
+        } catch (Exception e) {
+            CompletableFuture<SendResult> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
+    private void onBatchCompleted(List<OutgoingLogBody> batch, SendResult result, Throwable error, LogOptions logOptions) {
+        pendingBatches.release();
+        if (error != null || !result.isSuccessful()) {
+            if (error != null) {
+                log.error("Error occurred on data flush phase: {}", error.getMessage());
+            } else {
+                log.error("Failed to send outgoing log body");
+            }
+            requeue(batch);
+            return;
+        }
+        if (isBatchReady(logOptions)) {
+            triggerFlush(logOptions);
+        }
+    }
+
+    private static boolean isSuccessful(CompletableFuture<SendResult> result) {
+        return !result.isCompletedExceptionally() && result.join().isSuccessful();
+    }
+
+    private void requeue(List<OutgoingLogBody> batch) {
+        for (OutgoingLogBody outgoingLogBody : batch) {
+            if (!offer(outgoingLogBody)) {
+                recordDroppedLog();
+            }
+        }
+    }
+
+    private boolean send(List<OutgoingLogBody> batch, LogOptions logOptions) {
+        try {
+            if (dataSender.send(batch, logOptions)) {
+                return true;
+            }
+            log.error("Failed to send outgoing log body");
+        } catch (Exception e) {
+            log.error("Error occurred on data flush phase: {}", e.getMessage());
+        }
+        return false;
+    }
+
 }
@@ -0,0 +1,71 @@
+package com.readme.core.datatransfer;
+
+import com.readme.core.config.RetryPolicy;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retry rules shared by the {@link DataSender} implementations, independent of the HTTP client used.
+ */
+final class Retries {
+
+    private static final ScheduledExecutorService RETRY_SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+            DispatchExecutors.namedDaemonThreadFactory("readme-metrics-retry-"));
+
+    private Retries() {
+    }
+
+    /**
+     * Runs an asynchronous retry after the given delay, so no thread is blocked while waiting.
+     */
+    static void schedule(Runnable retry, long delayMillis) {
+        RETRY_SCHEDULER.schedule(retry, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    static boolean isRetryable(int statusCode) {
+        return statusCode == 408 || statusCode == 429 || statusCode >= 500;
+    }
+
+    /**
+     * Returns the delay requested by a 429 or 503 response with {@code Retry-After}, or -1.
+     *
+     * @param statusCode status of the response
+     * @param retryAfter value of the {@code Retry-After} header, in seconds or as an HTTP date; may be null
+     */
+    static long retryAfterMillis(int statusCode, String retryAfter) {
+        if (statusCode != 429 && statusCode != 503) {
+            return -1;
+        }
+        if (retryAfter == null || retryAfter.isEmpty()) {
+            return -1;
+        }
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime retryAt = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, Duration.between(ZonedDateTime.now(retryAt.getZone()), retryAt).toMillis());
+            } catch (DateTimeParseException ignored) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Decorrelated jitter: a random delay between the base delay and three times the previous delay,
+     * capped by the maximal delay.
+     */
+    static long nextBackoffMillis(RetryPolicy retryPolicy, long previousDelay) {
+        long baseDelay = Math.max(1, retryPolicy.getBaseDelayMillis());
+        long upperBound = Math.max(baseDelay + 1, previousDelay * 3);
+        return Math.min(retryPolicy.getMaxDelayMillis(), ThreadLocalRandom.current().nextLong(baseDelay, upperBound));
+    }
+
+}
@@ -0,0 +1,167 @@
+package com.readme.core.datatransfer;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bounded, lock-free ring buffer used to hold outgoing logs until they are sent.
+ * <p>
+ * All slots are allocated up front, so adding an element never allocates and the memory used
+ * by the buffer is capped by its capacity. Each slot carries a sequence number which tells
+ * producers and the consumer whose turn it is to use it, so any number of threads can add elements
+ * concurrently. There is a single consumer: elements must be taken out by one thread at a time,
+ * and callers taking turns must hand over with a lock, which also publishes the consumer's progress.
+ *
+ * @param <E> the type of the buffered elements
+ */
+public class RingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong producerIndex = new AtomicLong();
+    private final AtomicLong consumerIndex = new AtomicLong();
+
+    /**
+     * @param capacity minimal number of elements the buffer can hold; rounded up to the next power of two
+     */
+    public RingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be positive");
+        }
+        this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.elements = new AtomicReferenceArray<>(this.capacity);
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds the element if there is free space.
+     *
+     * @return false if the buffer is full
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("Ring buffer does not accept null elements");
+        }
+        long position = producerIndex.get();
+        while (true) {
+            int slot = (int) (position & mask);
+            long difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                if (producerIndex.compareAndSet(position, position + 1)) {
+                    elements.lazySet(slot, element);
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+            position = producerIndex.get();
+        }
+    }
+
+    /**
+     * Removes and returns the oldest element.
+     *
+     * @return the oldest element, or null if the buffer is empty
+     */
+    public E poll() {
+        long position = consumerIndex.get();
+        int slot = (int) (position & mask);
+        if (sequences.get(slot) != position + 1) {
+            return null;
+        }
+        return take(slot, position);
+    }
+
+    /**
+     * Moves up to {@code maxElements} of the oldest elements into the given collection.
+     *
+     * @return the number of moved elements
+     */
+    public int drainTo(Collection<? super E> target, int maxElements) {
+        int drained = 0;
+        while (drained < maxElements) {
+            E element = poll();
+            if (element == null) {
+                break;
+            }
+            target.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Moves up to {@code maxElements} of the oldest elements into the given collection, stopping
+     * before the element which would make the total weight exceed {@code maxWeight}. The first element
+     * is always moved, even if it is heavier than {@code maxWeight} on its own, so the buffer never gets stuck.
+     *
+     * @param weigher   computes the weight of an element
+     * @param maxWeight maximum total weight of the moved elements
+     * @return the number of moved elements
+     */
+    public int drainTo(Collection<? super E> target, int maxElements, ToLongFunction<? super E> weigher, long maxWeight) {
+        int drained = 0;
+        long weight = 0;
+        long position = consumerIndex.get();
+        while (drained < maxElements) {
+            int slot = (int) (position & mask);
+            if (sequences.get(slot) != position + 1) {
+                break;
+            }
+            // the slot cannot be reused before it is taken, so it is safe to look first
+            long elementWeight = weigher.applyAsLong(elements.get(slot));
+            if (drained > 0 && weight + elementWeight > maxWeight) {
+                break;
+            }
+            target.add(take(slot, position));
+            weight += elementWeight;
+            drained++;
+            position++;
+        }
+        return drained;
+    }
+
+    /**
+     * Takes the published element out of the slot and gives the slot back to the producers.
+     */
+    private E take(int slot, long position) {
+        E element = elements.get(slot);
+        elements.lazySet(slot, null);
+        consumerIndex.set(position + 1);
+        sequences.set(slot, position + capacity);
+        return element;
+    }
+
+    /**
+     * Returns the number of buffered elements. The value is only a snapshot while other threads
+     * are adding or removing elements.
+     */
+    public int size() {
+        while (true) {
+            long consumed = consumerIndex.get();
+            long produced = producerIndex.get();
+            if (consumed == consumerIndex.get()) {
+                return (int) Math.max(0, Math.min(produced - consumed, capacity));
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+}
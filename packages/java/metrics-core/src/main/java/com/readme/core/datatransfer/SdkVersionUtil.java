@@ -7,7 +7,17 @@ import java.io.InputStream;
 import java.util.Properties;
 
 public class SdkVersionUtil {
+
+    private static final String VERSION = loadVersion();
+
+    /**
+     * Returns the SDK version. The value is read once, as it is added to every outgoing log.
+     */
     public static String getVersion() {
+        return VERSION;
+    }
+
+    private static String loadVersion() {
         try (InputStream is = SdkVersionUtil.class.getClassLoader()
                 .getResourceAsStream("version.properties")) {
             Properties properties = new Properties();
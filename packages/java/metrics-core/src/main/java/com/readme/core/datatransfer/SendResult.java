@@ -0,0 +1,74 @@
+package com.readme.core.datatransfer;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Result of sending a batch of logs with {@link DataSender#sendAsync(java.util.List, com.readme.core.dataextraction.LogOptions)},
+ * retries included.
+ */
+@Value
+@Builder(toBuilder = true)
+public class SendResult {
+
+    public static final int NO_STATUS = -1;
+    public static final long NO_RETRY_AFTER = -1;
+
+    /**
+     * True if the metrics endpoint accepted the logs, or if they were handled otherwise,
+     * e.g. spooled or dropped as too large.
+     */
+    boolean successful;
+
+    /**
+     * Status of the last response, or {@link #NO_STATUS} if no response was received,
+     * e.g. because the batch was rejected before it was sent.
+     */
+    @Builder.Default
+    int statusCode = NO_STATUS;
+
+    /**
+     * Size of the request bodies sent; the estimated size of the logs when the exact size is unknown.
+     */
+    long bytes;
+
+    /**
+     * Time in milliseconds from the call until the result was known.
+     */
+    long latencyMillis;
+
+    /**
+     * Delay requested by the last response with {@code Retry-After}, or {@link #NO_RETRY_AFTER}.
+     */
+    @Builder.Default
+    long retryAfterMillis = NO_RETRY_AFTER;
+
+    /**
+     * Returns the result of a batch which was not sent, e.g. because of an open circuit breaker.
+     */
+    public static SendResult notSent() {
+        return SendResult.builder().successful(false).build();
+    }
+
+    /**
+     * Returns true if the endpoint rejected the request with 413 Payload Too Large.
+     */
+    public boolean isTooLarge() {
+        return statusCode == 413;
+    }
+
+    /**
+     * Merges the results of two parts of a split batch sent in parallel.
+     */
+    SendResult combine(SendResult other) {
+        SendResult failed = !successful ? this : !other.successful ? other : this;
+        return SendResult.builder()
+                .successful(successful && other.successful)
+                .statusCode(failed.statusCode)
+                .bytes(bytes + other.bytes)
+                .latencyMillis(Math.max(latencyMillis, other.latencyMillis))
+                .retryAfterMillis(Math.max(retryAfterMillis, other.retryAfterMillis))
+                .build();
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.readme.core.datatransfer.collector;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Wire format between {@link UnixSocketDataSender} and a local collector.
+ * <p>
+ * A connection starts with the 4 bytes {@link #MAGIC}, followed by frames. Every frame consists of its
+ * length as a big-endian int and the payload. The first frame carries the ReadMe API key of the
+ * application in UTF-8, so a single collector can upload for applications of several projects.
+ * Every following frame carries one {@link com.readme.core.datatransfer.OutgoingLogBody} serialized to JSON.
+ * A frame cut off by a closed connection is discarded by the collector.
+ */
+public final class CollectorProtocol {
+
+    /**
+     * Bytes a connection starts with; the last one is the protocol version.
+     */
+    public static final byte[] MAGIC = {'R', 'M', 'C', 1};
+
+    /**
+     * Largest payload of a frame; longer frames are rejected by the collector.
+     */
+    public static final int MAX_FRAME_BYTES = 16 * 1024 * 1024;
+
+    private CollectorProtocol() {
+    }
+
+    /**
+     * Encodes the start of a connection: the magic bytes and the frame carrying the API key.
+     */
+    public static ByteBuffer hello(String readmeApiKey) {
+        byte[] apiKey = readmeApiKey.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(MAGIC.length + Integer.BYTES + apiKey.length);
+        buffer.put(MAGIC).putInt(apiKey.length).put(apiKey);
+        return buffer.flip();
+    }
+
+    /**
+     * Encodes the payloads as consecutive frames into one buffer, so they are written at once.
+     */
+    public static ByteBuffer frames(List<byte[]> payloads) {
+        int size = 0;
+        for (byte[] payload : payloads) {
+            size += Integer.BYTES + payload.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (byte[] payload : payloads) {
+            buffer.putInt(payload.length).put(payload);
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Reads the start of a connection.
+     *
+     * @return the API key sent by the application
+     * @throws IOException if the connection does not start with the magic bytes and an API key
+     */
+    public static String readHello(DataInputStream in) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (magic[i] != MAGIC[i]) {
+                throw new IOException("Not a readme-metrics collector connection");
+            }
+        }
+        byte[] apiKey = readFrame(in);
+        if (apiKey == null) {
+            throw new EOFException("Connection closed before the API key was sent");
+        }
+        return new String(apiKey, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the next frame.
+     *
+     * @return the payload of the frame, or null if the connection was closed before a complete frame
+     * @throws IOException if reading fails or the frame is longer than {@link #MAX_FRAME_BYTES}
+     */
+    public static byte[] readFrame(DataInputStream in) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (length < 0 || length > MAX_FRAME_BYTES) {
+            throw new IOException("Invalid frame length " + length);
+        }
+        byte[] payload = new byte[length];
+        try {
+            in.readFully(payload);
+        } catch (EOFException e) {
+            return null;
+        }
+        return payload;
+    }
+
+}
@@ -0,0 +1,260 @@
+package com.readme.core.datatransfer.collector;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.readme.core.config.CoreConfig;
+import com.readme.core.dataextraction.LogOptions;
+import com.readme.core.datatransfer.DataSender;
+import com.readme.core.datatransfer.JsonMappers;
+import com.readme.core.datatransfer.OutgoingLogBody;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link DataSender} which hands the logs over to a collector process on the same host through a Unix domain
+ * socket, see {@link CollectorProtocol}. The collector batches, compresses and uploads the logs of all local
+ * applications, so the network and CPU cost of talking to ReadMe is moved out of the request-serving process.
+ * <p>
+ * Logs are written on the calling thread: a local socket write takes microseconds, unless the collector
+ * stops reading and the socket buffer fills up. The socket is non-blocking, and a batch which cannot be
+ * written within the write timeout fails and drops the connection, so a stalled collector holds up the
+ * sending threads for that long at most. If the collector is not running, sending fails and the
+ * connection is attempted again with the next batch. A batch interrupted by a broken connection is sent
+ * again as a whole, so the collector may receive some of its logs twice.
+ * <p>
+ * Unix domain sockets require Java 16 or later; the socket API is looked up reflectively, so this class
+ * can be loaded on older runtimes, but not instantiated.
+ */
+@Slf4j
+public class UnixSocketDataSender implements DataSender, AutoCloseable {
+
+    public static final long DEFAULT_WRITE_TIMEOUT_MILLIS = 1000;
+
+    private final Path socketPath;
+
+    private final SocketAddress socketAddress;
+
+    private final String readmeApiKey;
+
+    private final long writeTimeoutNanos;
+
+    private final JsonMappers jsonMappers;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final LongAdder droppedLogs = new LongAdder();
+
+    private SocketChannel channel;
+
+    private Selector writeSelector;
+
+    private boolean closed;
+
+    /**
+     * @param socketPath path of the socket the collector listens on
+     * @param coreConfig configuration providing the API key the collector uploads the logs with
+     * @throws IllegalStateException if the runtime does not support Unix domain sockets
+     */
+    public UnixSocketDataSender(Path socketPath, CoreConfig coreConfig) {
+        this(socketPath, coreConfig, DEFAULT_WRITE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param socketPath         path of the socket the collector listens on
+     * @param coreConfig         configuration providing the API key the collector uploads the logs with
+     * @param writeTimeoutMillis maximum time a batch may take to be written before it fails
+     * @throws IllegalStateException if the runtime does not support Unix domain sockets
+     */
+    public UnixSocketDataSender(Path socketPath, CoreConfig coreConfig, long writeTimeoutMillis) {
+        this(socketPath, coreConfig, writeTimeoutMillis, JsonMappers.shared());
+    }
+
+    /**
+     * @param socketPath         path of the socket the collector listens on
+     * @param coreConfig         configuration providing the API key the collector uploads the logs with
+     * @param writeTimeoutMillis maximum time a batch may take to be written before it fails
+     * @param jsonMappers        JSON configuration serializing the records, usually {@link JsonMappers#shared()}
+     * @throws IllegalStateException if the runtime does not support Unix domain sockets
+     */
+    public UnixSocketDataSender(Path socketPath, CoreConfig coreConfig, long writeTimeoutMillis,
+                                JsonMappers jsonMappers) {
+        this.jsonMappers = jsonMappers;
+        this.socketPath = socketPath;
+        this.socketAddress = unixDomainSocketAddress(socketPath);
+        this.readmeApiKey = coreConfig.getReadmeAPIKey();
+        this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMillis);
+    }
+
+    @Override
+    public boolean send(List<OutgoingLogBody> payloadData, LogOptions logOptions) {
+        if (payloadData == null) {
+            return false;
+        }
+        List<byte[]> records = new ArrayList<>(payloadData.size());
+        try {
+            for (OutgoingLogBody logBody : payloadData) {
+                addRecord(records, jsonMappers.logWriter().writeValueAsBytes(logBody));
+            }
+        } catch (IOException e) {
+            log.error("Error while serializing collected data: ", e);
+            return false;
+        }
+        return write(records);
+    }
+
+    /**
+     * Splits the JSON array into its logs and writes them to the collector, e.g. when replaying a spool.
+     */
+    @Override
+    public boolean sendSerialized(byte[] serializedLogs) {
+        List<byte[]> records = new ArrayList<>();
+        try {
+            for (JsonNode logBody : jsonMappers.treeReader().readTree(serializedLogs)) {
+                addRecord(records, jsonMappers.treeWriter().writeValueAsBytes(logBody));
+            }
+        } catch (IOException e) {
+            log.error("Error while reading serialized data: ", e);
+            return false;
+        }
+        return write(records);
+    }
+
+    private void addRecord(List<byte[]> records, byte[] record) {
+        if (record.length > CollectorProtocol.MAX_FRAME_BYTES) {
+            droppedLogs.increment();
+            log.error("readme-metrics: A log of {} bytes is too large for the collector and has been dropped", record.length);
+            return;
+        }
+        records.add(record);
+    }
+
+    private boolean write(List<byte[]> records) {
+        if (records.isEmpty()) {
+            return true;
+        }
+        ByteBuffer frames = CollectorProtocol.frames(records);
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            long deadline = System.nanoTime() + writeTimeoutNanos;
+            writeFully(connect(deadline), frames, deadline);
+            return true;
+        } catch (IOException e) {
+            disconnect();
+            log.error("readme-metrics: Cannot send logs to the collector at {}: {}", socketPath, e.getMessage());
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private SocketChannel connect(long deadline) throws IOException {
+        if (channel != null) {
+            return channel;
+        }
+        channel = openUnixSocketChannel();
+        channel.connect(socketAddress);
+        channel.configureBlocking(false);
+        writeSelector = Selector.open();
+        channel.register(writeSelector, SelectionKey.OP_WRITE);
+        writeFully(channel, CollectorProtocol.hello(readmeApiKey), deadline);
+        return channel;
+    }
+
+    /**
+     * Writes the buffer, waiting for the collector to read while the socket buffer is full.
+     *
+     * @throws IOException if the deadline passes first; the connection then has to be dropped,
+     *                     since a frame may have been written in part
+     */
+    private void writeFully(SocketChannel connectedChannel, ByteBuffer buffer, long deadline) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (connectedChannel.write(buffer) > 0) {
+                continue;
+            }
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                throw new IOException("The collector did not read the logs within the write timeout");
+            }
+            writeSelector.select(remainingMillis);
+            writeSelector.selectedKeys().clear();
+        }
+    }
+
+    private void disconnect() {
+        try {
+            if (writeSelector != null) {
+                writeSelector.close();
+            }
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            log.debug("readme-metrics: Error while closing the collector connection: {}", e.getMessage());
+        }
+        writeSelector = null;
+        channel = null;
+    }
+
+    /**
+     * Returns the number of logs dropped because they are larger than {@link CollectorProtocol#MAX_FRAME_BYTES}.
+     */
+    public long getDroppedLogsCount() {
+        return droppedLogs.sum();
+    }
+
+    /**
+     * Closes the connection to the collector; later batches fail.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            disconnect();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static SocketChannel openUnixSocketChannel() throws IOException {
+        ProtocolFamily unix = Enum.valueOf(StandardProtocolFamily.class, "UNIX");
+        try {
+            return (SocketChannel) SocketChannel.class.getMethod("open", ProtocolFamily.class).invoke(null, unix);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Cannot open a Unix domain socket", e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("Cannot open a Unix domain socket", e);
+        }
+    }
+
+    private static SocketAddress unixDomainSocketAddress(Path path) {
+        try {
+            return (SocketAddress) Class.forName("java.net.UnixDomainSocketAddress")
+                    .getMethod("of", Path.class)
+                    .invoke(null, path);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unix domain sockets require Java 16 or later", e);
+        }
+    }
+
+}
@@ -0,0 +1,173 @@
+package com.readme.core.datatransfer.export;
+
+import com.readme.core.config.ContentEncoding;
+import com.readme.core.config.CoreConfig;
+import com.readme.core.config.HttpClientOptions;
+import com.readme.core.datatransfer.DataSender;
+import com.readme.core.datatransfer.HttpClients;
+import com.readme.core.datatransfer.HttpDataSender;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.readme.core.config.ReadmeApiConfig.README_METRICS_URL;
+
+/**
+ * Uploads the files exported by {@link NdjsonFileDataSender} to ReadMe in large batches.
+ * <p>
+ * Completed files are uploaded oldest first. Their lines are joined into JSON arrays of up to
+ * {@code maxBatchBytes}, which are sent with {@link DataSender#sendSerialized(byte[])}, so the sender's
+ * compression and retries apply. A file is deleted once all its batches were accepted. If a batch fails,
+ * the upload stops and the file is kept; the next run uploads it again from the start, so delivery is
+ * at-least-once.
+ * <p>
+ * Run from the command line with {@code java -cp metrics-core.jar:<dependencies>
+ * com.readme.core.datatransfer.export.NdjsonBulkUploader --directory=<dir> [--api-key=<key>]
+ * [--metrics-url=<url>] [--max-batch-bytes=5242880] [--compression=GZIP]}. The API key may also be
+ * given in the {@code README_API_KEY} environment variable.
+ */
+@Slf4j
+public class NdjsonBulkUploader {
+
+    public static final long DEFAULT_MAX_BATCH_BYTES = CoreConfig.DEFAULT_MAX_REQUEST_BYTES;
+
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+
+    private final DataSender dataSender;
+
+    private final long maxBatchBytes;
+
+    /**
+     * @param dataSender    sender doing the upload; it must support {@link DataSender#sendSerialized(byte[])}
+     * @param maxBatchBytes maximum size of an uploaded JSON array, before compression
+     */
+    public NdjsonBulkUploader(DataSender dataSender, long maxBatchBytes) {
+        this.dataSender = dataSender;
+        this.maxBatchBytes = maxBatchBytes;
+    }
+
+    /**
+     * Uploads the completed files of the directory, oldest first, until one of them fails.
+     *
+     * @return the number of uploaded and deleted files
+     * @throws IOException if the directory or a file cannot be read
+     */
+    public int upload(Path directory) throws IOException {
+        int uploaded = 0;
+        for (Path file : NdjsonFileDataSender.listFiles(directory, NdjsonFileDataSender.COMPLETED_SUFFIX)) {
+            if (!uploadFile(file)) {
+                log.error("readme-metrics: Upload of {} failed, it is kept for the next run", file);
+                return uploaded;
+            }
+            Files.delete(file);
+            uploaded++;
+        }
+        return uploaded;
+    }
+
+    private boolean uploadFile(Path file) throws IOException {
+        JsonArrayBuilder batch = new JsonArrayBuilder();
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        byte[] chunk = new byte[READ_BUFFER_BYTES];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(chunk)) >= 0) {
+                int lineStart = 0;
+                for (int i = 0; i < read; i++) {
+                    if (chunk[i] != '\n') {
+                        continue;
+                    }
+                    line.write(chunk, lineStart, i - lineStart);
+                    lineStart = i + 1;
+                    if (line.size() == 0) {
+                        continue;
+                    }
+                    if (!batch.isEmpty() && batch.size() + line.size() + 2 > maxBatchBytes && !send(batch)) {
+                        return false;
+                    }
+                    batch.add(line);
+                    line.reset();
+                }
+                line.write(chunk, lineStart, read - lineStart);
+            }
+        }
+        return batch.isEmpty() || send(batch);
+    }
+
+    private boolean send(JsonArrayBuilder batch) {
+        boolean sent = dataSender.sendSerialized(batch.toByteArray());
+        batch.reset();
+        return sent;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        String directory = options.get("directory");
+        String apiKey = options.getOrDefault("api-key", System.getenv("README_API_KEY"));
+        if (directory == null || apiKey == null) {
+            throw new IllegalArgumentException("--directory and --api-key (or README_API_KEY) are required");
+        }
+        CoreConfig coreConfig = CoreConfig.builder()
+                .readmeAPIKey(apiKey)
+                .metricsUrl(options.getOrDefault("metrics-url", README_METRICS_URL))
+                .contentEncoding(ContentEncoding.valueOf(options.getOrDefault("compression", "GZIP").toUpperCase()))
+                .compressionMinBytes(0)
+                .build();
+        long maxBatchBytes = Long.parseLong(options.getOrDefault("max-batch-bytes", String.valueOf(DEFAULT_MAX_BATCH_BYTES)));
+
+        Path directoryPath = Paths.get(directory);
+        int pending = NdjsonFileDataSender.listFiles(directoryPath, NdjsonFileDataSender.COMPLETED_SUFFIX).size();
+        HttpDataSender dataSender = new HttpDataSender(HttpClients.newClient(HttpClientOptions.builder().build()), coreConfig);
+        int uploaded = new NdjsonBulkUploader(dataSender, maxBatchBytes).upload(directoryPath);
+        System.out.println("Uploaded " + uploaded + " of " + pending + " files from " + directory);
+        System.exit(uploaded >= pending ? 0 : 1);
+    }
+
+    /**
+     * Joins lines into a JSON array without parsing them.
+     */
+    private static final class JsonArrayBuilder {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private int elements;
+
+        void add(ByteArrayOutputStream element) throws IOException {
+            out.write(elements == 0 ? '[' : ',');
+            element.writeTo(out);
+            elements++;
+        }
+
+        boolean isEmpty() {
+            return elements == 0;
+        }
+
+        int size() {
+            return out.size();
+        }
+
+        byte[] toByteArray() {
+            out.write(']');
+            return out.toByteArray();
+        }
+
+        void reset() {
+            out.reset();
+            elements = 0;
+        }
+    }
+
+}
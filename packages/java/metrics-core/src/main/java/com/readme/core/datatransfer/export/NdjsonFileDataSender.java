@@ -0,0 +1,346 @@
+package com.readme.core.datatransfer.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.readme.core.dataextraction.LogOptions;
+import com.readme.core.datatransfer.DataSender;
+import com.readme.core.datatransfer.JsonMappers;
+import com.readme.core.datatransfer.OutgoingLogBody;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * {@link DataSender} which exports the logs to local files instead of sending them to ReadMe, e.g. in air-gapped
+ * environments or to upload them in off-peak windows with {@link NdjsonBulkUploader}.
+ * <p>
+ * Every log is appended as one line of JSON (NDJSON) to the active file
+ * {@code logs-<millis>-<process>-<sequence>.ndjson.part}, where {@code <process>} is a random token of the exporter.
+ * Writes go through an in-memory buffer into a {@link FileChannel}, so the request path never waits for the network
+ * and rarely for the disk. The active file is completed, i.e. renamed to {@code .ndjson}, when it reaches
+ * {@code maxFileBytes} or is older than {@code maxFileAgeMillis}; only completed files are picked up by the uploader.
+ * The buffer is written out at least once per second, so a crash loses at most the logs of the last second.
+ * An active file left over by a crashed process is cut after its last complete line and completed on startup.
+ * <p>
+ * Several processes may export to the same directory, e.g. during a rolling deploy. Each holds an exclusive
+ * {@link FileLock} on its active file until it is completed, and only files nobody holds a lock on are
+ * recovered, so the active file of another running process is never touched.
+ */
+@Slf4j
+public class NdjsonFileDataSender implements DataSender, AutoCloseable {
+
+    public static final long DEFAULT_MAX_FILE_BYTES = 64L * 1024 * 1024;
+    public static final long DEFAULT_MAX_FILE_AGE_MILLIS = 10 * 60 * 1000;
+
+    static final String FILE_PREFIX = "logs-";
+    static final String COMPLETED_SUFFIX = ".ndjson";
+    static final String ACTIVE_SUFFIX = ".ndjson.part";
+
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+    private static final long FLUSH_INTERVAL_MILLIS = 1000;
+    private static final byte NEWLINE = '\n';
+
+    private final Path directory;
+    private final long maxFileBytes;
+    private final long maxFileAgeMillis;
+    private final JsonMappers jsonMappers;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(WRITE_BUFFER_BYTES);
+    private final ScheduledExecutorService flushScheduler;
+    private final String processToken = String.format("%08x", ThreadLocalRandom.current().nextInt());
+
+    private FileChannel activeChannel;
+    private Path activePath;
+    private long activeFileBytes;
+    private long activeFileCreatedMillis;
+    private int sequence;
+    private boolean closed;
+
+    public NdjsonFileDataSender(Path directory) throws IOException {
+        this(directory, DEFAULT_MAX_FILE_BYTES, DEFAULT_MAX_FILE_AGE_MILLIS);
+    }
+
+    /**
+     * Opens the exporter, creating the directory if needed and completing the files left over by a previous process.
+     *
+     * @param directory        directory holding the exported files
+     * @param maxFileBytes     size at which the active file is completed
+     * @param maxFileAgeMillis age at which the active file is completed
+     * @throws IOException if the directory cannot be created or read
+     */
+    public NdjsonFileDataSender(Path directory, long maxFileBytes, long maxFileAgeMillis) throws IOException {
+        this(directory, maxFileBytes, maxFileAgeMillis, JsonMappers.shared());
+    }
+
+    /**
+     * Opens the exporter, see {@link #NdjsonFileDataSender(Path, long, long)}.
+     *
+     * @param jsonMappers JSON configuration serializing the logs, usually {@link JsonMappers#shared()}
+     */
+    public NdjsonFileDataSender(Path directory, long maxFileBytes, long maxFileAgeMillis,
+                                JsonMappers jsonMappers) throws IOException {
+        this.jsonMappers = jsonMappers;
+        this.directory = Files.createDirectories(directory);
+        this.maxFileBytes = maxFileBytes;
+        this.maxFileAgeMillis = maxFileAgeMillis;
+        for (Path path : listFiles(directory, ACTIVE_SUFFIX)) {
+            recover(path);
+        }
+        this.flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "readme-metrics-export-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushScheduler.scheduleWithFixedDelay(this::flushAndRotate,
+                FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean send(List<OutgoingLogBody> payloadData, LogOptions logOptions) {
+        if (payloadData == null) {
+            return false;
+        }
+        List<byte[]> lines = new ArrayList<>(payloadData.size());
+        try {
+            for (OutgoingLogBody logBody : payloadData) {
+                lines.add(jsonMappers.logWriter().writeValueAsBytes(logBody));
+            }
+        } catch (IOException e) {
+            log.error("Error while serializing collected data: ", e);
+            return false;
+        }
+        return append(lines);
+    }
+
+    /**
+     * Splits the JSON array into its logs and appends them, e.g. when replaying a spool.
+     */
+    @Override
+    public boolean sendSerialized(byte[] serializedLogs) {
+        List<byte[]> lines = new ArrayList<>();
+        try {
+            for (JsonNode logBody : jsonMappers.treeReader().readTree(serializedLogs)) {
+                lines.add(jsonMappers.treeWriter().writeValueAsBytes(logBody));
+            }
+        } catch (IOException e) {
+            log.error("Error while reading serialized data: ", e);
+            return false;
+        }
+        return append(lines);
+    }
+
+    private boolean append(List<byte[]> lines) {
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            for (byte[] line : lines) {
+                if (activeChannel == null || activeFileBytes > 0 && activeFileBytes + line.length + 1 > maxFileBytes) {
+                    rotate();
+                }
+                write(line);
+                write(NEWLINE);
+                activeFileBytes += line.length + 1;
+            }
+            return true;
+        } catch (IOException e) {
+            log.error("readme-metrics: Error while exporting logs to {}: {}", activePath, e.getMessage());
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        if (bytes.length > writeBuffer.remaining()) {
+            flushBuffer();
+        }
+        if (bytes.length > writeBuffer.capacity()) {
+            writeFully(ByteBuffer.wrap(bytes));
+        } else {
+            writeBuffer.put(bytes);
+        }
+    }
+
+    private void write(byte value) throws IOException {
+        if (!writeBuffer.hasRemaining()) {
+            flushBuffer();
+        }
+        writeBuffer.put(value);
+    }
+
+    /**
+     * Writes out the buffer. If that fails, the bytes not written yet stay in the buffer, in front of the
+     * following ones, so the file is not corrupted and they are written with the next flush.
+     */
+    private void flushBuffer() throws IOException {
+        writeBuffer.flip();
+        try {
+            writeFully(writeBuffer);
+        } finally {
+            writeBuffer.compact();
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            activeChannel.write(buffer);
+        }
+    }
+
+    /**
+     * Writes out the buffer and completes the active file if it is too old.
+     */
+    void flushAndRotate() {
+        lock.lock();
+        try {
+            if (activeChannel == null) {
+                return;
+            }
+            flushBuffer();
+            if (System.currentTimeMillis() - activeFileCreatedMillis >= maxFileAgeMillis) {
+                complete();
+            }
+        } catch (IOException e) {
+            log.error("readme-metrics: Error while exporting logs to {}: {}", activePath, e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rotate() throws IOException {
+        complete();
+        activeFileCreatedMillis = System.currentTimeMillis();
+        activePath = directory.resolve(String.format("%s%013d-%s-%06d%s",
+                FILE_PREFIX, activeFileCreatedMillis, processToken, sequence++, ACTIVE_SUFFIX));
+        activeChannel = FileChannel.open(activePath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        activeChannel.lock();
+        activeFileBytes = 0;
+    }
+
+    /**
+     * Renames the active file, so it is picked up by the uploader, and closes it. The file is renamed
+     * before its lock is released, so no other process can mistake it for a leftover in between.
+     */
+    private void complete() throws IOException {
+        if (activeChannel == null) {
+            return;
+        }
+        try {
+            flushBuffer();
+            if (activeFileBytes > 0) {
+                Files.move(activePath, completedPath(activePath), StandardCopyOption.ATOMIC_MOVE);
+            } else {
+                Files.deleteIfExists(activePath);
+            }
+        } finally {
+            activeChannel.close();
+            activeChannel = null;
+            activePath = null;
+        }
+    }
+
+    /**
+     * Cuts a file left over by a crashed process after its last complete line and completes it.
+     * A file locked by another process is still being written and is skipped.
+     */
+    private static void recover(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (tryLock(channel) == null) {
+                log.debug("readme-metrics: The exported log file {} is in use by another process", path);
+                return;
+            }
+            channel.truncate(endOfLastLine(channel));
+            if (channel.size() == 0) {
+                Files.delete(path);
+                return;
+            }
+            Files.move(path, completedPath(path), StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException e) {
+            // completed by its process in the meantime
+            return;
+        }
+        log.info("readme-metrics: Completed the exported log file {} left over by a previous process", path);
+    }
+
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // locked by another exporter of this JVM
+            return null;
+        }
+    }
+
+    private static long endOfLastLine(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long end = channel.size();
+        while (end > 0) {
+            long start = Math.max(0, end - buffer.capacity());
+            buffer.clear().limit((int) (end - start));
+            channel.read(buffer, start);
+            for (int i = buffer.position() - 1; i >= 0; i--) {
+                if (buffer.get(i) == NEWLINE) {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return 0;
+    }
+
+    private static Path completedPath(Path activePath) {
+        String name = activePath.getFileName().toString();
+        return activePath.resolveSibling(name.substring(0, name.length() - ACTIVE_SUFFIX.length()) + COMPLETED_SUFFIX);
+    }
+
+    /**
+     * Lists the files of the directory with the given suffix, oldest first.
+     */
+    static List<Path> listFiles(Path directory, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(FILE_PREFIX) && name.endsWith(suffix);
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Completes the active file and stops the flush thread; later batches fail.
+     */
+    @Override
+    public void close() throws IOException {
+        flushScheduler.shutdown();
+        lock.lock();
+        try {
+            closed = true;
+            complete();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+}
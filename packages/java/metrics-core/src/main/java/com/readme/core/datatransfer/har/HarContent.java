@@ -14,7 +14,7 @@ import static com.readme.core.datatransfer.har.MemoryOptimisationConstants.DEFAU
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
 @JsonIgnoreProperties(ignoreUnknown = true)
-@Builder
+@Builder(toBuilder = true)
 @Data
 public class HarContent {
 
@@ -18,7 +18,7 @@ import static com.readme.core.datatransfer.har.MemoryOptimisationConstants.DEFAU
 @JsonInclude(JsonInclude.Include.NON_NULL)
 @JsonIgnoreProperties(ignoreUnknown = true)
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class HarEntry {
 
     private String pageRef;
@@ -16,7 +16,7 @@ import static com.readme.core.datatransfer.har.MemoryOptimisationConstants.DEFAU
 @JsonInclude(JsonInclude.Include.NON_NULL)
 @JsonIgnoreProperties(ignoreUnknown = true)
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class HarRequest {
 
     protected static final long DEFAULT_SIZE = -1L;
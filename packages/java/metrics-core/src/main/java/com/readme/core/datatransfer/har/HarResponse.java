@@ -17,7 +17,7 @@ import static com.readme.core.datatransfer.har.MemoryOptimisationConstants.DEFAU
 @JsonInclude(JsonInclude.Include.NON_NULL)
 @JsonIgnoreProperties(ignoreUnknown = true)
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class HarResponse {
 
     protected static final long DEFAULT_SIZE = -1L;
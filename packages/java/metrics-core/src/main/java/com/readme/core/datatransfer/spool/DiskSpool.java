@@ -0,0 +1,333 @@
+package com.readme.core.datatransfer.spool;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only spool keeping serialized batches of logs on disk until they are delivered.
+ * <p>
+ * Batches are appended to segment files named {@code spool-<sequence>.seg}. Every record consists of
+ * the batch length, a CRC32 checksum and the batch itself, so a record torn by a crash is detected
+ * and ignored when the spool is read again. When a segment reaches its maximum size a new one is started.
+ * {@link #replay(Predicate)} hands the batches over oldest first and deletes a segment as soon as all its
+ * batches have been acknowledged; segments left over by a previous process are picked up on startup.
+ * <p>
+ * Delivery is at-least-once: the progress within a segment is only kept in memory, so after a restart
+ * the batches of a partially replayed segment are sent again.
+ * <p>
+ * Appends are not forced to the storage device one by one. A segment is forced when it is sealed, and the
+ * active segment whenever {@link #sync()} is called, which {@link SpoolingDataSender} does once per replay
+ * interval; batches appended since the last sync may be lost if the machine, not only the process, crashes.
+ * <p>
+ * The total size of the segments is capped by {@code maxDiskBytes}; batches that do not fit are rejected.
+ */
+@Slf4j
+public class DiskSpool implements Closeable {
+
+    public static final long DEFAULT_MAX_SEGMENT_BYTES = 8L * 1024 * 1024;
+    public static final long DEFAULT_MAX_DISK_BYTES = 256L * 1024 * 1024;
+
+    private static final String SEGMENT_PREFIX = "spool-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int RECORD_HEADER_BYTES = Integer.BYTES + Long.BYTES;
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final long maxDiskBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<Segment> sealedSegments = new ArrayDeque<>();
+    private final LongAdder rejectedBatches = new LongAdder();
+
+    private Segment activeSegment;
+    private FileChannel activeChannel;
+    private boolean activeSegmentSynced = true;
+    private long nextSegmentId;
+    private volatile long diskBytes;
+
+    /**
+     * Opens the spool, creating the directory if needed and picking up the segments it already contains.
+     *
+     * @param directory       directory holding the segment files
+     * @param maxSegmentBytes size at which a new segment file is started
+     * @param maxDiskBytes    maximum total size of the segment files
+     * @throws IOException if the directory cannot be created or read
+     */
+    public DiskSpool(Path directory, long maxSegmentBytes, long maxDiskBytes) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.maxDiskBytes = maxDiskBytes;
+
+        for (Path path : listSegmentFiles()) {
+            long size = Files.size(path);
+            sealedSegments.addLast(new Segment(path, size));
+            diskBytes += size;
+            nextSegmentId = Math.max(nextSegmentId, segmentId(path) + 1);
+        }
+        if (!sealedSegments.isEmpty()) {
+            log.info("readme-metrics: Found {} undelivered log segments in {}", sealedSegments.size(), directory);
+        }
+    }
+
+    /**
+     * Appends a serialized batch to the active segment.
+     *
+     * @return false if the batch does not fit within the disk cap or could not be written
+     */
+    public boolean append(byte[] batch) {
+        int recordSize = RECORD_HEADER_BYTES + batch.length;
+        lock.lock();
+        try {
+            if (diskBytes + recordSize > maxDiskBytes) {
+                rejectedBatches.increment();
+                log.debug("The spool is full, the batch has been rejected");
+                return false;
+            }
+            if (activeChannel == null || (activeSegment.size > 0 && activeSegment.size + recordSize > maxSegmentBytes)) {
+                rollSegment();
+            }
+
+            CRC32 checksum = new CRC32();
+            checksum.update(batch);
+            ByteBuffer record = ByteBuffer.allocate(recordSize)
+                    .putInt(batch.length)
+                    .putLong(checksum.getValue())
+                    .put(batch);
+            record.flip();
+            while (record.hasRemaining()) {
+                activeChannel.write(record);
+            }
+            activeSegment.size += recordSize;
+            activeSegmentSynced = false;
+            diskBytes += recordSize;
+            return true;
+        } catch (IOException e) {
+            log.error("Error while writing to the spool: {}", e.getMessage());
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands the spooled batches over to {@code sender}, oldest first, until it returns false
+     * or the spool is empty. Fully acknowledged segments are deleted.
+     *
+     * @param sender delivers a batch and returns true if it was acknowledged
+     * @return the number of delivered batches
+     */
+    public int replay(Predicate<byte[]> sender) {
+        int replayed = 0;
+        while (true) {
+            Segment segment;
+            lock.lock();
+            try {
+                if (sealedSegments.isEmpty()) {
+                    sealActiveSegment();
+                }
+                segment = sealedSegments.peekFirst();
+            } catch (IOException e) {
+                log.error("Error while sealing the spool segment: {}", e.getMessage());
+                return replayed;
+            } finally {
+                lock.unlock();
+            }
+            if (segment == null) {
+                return replayed;
+            }
+
+            try (FileChannel channel = FileChannel.open(segment.path, StandardOpenOption.READ)) {
+                channel.position(segment.acknowledgedOffset);
+                byte[] batch;
+                while ((batch = readRecord(channel, segment.path)) != null) {
+                    if (!sender.test(batch)) {
+                        return replayed;
+                    }
+                    segment.acknowledgedOffset = channel.position();
+                    replayed++;
+                }
+            } catch (IOException e) {
+                log.error("Error while reading the spool: {}", e.getMessage());
+                return replayed;
+            }
+            deleteSegment(segment);
+        }
+    }
+
+    /**
+     * Forces the batches appended to the active segment since the last sync to the storage device.
+     */
+    public void sync() {
+        lock.lock();
+        try {
+            if (activeChannel != null && !activeSegmentSynced) {
+                activeChannel.force(false);
+                activeSegmentSynced = true;
+            }
+        } catch (IOException e) {
+            log.error("Error while syncing the spool segment: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        return diskBytes == 0;
+    }
+
+    /**
+     * Returns the total size of the segment files.
+     */
+    public long getDiskBytes() {
+        return diskBytes;
+    }
+
+    /**
+     * Returns the number of batches rejected because the spool was full.
+     */
+    public long getRejectedBatchesCount() {
+        return rejectedBatches.sum();
+    }
+
+    /**
+     * Closes the active segment. Undelivered batches stay on disk for the next start.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            sealActiveSegment();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        sealActiveSegment();
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSegmentId++, SEGMENT_SUFFIX));
+        activeChannel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        activeSegment = new Segment(path, 0);
+    }
+
+    private void sealActiveSegment() throws IOException {
+        if (activeChannel == null) {
+            return;
+        }
+        try {
+            if (!activeSegmentSynced) {
+                activeChannel.force(false);
+            }
+        } finally {
+            activeChannel.close();
+            activeSegmentSynced = true;
+        }
+        activeChannel = null;
+        if (activeSegment.size > 0) {
+            sealedSegments.addLast(activeSegment);
+        } else {
+            Files.deleteIfExists(activeSegment.path);
+        }
+        activeSegment = null;
+    }
+
+    private void deleteSegment(Segment segment) {
+        lock.lock();
+        try {
+            sealedSegments.remove(segment);
+            diskBytes -= segment.size;
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            log.error("Error while deleting the spool segment {}: {}", segment.path, e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads the next record, or returns null at the end of the segment or at a torn or corrupted record.
+     */
+    private static byte[] readRecord(FileChannel channel, Path path) throws IOException {
+        long remaining = channel.size() - channel.position();
+        if (remaining < RECORD_HEADER_BYTES) {
+            return null;
+        }
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+        readFully(channel, header);
+        int length = header.getInt();
+        long expectedChecksum = header.getLong();
+        if (length < 0 || length > remaining - RECORD_HEADER_BYTES) {
+            log.warn("Ignoring the incomplete end of the spool segment {}", path);
+            return null;
+        }
+
+        ByteBuffer batch = ByteBuffer.allocate(length);
+        readFully(channel, batch);
+        CRC32 checksum = new CRC32();
+        checksum.update(batch.array());
+        if (checksum.getValue() != expectedChecksum) {
+            log.warn("Ignoring the corrupted end of the spool segment {}", path);
+            return null;
+        }
+        return batch.array();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Unexpected end of the spool segment");
+            }
+        }
+        buffer.flip();
+    }
+
+    private List<Path> listSegmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    private static long segmentId(Path path) {
+        String name = path.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static final class Segment {
+
+        private final Path path;
+        private long size;
+        private long acknowledgedOffset;
+
+        private Segment(Path path, long size) {
+            this.path = path;
+            this.size = size;
+        }
+    }
+
+}
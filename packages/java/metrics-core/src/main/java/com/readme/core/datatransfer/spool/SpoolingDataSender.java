@@ -0,0 +1,160 @@
+package com.readme.core.datatransfer.spool;
+
+import com.readme.core.dataextraction.LogOptions;
+import com.readme.core.datatransfer.DataSender;
+import com.readme.core.datatransfer.JsonMappers;
+import com.readme.core.datatransfer.OutgoingLogBody;
+import com.readme.core.datatransfer.SendResult;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link DataSender} decorator which writes the batches its delegate failed to send to a {@link DiskSpool}
+ * instead of keeping them in memory, and resends them from a background replay thread once the
+ * metrics endpoint is reachable again. Batches spooled by a previous process are replayed on startup.
+ * <p>
+ * Only failures reported by the delegate are spooled: with {@code LogOptions.isFireAndForget()} the
+ * outcome of a request is not known when it is sent, so such batches are not covered.
+ */
+@Slf4j
+public class SpoolingDataSender implements DataSender, AutoCloseable {
+
+    public static final long DEFAULT_REPLAY_INTERVAL_MILLIS = 5000;
+
+    private final DataSender delegate;
+
+    private final DiskSpool spool;
+
+    private final JsonMappers jsonMappers;
+
+    private final ScheduledExecutorService replayScheduler;
+
+    private final ReentrantLock replayLock = new ReentrantLock();
+
+    public SpoolingDataSender(DataSender delegate, DiskSpool spool) {
+        this(delegate, spool, DEFAULT_REPLAY_INTERVAL_MILLIS);
+    }
+
+    /**
+     * @param delegate             sender doing the actual delivery; it must support {@link DataSender#sendSerialized(byte[])}
+     * @param spool                spool keeping the undelivered batches
+     * @param replayIntervalMillis delay between two attempts to replay the spool
+     */
+    public SpoolingDataSender(DataSender delegate, DiskSpool spool, long replayIntervalMillis) {
+        this(delegate, spool, replayIntervalMillis, JsonMappers.shared());
+    }
+
+    /**
+     * @param delegate             sender doing the actual delivery; it must support {@link DataSender#sendSerialized(byte[])}
+     * @param spool                spool keeping the undelivered batches
+     * @param replayIntervalMillis delay between two attempts to replay the spool
+     * @param jsonMappers          JSON configuration serializing the spooled batches, usually {@link JsonMappers#shared()}
+     */
+    public SpoolingDataSender(DataSender delegate, DiskSpool spool, long replayIntervalMillis,
+                              JsonMappers jsonMappers) {
+        this.delegate = delegate;
+        this.jsonMappers = jsonMappers;
+        this.spool = spool;
+        this.replayScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "readme-metrics-spool-replay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        replayScheduler.scheduleWithFixedDelay(this::replay, 0, replayIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sends the batch with the delegate and spools it if that fails.
+     *
+     * @return true if the batch was either sent or spooled
+     */
+    @Override
+    public boolean send(List<OutgoingLogBody> payloadData, LogOptions logOptions) {
+        if (delegate.send(payloadData, logOptions)) {
+            return true;
+        }
+        return spool(payloadData);
+    }
+
+    /**
+     * Sends the batch asynchronously with the delegate and spools it if that fails.
+     * The result is successful if the batch was either sent or spooled.
+     */
+    @Override
+    public CompletableFuture<SendResult> sendAsync(List<OutgoingLogBody> payloadData, LogOptions logOptions) {
+        return delegate.sendAsync(payloadData, logOptions).thenApply(result -> result.isSuccessful()
+                ? result
+                : result.toBuilder().successful(spool(payloadData)).build());
+    }
+
+    private boolean spool(List<OutgoingLogBody> payloadData) {
+        if (payloadData == null) {
+            return false;
+        }
+        try {
+            return spool.append(jsonMappers.logsWriter().writeValueAsBytes(payloadData));
+        } catch (IOException e) {
+            log.error("Error while spooling outgoing payload: ", e);
+            return false;
+        }
+    }
+
+    @Override
+    public boolean sendSerialized(byte[] serializedLogs) {
+        return delegate.sendSerialized(serializedLogs);
+    }
+
+    @Override
+    public boolean awaitCompletion(long timeout, TimeUnit unit) {
+        return delegate.awaitCompletion(timeout, unit);
+    }
+
+    /**
+     * Forces the batches spooled since the last replay to disk, then resends the spooled batches
+     * until the spool is empty or the delegate fails.
+     * Replays never overlap, so a batch is not resent twice by concurrent calls. They are serialized
+     * with a lock rather than a monitor, which would pin a virtual thread's carrier during the sends.
+     */
+    void replay() {
+        replayLock.lock();
+        try {
+            spool.sync();
+            if (spool.isEmpty()) {
+                return;
+            }
+            int replayed = spool.replay(delegate::sendSerialized);
+            if (replayed > 0) {
+                log.debug("readme-metrics: Resent {} spooled batches", replayed);
+            }
+        } catch (Exception e) {
+            log.error("Error occurred on spool replay: {}", e.getMessage());
+        } finally {
+            replayLock.unlock();
+        }
+    }
+
+    /**
+     * Stops the replay thread and closes the spool; undelivered batches stay on disk.
+     */
+    @Override
+    public void close() throws IOException {
+        replayScheduler.shutdown();
+        try {
+            if (!replayScheduler.awaitTermination(1, TimeUnit.SECONDS)) {
+                replayScheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            replayScheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        spool.close();
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.readme.core.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.readme.core.config.HttpProtocol.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpProtocolTest {
+
+    @Test
+    void withFallback_ShouldAddHttp11_WhenOnlyHttp2IsConfigured() {
+        assertEquals(List.of(HTTP_2, HTTP_1_1), HttpProtocol.withFallback(List.of(HTTP_2)));
+    }
+
+    @Test
+    void withFallback_ShouldKeepProtocols_WhenAlreadyUsable() {
+        assertEquals(List.of(HTTP_2, HTTP_1_1), HttpProtocol.withFallback(List.of(HTTP_2, HTTP_1_1)));
+        assertEquals(List.of(H2_PRIOR_KNOWLEDGE), HttpProtocol.withFallback(List.of(H2_PRIOR_KNOWLEDGE)));
+        assertEquals(List.of(), HttpProtocol.withFallback(List.of()));
+    }
+
+    @Test
+    void withFallback_ShouldReject_PriorKnowledgeCombinedWithOtherProtocols() {
+        assertThrows(IllegalArgumentException.class,
+                () -> HttpProtocol.withFallback(List.of(H2_PRIOR_KNOWLEDGE, HTTP_1_1)));
+    }
+
+}
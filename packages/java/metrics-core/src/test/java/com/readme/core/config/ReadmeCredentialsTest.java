@@ -0,0 +1,25 @@
+package com.readme.core.config;
+
+import com.readme.core.datatransfer.ReadmeApiKeyEncoder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadmeCredentialsTest {
+
+    @Test
+    void of_ShouldDeriveAuthorizationHeader() {
+        ReadmeCredentials credentials = ReadmeCredentials.of("owlApiKey");
+
+        assertEquals("owlApiKey", credentials.getReadmeApiKey());
+        assertEquals(ReadmeApiKeyEncoder.encode("owlApiKey"), credentials.getAuthorizationHeader());
+        assertFalse(credentials.toString().contains("owlApiKey"));
+    }
+
+    @Test
+    void of_ShouldRejectMissingApiKey() {
+        assertThrows(IllegalArgumentException.class, () -> ReadmeCredentials.of(null));
+        assertThrows(IllegalArgumentException.class, () -> ReadmeCredentials.of("  "));
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.readme.core.dataextraction;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BodyCapturePoolTest {
+
+    @Test
+    void capture_ShouldKeepPrefixAndCountAllBytes() {
+        BodyCapture capture = new BodyCapturePool(5, 1).acquire();
+
+        capture.write("abc".getBytes(StandardCharsets.UTF_8), 0, 3);
+        capture.write('d');
+        capture.write("efgh".getBytes(StandardCharsets.UTF_8), 0, 4);
+
+        assertEquals("abcde", capture.toString(StandardCharsets.UTF_8));
+        assertEquals(5, capture.getCapturedBytes());
+        assertEquals(8, capture.getTotalBytes());
+        assertTrue(capture.isTruncated());
+    }
+
+    @Test
+    void release_ShouldReuseBuffer() {
+        BodyCapturePool pool = new BodyCapturePool(16, 1);
+        BodyCapture first = pool.acquire();
+        first.write('a');
+        first.release();
+
+        BodyCapture second = pool.acquire();
+        second.write('b');
+
+        assertEquals("b", second.toString(StandardCharsets.UTF_8));
+        assertEquals(0, first.getTotalBytes());
+        assertEquals("", first.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void capture_ShouldOnlyCount_WhenCaptureIsDisabled() {
+        BodyCapture capture = new BodyCapturePool(0, 1).acquire();
+
+        capture.write("abc".getBytes(StandardCharsets.UTF_8), 0, 3);
+
+        assertEquals("", capture.toString(StandardCharsets.UTF_8));
+        assertEquals(3, capture.getTotalBytes());
+    }
+
+    @Test
+    void stopCapturing_ShouldDropCapturedBytesAndKeepCounting() {
+        BodyCapture capture = new BodyCapturePool(16, 1).acquire();
+        capture.write("abc".getBytes(StandardCharsets.UTF_8), 0, 3);
+
+        capture.stopCapturing();
+        capture.write("def".getBytes(StandardCharsets.UTF_8), 0, 3);
+
+        assertFalse(capture.isCapturing());
+        assertEquals("", capture.toString(StandardCharsets.UTF_8));
+        assertEquals(6, capture.getTotalBytes());
+    }
+
+}
@@ -1,7 +1,9 @@
 package com.readme.core.datatransfer;
 
 
+import com.readme.core.config.ReadmeCredentials;
 import com.readme.core.datatransfer.BaseLogUrlFetcher;
+import okhttp3.OkHttpClient;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.SocketPolicy;
@@ -11,6 +13,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.net.http.HttpClient;
+import java.util.Base64;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -43,6 +47,19 @@ class BaseLogUrlFetcherTest {
         assertEquals(expectedBaseUrl, result);
     }
 
+    @Test
+    void fetchBaseLogUrl_ShouldSendApiKeyEncodedOnce() throws InterruptedException {
+        mockWebServer.enqueue(new MockResponse()
+                .setBody(new JSONObject().put("baseUrl", "https://example.com/base").toString())
+                .setResponseCode(200));
+        String mockApiUrl = mockWebServer.url("/v1").toString();
+
+        BaseLogUrlFetcher.fetchBaseLogUrl(ReadmeCredentials.of("credentialsApiKey"), mockApiUrl);
+
+        String expectedHeader = "Basic " + Base64.getEncoder().encodeToString("credentialsApiKey:".getBytes());
+        assertEquals(expectedHeader, mockWebServer.takeRequest().getHeader("Authorization"));
+    }
+
     @Test
     void fetchBaseLogUrl_ShouldReturnEmptyString_WhenApiResponseIsFailure() {
         mockWebServer.enqueue(new MockResponse()
@@ -63,4 +80,37 @@ class BaseLogUrlFetcherTest {
         assertEquals("", result);
     }
 
-}
\ No newline at end of file
+    @Test
+    void fetch_ShouldUseOwnClientAndCache() throws InterruptedException {
+        mockWebServer.enqueue(new MockResponse()
+                .setBody(new JSONObject().put("baseUrl", "https://example.com/first").toString()));
+        mockWebServer.enqueue(new MockResponse()
+                .setBody(new JSONObject().put("baseUrl", "https://example.com/second").toString()));
+        String mockApiUrl = mockWebServer.url("/v1").toString();
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(chain -> chain.proceed(chain.request().newBuilder().header("X-Client", "own").build()))
+                .build();
+        ReadmeCredentials credentials = ReadmeCredentials.of("instanceApiKey");
+
+        assertEquals("https://example.com/first", new BaseLogUrlFetcher(client).fetch(credentials, mockApiUrl));
+        assertEquals("https://example.com/second", new BaseLogUrlFetcher(client).fetch(credentials, mockApiUrl));
+
+        assertEquals("own", mockWebServer.takeRequest().getHeader("X-Client"));
+    }
+
+    @Test
+    void fetch_ShouldLookUpBaseUrl_WithJdkClient() throws InterruptedException {
+        mockWebServer.enqueue(new MockResponse()
+                .setBody(new JSONObject().put("baseUrl", "https://example.com/jdk").toString()));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(401));
+        String mockApiUrl = mockWebServer.url("/api").toString();
+        BaseLogUrlFetcher fetcher = new BaseLogUrlFetcher(HttpClient.newHttpClient());
+
+        assertEquals("https://example.com/jdk", fetcher.fetch(ReadmeCredentials.of("jdkApiKey"), mockApiUrl));
+        assertEquals("", fetcher.fetch(ReadmeCredentials.of("unknownApiKey"), mockApiUrl));
+
+        String expectedHeader = "Basic " + Base64.getEncoder().encodeToString("jdkApiKey:".getBytes());
+        assertEquals(expectedHeader, mockWebServer.takeRequest().getHeader("Authorization"));
+    }
+
+}
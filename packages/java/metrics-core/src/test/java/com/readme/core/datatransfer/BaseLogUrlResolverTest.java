@@ -0,0 +1,93 @@
+package com.readme.core.datatransfer;
+
+import com.readme.core.config.ReadmeCredentials;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BaseLogUrlResolverTest {
+
+    private MockWebServer mockWebServer;
+    private BaseLogUrlResolver resolver;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (resolver != null) {
+            resolver.close();
+        }
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void start_ShouldResolveBaseLogUrlInBackground() throws Exception {
+        mockWebServer.enqueue(new MockResponse()
+                .setBody(baseUrlResponse("https://example.com/base"))
+                .setBodyDelay(200, TimeUnit.MILLISECONDS));
+        resolver = resolver(60_000, 60_000);
+
+        resolver.start();
+
+        assertNull(resolver.getBaseLogUrl());
+        assertEquals("https://example.com/base", awaitBaseLogUrl("https://example.com/base"));
+    }
+
+    @Test
+    void start_ShouldRetrySoon_WhenLookupFails() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(500));
+        mockWebServer.enqueue(new MockResponse().setBody(baseUrlResponse("https://example.com/base")));
+        resolver = resolver(60_000, 50);
+
+        resolver.start();
+
+        assertEquals("https://example.com/base", awaitBaseLogUrl("https://example.com/base"));
+        assertEquals(2, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void refresh_ShouldKeepPreviousBaseLogUrl_WhenRefreshFails() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setBody(baseUrlResponse("https://example.com/base")));
+        for (int i = 0; i < 3; i++) {
+            mockWebServer.enqueue(new MockResponse().setResponseCode(500));
+        }
+        resolver = resolver(20, 20);
+
+        resolver.start();
+
+        for (int i = 0; i < 4; i++) {
+            assertNotNull(mockWebServer.takeRequest(5, TimeUnit.SECONDS));
+        }
+        assertEquals("https://example.com/base", resolver.getBaseLogUrl());
+    }
+
+    private BaseLogUrlResolver resolver(long refreshIntervalMillis, long retryIntervalMillis) {
+        return new BaseLogUrlResolver(ReadmeCredentials.of("resolverApiKey"),
+                mockWebServer.url("/").toString(), refreshIntervalMillis, retryIntervalMillis);
+    }
+
+    private String awaitBaseLogUrl(String expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!expected.equals(resolver.getBaseLogUrl()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return resolver.getBaseLogUrl();
+    }
+
+    private static String baseUrlResponse(String baseUrl) {
+        return new JSONObject().put("baseUrl", baseUrl).toString();
+    }
+
+}
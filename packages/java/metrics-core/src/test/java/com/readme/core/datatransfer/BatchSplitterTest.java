@@ -0,0 +1,140 @@
+package com.readme.core.datatransfer;
+
+import com.readme.core.datatransfer.har.Group;
+import com.readme.core.datatransfer.har.Har;
+import com.readme.core.datatransfer.har.HarContent;
+import com.readme.core.datatransfer.har.HarEntry;
+import com.readme.core.datatransfer.har.HarLog;
+import com.readme.core.datatransfer.har.HarRequest;
+import com.readme.core.datatransfer.har.HarResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchSplitterTest {
+
+    private final List<List<OutgoingLogBody>> sentBatches = new CopyOnWriteArrayList<>();
+
+    @Test
+    void send_ShouldSplitBatch_WhenItExceedsMaxRequestBytes() {
+        BatchSplitter batchSplitter = new BatchSplitter(250, acceptingBatchesUpTo(Long.MAX_VALUE));
+
+        boolean sent = batchSplitter.send(logs(5, 100)).join().isSuccessful();
+
+        assertTrue(sent);
+        assertEquals(List.of(2, 2, 1), sentBatches.stream().map(List::size).collect(Collectors.toList()));
+    }
+
+    @Test
+    void bisect_ShouldIsolateLogs_UntilEndpointAcceptsThem() {
+        BatchSplitter batchSplitter = new BatchSplitter(0, acceptingBatchesUpTo(200));
+
+        boolean sent = batchSplitter.send(logs(4, 100)).join().isSuccessful();
+
+        assertTrue(sent);
+        long acceptedLogs = sentBatches.stream()
+                .filter(batch -> batchSize(batch) <= 200)
+                .mapToLong(List::size)
+                .sum();
+        assertEquals(4, acceptedLogs);
+        assertEquals(0, batchSplitter.getDroppedLogsCount());
+    }
+
+    @Test
+    void bisect_ShouldTruncatePoisonLog_WhenItIsTooLarge() {
+        BatchSplitter batchSplitter = new BatchSplitter(0, acceptingBatchesUpTo(10_000));
+        List<OutgoingLogBody> batch = new ArrayList<>(logs(2, 100));
+        batch.add(logWithResponseBody("x".repeat(50_000)));
+
+        boolean sent = batchSplitter.send(batch).join().isSuccessful();
+
+        assertTrue(sent);
+        OutgoingLogBody truncated = sentBatches.get(sentBatches.size() - 1).get(0);
+        HarContent content = truncated.getRequest().getLog().getEntries().get(0).getResponse().getContent();
+        assertEquals(BatchSplitter.TRUNCATED_BODY_LENGTH, content.getText().length());
+        assertEquals(BatchSplitter.TRUNCATED_BODY_COMMENT, content.getComment());
+        assertEquals(0, batchSplitter.getDroppedLogsCount());
+    }
+
+    @Test
+    void bisect_ShouldDropPoisonLog_WhenItCannotBeTruncated() {
+        BatchSplitter batchSplitter = new BatchSplitter(0, acceptingBatchesUpTo(150));
+
+        boolean sent = batchSplitter.send(List.of(log(100), log(1000))).join().isSuccessful();
+
+        assertTrue(sent);
+        assertEquals(1, batchSplitter.getDroppedLogsCount());
+    }
+
+    @Test
+    void truncateBodies_ShouldNotModifyOriginalLog() {
+        String body = "x".repeat(5000);
+        OutgoingLogBody original = logWithResponseBody(body);
+
+        OutgoingLogBody truncated = BatchSplitter.truncateBodies(original);
+
+        assertNotNull(truncated);
+        assertTrue(truncated.getEstimatedSize() < original.getEstimatedSize());
+        assertEquals(body, original.getRequest().getLog().getEntries().get(0).getResponse().getContent().getText());
+        assertNull(BatchSplitter.truncateBodies(truncated));
+    }
+
+    /**
+     * Records the batches and rejects those larger than the given size with 413.
+     */
+    private Function<List<OutgoingLogBody>, CompletableFuture<SendResult>> acceptingBatchesUpTo(long maxSize) {
+        return batch -> {
+            sentBatches.add(new ArrayList<>(batch));
+            boolean accepted = batchSize(batch) <= maxSize;
+            return CompletableFuture.completedFuture(SendResult.builder()
+                    .successful(accepted)
+                    .statusCode(accepted ? 200 : 413)
+                    .build());
+        };
+    }
+
+    private static long batchSize(List<OutgoingLogBody> batch) {
+        return batch.stream().mapToLong(OutgoingLogBody::getEstimatedSize).sum();
+    }
+
+    private static List<OutgoingLogBody> logs(int count, long estimatedSize) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> log(estimatedSize))
+                .collect(Collectors.toList());
+    }
+
+    private static OutgoingLogBody log(long estimatedSize) {
+        return OutgoingLogBody.builder()
+                .id(UUID.randomUUID())
+                .estimatedSize(estimatedSize)
+                .build();
+    }
+
+    private static OutgoingLogBody logWithResponseBody(String body) {
+        HarEntry entry = HarEntry.builder()
+                .request(HarRequest.builder().url("https://owl.example/owls").build())
+                .response(HarResponse.builder()
+                        .status(200)
+                        .content(HarContent.builder().mimeType("application/json").text(body).build())
+                        .build())
+                .build();
+        Group group = Group.builder().build();
+        return OutgoingLogBody.builder()
+                .id(UUID.randomUUID())
+                .group(group)
+                .request(new Har(HarLog.builder().entries(Collections.singletonList(entry)).build()))
+                .estimatedSize(OutgoingLogBodyConstructor.estimateSize(entry, group))
+                .build();
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.readme.core.datatransfer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    @Test
+    void allowRequest_ShouldRejectRequests_AfterConsecutiveFailures() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(2, 1000, nanoTime::get);
+
+        circuitBreaker.recordFailure();
+        assertTrue(circuitBreaker.allowRequest());
+        circuitBreaker.recordFailure();
+
+        assertTrue(circuitBreaker.isOpen());
+        assertFalse(circuitBreaker.allowRequest());
+    }
+
+    @Test
+    void allowRequest_ShouldLetSingleProbeThrough_WhenHalfOpen() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, 1000, nanoTime::get);
+        circuitBreaker.recordFailure();
+
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+
+        assertTrue(circuitBreaker.allowRequest());
+        assertFalse(circuitBreaker.allowRequest());
+        circuitBreaker.recordSuccess();
+        assertFalse(circuitBreaker.isOpen());
+        assertTrue(circuitBreaker.allowRequest());
+    }
+
+    @Test
+    void recordFailure_ShouldReopen_WhenProbeFails() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(3, 1000, nanoTime::get);
+        circuitBreaker.openFor(1, TimeUnit.SECONDS);
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertTrue(circuitBreaker.allowRequest());
+
+        circuitBreaker.recordFailure();
+
+        assertFalse(circuitBreaker.allowRequest());
+    }
+
+    @Test
+    void recordNeutral_ShouldReleaseProbe_WithoutClosing() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, 1000, nanoTime::get);
+        circuitBreaker.recordFailure();
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertTrue(circuitBreaker.allowRequest());
+
+        circuitBreaker.recordNeutral();
+
+        assertTrue(circuitBreaker.isOpen());
+        assertTrue(circuitBreaker.allowRequest());
+    }
+
+    @Test
+    void recordFailure_ShouldNeverOpen_WhenDisabled() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(0, 1000, nanoTime::get);
+
+        for (int i = 0; i < 10; i++) {
+            circuitBreaker.recordFailure();
+        }
+
+        assertTrue(circuitBreaker.allowRequest());
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.readme.core.datatransfer;
+
+import com.readme.core.config.ContentEncoding;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedRequestBodyTest {
+
+    @Test
+    void writeTo_ShouldGzipDelegateBody() throws IOException {
+        String json = "[" + "{\"name\":\"content-type\",\"value\":\"application/json\"},".repeat(200) + "{}]";
+        RequestBody delegate = RequestBody.create(json, MediaType.get("application/json"));
+        CompressedRequestBody compressedBody = new CompressedRequestBody(delegate, ContentEncoding.GZIP);
+        Buffer sink = new Buffer();
+
+        compressedBody.writeTo(sink);
+
+        assertTrue(sink.size() < json.length() / 10);
+        try (GZIPInputStream inflated = new GZIPInputStream(sink.inputStream())) {
+            assertEquals(json, new String(inflated.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertEquals(delegate.contentType(), compressedBody.contentType());
+    }
+
+    @Test
+    void resolve_ShouldFallBackToGzip_WhenZstdCodecIsMissing() {
+        assertEquals(ContentEncoding.GZIP, CompressedRequestBody.resolve(ContentEncoding.ZSTD));
+        assertEquals(ContentEncoding.NONE, CompressedRequestBody.resolve(null));
+    }
+
+}
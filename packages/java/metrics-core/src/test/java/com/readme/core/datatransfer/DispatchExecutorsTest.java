@@ -0,0 +1,102 @@
+package com.readme.core.datatransfer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DispatchExecutorsTest {
+
+    @Test
+    void newBoundedExecutor_ShouldRunTasksOnNamedDaemonThreads() throws InterruptedException {
+        ExecutorService executor = DispatchExecutors.newBoundedExecutor(1, 1);
+        AtomicReference<Thread> worker = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        executor.execute(() -> {
+            worker.set(Thread.currentThread());
+            done.countDown();
+        });
+
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        assertTrue(worker.get().getName().startsWith("readme-metrics-dispatcher-"));
+        assertTrue(worker.get().isDaemon());
+        executor.shutdown();
+    }
+
+    @Test
+    void newBoundedExecutor_ShouldRejectTask_WhenQueueIsFull() throws InterruptedException {
+        ExecutorService executor = DispatchExecutors.newBoundedExecutor(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> awaitQuietly(release));
+        executor.execute(() -> awaitQuietly(release));
+
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }));
+
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void bounded_ShouldRejectTask_WhenTooManyTasksAreRunningOrWaiting() throws InterruptedException {
+        ExecutorService executor = DispatchExecutors.bounded(Executors.newCachedThreadPool(), 2);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> awaitQuietly(release));
+        executor.execute(() -> awaitQuietly(release));
+
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }));
+
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void bounded_ShouldAcceptTasks_AfterRunningTasksCompleted() throws InterruptedException {
+        ExecutorService executor = DispatchExecutors.bounded(Executors.newCachedThreadPool(), 1);
+        CountDownLatch first = new CountDownLatch(1);
+        CountDownLatch second = new CountDownLatch(1);
+
+        executor.execute(first::countDown);
+        assertTrue(first.await(1, TimeUnit.SECONDS));
+        long deadline = System.currentTimeMillis() + 1000;
+        while (true) {
+            try {
+                executor.execute(second::countDown);
+                break;
+            } catch (RejectedExecutionException e) {
+                // the first task's permit is released right after it counted down
+                assertTrue(System.currentTimeMillis() < deadline);
+                Thread.sleep(1);
+            }
+        }
+
+        assertTrue(second.await(1, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    void newDispatchExecutor_ShouldMatchVirtualThreadSupport_WhenVirtualThreadsEnabled() {
+        ExecutorService executor = DispatchExecutors.newDispatchExecutor(true, 1, 1);
+
+        assertEquals(!DispatchExecutors.isVirtualThreadSupported(), executor instanceof ThreadPoolExecutor);
+        executor.shutdown();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.readme.core.datatransfer;
+
+import com.readme.core.config.HttpClientOptions;
+import com.readme.core.config.HttpProtocol;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class HttpClientsTest {
+
+    private MockWebServer mockWebServer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void newClient_ShouldApplyOptions() {
+        HttpClientOptions options = HttpClientOptions.builder()
+                .connectTimeoutMillis(1000)
+                .readTimeoutMillis(2000)
+                .writeTimeoutMillis(3000)
+                .callTimeoutMillis(4000)
+                .protocols(List.of(HttpProtocol.HTTP_1_1))
+                .build();
+
+        OkHttpClient client = HttpClients.newClient(options);
+
+        assertEquals(1000, client.connectTimeoutMillis());
+        assertEquals(2000, client.readTimeoutMillis());
+        assertEquals(3000, client.writeTimeoutMillis());
+        assertEquals(4000, client.callTimeoutMillis());
+        assertEquals(List.of(Protocol.HTTP_1_1), client.protocols());
+    }
+
+    @Test
+    void warmUp_ShouldOpenPooledConnection() throws InterruptedException {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(405));
+        OkHttpClient client = HttpClients.newClient(HttpClientOptions.builder().build());
+
+        HttpClients.warmUp(client, mockWebServer.url("/v1/request").toString());
+
+        RecordedRequest request = mockWebServer.takeRequest(5, TimeUnit.SECONDS);
+        assertNotNull(request);
+        assertEquals("HEAD", request.getMethod());
+    }
+
+}
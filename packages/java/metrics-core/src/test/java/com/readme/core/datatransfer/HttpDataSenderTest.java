@@ -1,6 +1,9 @@
 package com.readme.core.datatransfer;
 
+import com.readme.core.config.ContentEncoding;
 import com.readme.core.config.CoreConfig;
+import com.readme.core.config.ReadmeCredentials;
+import com.readme.core.config.RetryPolicy;
 import com.readme.core.dataextraction.LogOptions;
 import com.readme.core.datatransfer.HttpDataSender;
 import com.readme.core.datatransfer.OutgoingLogBody;
@@ -8,6 +11,8 @@ import com.readme.core.datatransfer.har.Group;
 import com.readme.core.datatransfer.har.Har;
 import com.readme.core.datatransfer.har.HarLog;
 import okhttp3.*;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,8 +23,13 @@ import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 public class HttpDataSenderTest {
@@ -33,6 +43,12 @@ public class HttpDataSenderTest {
         mockClient = mock(OkHttpClient.class);
         mockCoreConfig = mock(CoreConfig.class);
         when(mockCoreConfig.getReadmeAPIKey()).thenReturn("testApiKey");
+        when(mockCoreConfig.getCredentials()).thenReturn(ReadmeCredentials.of("testApiKey"));
+        when(mockCoreConfig.getRetryPolicy()).thenReturn(RetryPolicy.builder()
+                .baseDelayMillis(1)
+                .maxDelayMillis(50)
+                .circuitBreakerFailureThreshold(2)
+                .build());
         httpDataSender = new HttpDataSender(mockClient, mockCoreConfig);
     }
 
@@ -89,6 +105,232 @@ public class HttpDataSenderTest {
         assertEquals(expectedAuthHeader, authHeader);
     }
 
+    @Test
+    public void awaitCompletion_ShouldWaitForFireAndForgetRequests() throws IOException {
+        Call mockCall = mock(Call.class);
+        when(mockClient.newCall(any(Request.class))).thenReturn(mockCall);
+        ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
+        List<OutgoingLogBody> payload = Collections.singletonList(createTestOutgoingLogBody());
+
+        httpDataSender.send(payload, LogOptions.builder().fireAndForget(true).build());
+
+        verify(mockCall).enqueue(callbackCaptor.capture());
+        assertFalse(httpDataSender.awaitCompletion(20, TimeUnit.MILLISECONDS));
+
+        callbackCaptor.getValue().onResponse(mockCall, mockResponse());
+        assertTrue(httpDataSender.awaitCompletion(20, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void sendAsync_ShouldCompleteWithResult_WithoutBlockingCaller() throws IOException {
+        Call mockCall = mock(Call.class);
+        when(mockClient.newCall(any(Request.class))).thenReturn(mockCall);
+        ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
+        List<OutgoingLogBody> payload = Collections.singletonList(createTestOutgoingLogBody().toBuilder()
+                .estimatedSize(512)
+                .build());
+
+        CompletableFuture<SendResult> result = httpDataSender.sendAsync(payload, LogOptions.builder().build());
+
+        verify(mockCall).enqueue(callbackCaptor.capture());
+        assertFalse(result.isDone());
+
+        callbackCaptor.getValue().onResponse(mockCall, mockResponse());
+        SendResult sendResult = result.join();
+        assertTrue(sendResult.isSuccessful());
+        assertEquals(200, sendResult.getStatusCode());
+        assertEquals(512, sendResult.getBytes());
+        assertTrue(httpDataSender.awaitCompletion(20, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void send_ShouldRetry_WhenEndpointIsUnavailable() throws IOException {
+        Call mockCall = mock(Call.class);
+        when(mockCall.execute()).thenReturn(mockResponse(503, null), mockResponse(200, null));
+        when(mockClient.newCall(any(Request.class))).thenReturn(mockCall);
+        List<OutgoingLogBody> payload = Collections.singletonList(createTestOutgoingLogBody());
+
+        boolean result = httpDataSender.send(payload, LogOptions.builder().build());
+
+        assertTrue(result);
+        verify(mockCall, times(2)).execute();
+    }
+
+    @Test
+    public void send_ShouldStopRetrying_WhenInterruptedDuringBackoff() throws IOException {
+        Call mockCall = mock(Call.class);
+        when(mockCall.execute()).thenAnswer(invocation -> {
+            Thread.currentThread().interrupt();
+            return mockResponse(503, "1");
+        });
+        when(mockClient.newCall(any(Request.class))).thenReturn(mockCall);
+        List<OutgoingLogBody> payload = Collections.singletonList(createTestOutgoingLogBody());
+
+        boolean result = httpDataSender.send(payload, LogOptions.builder().build());
+
+        assertFalse(result);
+        assertTrue(Thread.interrupted());
+        verify(mockCall, times(1)).execute();
+    }
+
+    @Test
+    public void send_ShouldNotRetry_WhenPayloadIsRejected() throws IOException {
+        Call mockCall = mock(Call.class);
+        when(mockCall.execute()).thenReturn(mockResponse(400, null));
+        when(mockClient.newCall(any(Request.class))).thenReturn(mockCall);
+        List<OutgoingLogBody> payload = Collections.singletonList(createTestOutgoingLogBody());
+
+        boolean result = httpDataSender.send(payload, LogOptions.builder().build());
+
+        assertFalse(result);
+        verify(mockCall, times(1)).execute();
+    }
+
+    @Test
+    public void send_ShouldOpenCircuit_WhenRetryAfterExceedsMaxDelay() throws IOException {
+        Call mockCall = mock(Call.class);
+        when(mockCall.execute()).thenReturn(mockResponse(429, "120"));
+        when(mockClient.newCall(any(Request.class))).thenReturn(mockCall);
+        List<OutgoingLogBody> payload = Collections.singletonList(createTestOutgoingLogBody());
+
+        assertFalse(httpDataSender.send(payload, LogOptions.builder().build()));
+        assertFalse(httpDataSender.send(payload, LogOptions.builder().build()));
+
+        verify(mockCall, times(1)).execute();
+    }
+
+    @Test
+    public void send_ShouldShortCircuit_AfterConsecutiveFailures() throws IOException {
+        Call mockCall = mock(Call.class);
+        doThrow(new IOException("Test exception")).when(mockCall).execute();
+        when(mockClient.newCall(any(Request.class))).thenReturn(mockCall);
+        List<OutgoingLogBody> payload = Collections.singletonList(createTestOutgoingLogBody());
+
+        httpDataSender.send(payload, LogOptions.builder().build());
+        httpDataSender.send(payload, LogOptions.builder().build());
+        clearInvocations(mockCall);
+        boolean result = httpDataSender.send(payload, LogOptions.builder().build());
+
+        assertFalse(result);
+        verifyNoInteractions(mockCall);
+    }
+
+    @Test
+    public void send_ShouldCloseCircuit_WhenProbeIsRejectedAsTooLarge() throws Exception {
+        when(mockCoreConfig.getRetryPolicy()).thenReturn(RetryPolicy.builder()
+                .maxRetries(0)
+                .circuitBreakerFailureThreshold(1)
+                .circuitBreakerOpenMillis(10)
+                .build());
+        HttpDataSender sender = new HttpDataSender(mockClient, mockCoreConfig);
+        Call mockCall = mock(Call.class);
+        when(mockCall.execute())
+                .thenThrow(new IOException("Test exception"))
+                .thenReturn(mockResponse(413, null), mockResponse());
+        when(mockClient.newCall(any(Request.class))).thenReturn(mockCall);
+        byte[] serializedLogs = "[]".getBytes();
+
+        assertFalse(sender.sendSerialized(serializedLogs));
+        assertFalse(sender.sendSerialized(serializedLogs));
+        TimeUnit.MILLISECONDS.sleep(20);
+        assertTrue(sender.sendSerialized(serializedLogs));
+        assertTrue(sender.sendSerialized(serializedLogs));
+
+        verify(mockCall, times(3)).execute();
+    }
+
+    @Test
+    public void send_ShouldCompressLargeBatches_WhenCompressionIsEnabled() throws IOException {
+        when(mockCoreConfig.getContentEncoding()).thenReturn(ContentEncoding.GZIP);
+        when(mockCoreConfig.getCompressionMinBytes()).thenReturn(1000L);
+        HttpDataSender compressingSender = new HttpDataSender(mockClient, mockCoreConfig);
+        Call mockCall = mock(Call.class);
+        when(mockCall.execute()).thenReturn(mockResponse());
+        when(mockClient.newCall(any(Request.class))).thenReturn(mockCall);
+        ArgumentCaptor<Request> requestCaptor = ArgumentCaptor.forClass(Request.class);
+
+        compressingSender.send(Collections.singletonList(OutgoingLogBody.builder().estimatedSize(10).build()),
+                LogOptions.builder().build());
+        compressingSender.send(Collections.singletonList(OutgoingLogBody.builder().estimatedSize(5000).build()),
+                LogOptions.builder().build());
+
+        verify(mockClient, times(2)).newCall(requestCaptor.capture());
+        assertNull(requestCaptor.getAllValues().get(0).header("Content-Encoding"));
+        assertEquals("gzip", requestCaptor.getAllValues().get(1).header("Content-Encoding"));
+        assertTrue(requestCaptor.getAllValues().get(1).body() instanceof CompressedRequestBody);
+    }
+
+    @Test
+    public void send_ShouldRejectFireAndForgetBatch_WhenTooManyAreInFlight() throws IOException {
+        when(mockCoreConfig.getMaxInFlightBatches()).thenReturn(1);
+        HttpDataSender limitedSender = new HttpDataSender(mockClient, mockCoreConfig);
+        Call mockCall = mock(Call.class);
+        when(mockClient.newCall(any(Request.class))).thenReturn(mockCall);
+        ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
+        List<OutgoingLogBody> payload = Collections.singletonList(createTestOutgoingLogBody());
+        LogOptions fireAndForget = LogOptions.builder().fireAndForget(true).build();
+
+        assertTrue(limitedSender.send(payload, fireAndForget));
+        assertFalse(limitedSender.send(payload, fireAndForget));
+        assertEquals(1, limitedSender.getRejectedBatchesCount());
+
+        verify(mockCall).enqueue(callbackCaptor.capture());
+        callbackCaptor.getValue().onResponse(mockCall, mockResponse());
+        assertTrue(limitedSender.send(payload, fireAndForget));
+    }
+
+    @Test
+    public void send_ShouldRejectFireAndForgetBatch_WhenTooManyBytesAreInFlight() {
+        when(mockCoreConfig.getMaxInFlightBytes()).thenReturn(1000L);
+        HttpDataSender limitedSender = new HttpDataSender(mockClient, mockCoreConfig);
+        when(mockClient.newCall(any(Request.class))).thenReturn(mock(Call.class));
+        LogOptions fireAndForget = LogOptions.builder().fireAndForget(true).build();
+
+        assertTrue(limitedSender.send(Collections.singletonList(OutgoingLogBody.builder().estimatedSize(1500).build()), fireAndForget));
+        assertFalse(limitedSender.send(Collections.singletonList(OutgoingLogBody.builder().estimatedSize(10).build()), fireAndForget));
+
+        assertEquals(1, limitedSender.getRejectedBatchesCount());
+    }
+
+    @Test
+    public void send_ShouldPostToConfiguredMetricsUrl() throws IOException {
+        when(mockCoreConfig.getMetricsUrl()).thenReturn("http://localhost:8089/v1/request");
+        HttpDataSender localSender = new HttpDataSender(mockClient, mockCoreConfig);
+        Call mockCall = mock(Call.class);
+        when(mockCall.execute()).thenReturn(mockResponse());
+        when(mockClient.newCall(any(Request.class))).thenReturn(mockCall);
+        ArgumentCaptor<Request> requestCaptor = ArgumentCaptor.forClass(Request.class);
+
+        localSender.send(Collections.singletonList(createTestOutgoingLogBody()), LogOptions.builder().build());
+
+        verify(mockClient).newCall(requestCaptor.capture());
+        assertEquals("http://localhost:8089/v1/request", requestCaptor.getValue().url().toString());
+    }
+
+    @Test
+    public void send_ShouldSplitBatch_WhenEndpointRejectsItAsTooLarge() throws IOException {
+        try (MockWebServer mockWebServer = new MockWebServer()) {
+            mockWebServer.enqueue(new MockResponse().setResponseCode(413));
+            mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+            mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+            when(mockCoreConfig.getMetricsUrl()).thenReturn(mockWebServer.url("/v1/request").toString());
+            HttpDataSender sender = new HttpDataSender(new OkHttpClient(), mockCoreConfig);
+
+            boolean result = sender.send(List.of(createTestOutgoingLogBody(), createTestOutgoingLogBody()),
+                    LogOptions.builder().build());
+
+            assertTrue(result);
+            assertEquals(3, mockWebServer.getRequestCount());
+        }
+    }
+
+    @Test
+    public void retryAfterMillis_ShouldParseSecondsAndHttpDate() {
+        assertEquals(3000, HttpDataSender.retryAfterMillis(mockResponse(503, "3")));
+        assertEquals(-1, HttpDataSender.retryAfterMillis(mockResponse(500, "3")));
+        assertEquals(0, HttpDataSender.retryAfterMillis(mockResponse(429, "Wed, 21 Oct 2015 07:28:00 GMT")));
+    }
+
     private OutgoingLogBody createTestOutgoingLogBody() {
         return OutgoingLogBody.builder()
                 .id(UUID.randomUUID())
@@ -100,6 +342,19 @@ public class HttpDataSenderTest {
                 .build();
     }
 
+    private static Response mockResponse(int code, String retryAfter) {
+        Response.Builder builder = new Response.Builder()
+                .request(new Request.Builder().url("https://metrics.readme.io/v1/request").build())
+                .code(code)
+                .protocol(Protocol.HTTP_2)
+                .message("status")
+                .body(ResponseBody.create("", MediaType.get("application/json")));
+        if (retryAfter != null) {
+            builder.header("Retry-After", retryAfter);
+        }
+        return builder.build();
+    }
+
     @NotNull
     private static Response mockResponse() {
         return new Response.Builder()
@@ -0,0 +1,151 @@
+package com.readme.core.datatransfer;
+
+import com.readme.core.config.ContentEncoding;
+import com.readme.core.config.CoreConfig;
+import com.readme.core.config.HttpClientOptions;
+import com.readme.core.config.HttpProtocol;
+import com.readme.core.config.RetryPolicy;
+import com.readme.core.dataextraction.LogOptions;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JdkHttpDataSenderTest {
+
+    private MockWebServer mockWebServer;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+        client = JdkHttpDataSender.newHttpClient(HttpClientOptions.builder().build(), null);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void send_ShouldPostLogsToConfiguredUrl() throws InterruptedException {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(202));
+        JdkHttpDataSender sender = new JdkHttpDataSender(client, coreConfig().build());
+        UUID id = UUID.randomUUID();
+
+        boolean result = sender.send(Collections.singletonList(OutgoingLogBody.builder().id(id).build()),
+                LogOptions.builder().build());
+
+        assertTrue(result);
+        RecordedRequest request = mockWebServer.takeRequest(1, TimeUnit.SECONDS);
+        assertEquals("POST", request.getMethod());
+        assertEquals("/v1/request", request.getPath());
+        assertEquals(ReadmeApiKeyEncoder.encode("testApiKey"), request.getHeader("Authorization"));
+        assertTrue(request.getBody().readUtf8().contains(id.toString()));
+    }
+
+    @Test
+    void send_ShouldRetry_WhenEndpointIsUnavailable() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(503));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+        JdkHttpDataSender sender = new JdkHttpDataSender(client, coreConfig().build());
+
+        assertTrue(sender.send(payload(), LogOptions.builder().build()));
+        assertEquals(2, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void send_ShouldNotRetry_WhenPayloadIsRejected() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(400));
+        JdkHttpDataSender sender = new JdkHttpDataSender(client, coreConfig().build());
+
+        assertFalse(sender.send(payload(), LogOptions.builder().build()));
+        assertEquals(1, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void sendSerialized_ShouldCloseCircuit_WhenProbeIsRejectedAsTooLarge() throws InterruptedException {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(400));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(413));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+        JdkHttpDataSender sender = new JdkHttpDataSender(client, coreConfig()
+                .retryPolicy(RetryPolicy.builder()
+                        .circuitBreakerFailureThreshold(1)
+                        .circuitBreakerOpenMillis(10)
+                        .build())
+                .build());
+        byte[] serializedLogs = "[]".getBytes();
+
+        assertFalse(sender.sendSerialized(serializedLogs));
+        assertFalse(sender.sendSerialized(serializedLogs));
+        TimeUnit.MILLISECONDS.sleep(20);
+        assertTrue(sender.sendSerialized(serializedLogs));
+        assertTrue(sender.sendSerialized(serializedLogs));
+
+        assertEquals(3, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void send_ShouldCompressLargeBatches_WhenCompressionIsEnabled() throws InterruptedException {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+        JdkHttpDataSender sender = new JdkHttpDataSender(client, coreConfig()
+                .contentEncoding(ContentEncoding.GZIP)
+                .compressionMinBytes(1000)
+                .build());
+
+        sender.send(Collections.singletonList(OutgoingLogBody.builder().estimatedSize(5000).build()),
+                LogOptions.builder().build());
+
+        assertEquals("gzip", mockWebServer.takeRequest(1, TimeUnit.SECONDS).getHeader("Content-Encoding"));
+    }
+
+    @Test
+    void awaitCompletion_ShouldWaitForFireAndForgetRequests() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setHeadersDelay(300, TimeUnit.MILLISECONDS));
+        JdkHttpDataSender sender = new JdkHttpDataSender(client, coreConfig().build());
+
+        assertTrue(sender.send(payload(), LogOptions.builder().fireAndForget(true).build()));
+
+        assertFalse(sender.awaitCompletion(20, TimeUnit.MILLISECONDS));
+        assertTrue(sender.awaitCompletion(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void newHttpClient_ShouldUseHttp1_WhenItIsTheFirstConfiguredProtocol() {
+        HttpClient http1 = JdkHttpDataSender.newHttpClient(HttpClientOptions.builder()
+                .protocols(List.of(HttpProtocol.HTTP_1_1, HttpProtocol.HTTP_2))
+                .build(), null);
+
+        assertEquals(HttpClient.Version.HTTP_1_1, http1.version());
+        assertEquals(HttpClient.Version.HTTP_2, client.version());
+    }
+
+    private CoreConfig.CoreConfigBuilder coreConfig() {
+        return CoreConfig.builder()
+                .readmeAPIKey("testApiKey")
+                .metricsUrl(mockWebServer.url("/v1/request").toString())
+                .retryPolicy(RetryPolicy.builder()
+                        .baseDelayMillis(1)
+                        .maxDelayMillis(50)
+                        .build());
+    }
+
+    private static List<OutgoingLogBody> payload() {
+        return Collections.singletonList(OutgoingLogBody.builder().id(UUID.randomUUID()).build());
+    }
+
+}
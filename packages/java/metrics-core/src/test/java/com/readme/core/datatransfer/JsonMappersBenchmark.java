@@ -0,0 +1,114 @@
+package com.readme.core.datatransfer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.readme.core.datatransfer.har.Group;
+import com.readme.core.datatransfer.har.Har;
+import com.readme.core.datatransfer.har.HarContent;
+import com.readme.core.datatransfer.har.HarEntry;
+import com.readme.core.datatransfer.har.HarHeader;
+import com.readme.core.datatransfer.har.HarLog;
+import com.readme.core.datatransfer.har.HarRequest;
+import com.readme.core.datatransfer.har.HarResponse;
+import com.readme.core.datatransfer.har.HttpMethod;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Opt-in harness comparing the serialization of a batch with a new {@link ObjectMapper} per call, as the SDK
+ * used to do, and with the writer of {@link JsonMappers#shared()}. It only reports the timings, it does not
+ * assert on them: wall-clock numbers depend on the machine and are no pass/fail criterion.
+ * <p>
+ * Run with {@code mvn test -Dtest=JsonMappersBenchmark -Dbenchmark=true}; it is skipped otherwise.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class JsonMappersBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 5_000;
+    private static final int MEASURED_ITERATIONS = 20_000;
+    private static final int BATCH_SIZE = 10;
+
+    @Test
+    void serializeBatch() throws IOException {
+        List<OutgoingLogBody> batch = createBatch();
+        JsonMappers jsonMappers = JsonMappers.shared();
+
+        measure(() -> new ObjectMapper().writeValueAsBytes(batch), WARMUP_ITERATIONS);
+        measure(() -> jsonMappers.logsWriter().writeValueAsBytes(batch), WARMUP_ITERATIONS);
+        report("new ObjectMapper per call", measure(() -> new ObjectMapper().writeValueAsBytes(batch), MEASURED_ITERATIONS));
+        report("shared logs writer", measure(() -> jsonMappers.logsWriter().writeValueAsBytes(batch), MEASURED_ITERATIONS));
+    }
+
+    private static long[] measure(Serialization serialization, int iterations) throws IOException {
+        long bytes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            bytes += serialization.serialize().length;
+        }
+        return new long[]{System.nanoTime() - start, bytes};
+    }
+
+    /**
+     * Prints the time per batch; the byte count keeps the serialization from being optimized away.
+     */
+    private static void report(String name, long[] measurement) {
+        System.out.printf("readme-metrics benchmark: %-26s %,8d ns/batch (%,d bytes)%n",
+                name, measurement[0] / MEASURED_ITERATIONS, measurement[1]);
+    }
+
+    private static List<OutgoingLogBody> createBatch() {
+        List<OutgoingLogBody> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            HarRequest request = HarRequest.builder()
+                    .method(HttpMethod.POST)
+                    .url("https://api.example.com/owls/" + i)
+                    .httpVersion("HTTP/1.1")
+                    .headers(Arrays.asList(
+                            HarHeader.builder().name("content-type").value("application/json").build(),
+                            HarHeader.builder().name("user-agent").value("owl-client/1.0").build()))
+                    .queryString(Collections.emptyList())
+                    .build();
+            HarResponse response = HarResponse.builder()
+                    .status(200)
+                    .statusText("OK")
+                    .httpVersion("HTTP/1.1")
+                    .headers(Collections.singletonList(
+                            HarHeader.builder().name("content-type").value("application/json").build()))
+                    .content(HarContent.builder()
+                            .mimeType("application/json")
+                            .text("{\"id\":" + i + ",\"name\":\"Barn owl\",\"wingspan\":95}")
+                            .build())
+                    .build();
+            HarEntry entry = HarEntry.builder()
+                    .startedDateTime(new Date())
+                    .time(12)
+                    .request(request)
+                    .response(response)
+                    .build();
+            batch.add(OutgoingLogBody.builder()
+                    .id(UUID.randomUUID())
+                    .version(3)
+                    .clientIPAddress("127.0.0.1")
+                    .group(Group.builder().id("owl").label("Owl").email("owl@example.com").build())
+                    .request(new Har(HarLog.builder()
+                            .version("1.2")
+                            .entries(Collections.singletonList(entry))
+                            .build()))
+                    .build());
+        }
+        return batch;
+    }
+
+    @FunctionalInterface
+    private interface Serialization {
+        byte[] serialize() throws IOException;
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.readme.core.datatransfer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.readme.core.datatransfer.har.Group;
+import okio.Buffer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JsonRequestBodyTest {
+
+    @Test
+    void writeTo_ShouldStreamSameJsonAsObjectMapper() throws IOException {
+        List<OutgoingLogBody> batch = List.of(
+                OutgoingLogBody.builder().id(UUID.randomUUID()).version(3).group(Group.builder().id("owl").build()).build(),
+                OutgoingLogBody.builder().id(UUID.randomUUID()).version(3).clientIPAddress("127.0.0.1").build());
+        JsonRequestBody requestBody = new JsonRequestBody(batch);
+        Buffer sink = new Buffer();
+
+        requestBody.writeTo(sink);
+
+        assertEquals(new ObjectMapper().writeValueAsString(batch), sink.readUtf8());
+        assertEquals("application/json", requestBody.contentType().toString());
+    }
+
+    @Test
+    void writeTo_ShouldBeRepeatable_ForRetries() throws IOException {
+        JsonRequestBody requestBody = new JsonRequestBody(List.of(OutgoingLogBody.builder().version(3).build()));
+        Buffer firstAttempt = new Buffer();
+        Buffer secondAttempt = new Buffer();
+
+        requestBody.writeTo(firstAttempt);
+        requestBody.writeTo(secondAttempt);
+
+        assertEquals(firstAttempt.readUtf8(), secondAttempt.readUtf8());
+    }
+
+}
@@ -9,7 +9,6 @@ import com.readme.core.dataextraction.payload.user.UserData;
 import com.readme.core.datatransfer.har.*;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Date;
@@ -23,8 +22,7 @@ import static org.junit.jupiter.api.Assertions.*;
 @ExtendWith(MockitoExtension.class)
 class OutgoingLogBodyConstructorTest {
 
-    @InjectMocks
-    private OutgoingLogBodyConstructor outgoingLogBodyConstructor;
+    private final OutgoingLogBodyConstructor outgoingLogBodyConstructor = new OutgoingLogBodyConstructor();
 
     @Test
     void construct_ShouldBuildOutgoingLogBody_Success() {
@@ -56,6 +54,20 @@ class OutgoingLogBodyConstructorTest {
         assertEquals(payloadData.getApiCallLogData().getResponseData().getStatusCode(), harEntry.getResponse().getStatus());
     }
 
+    @Test
+    void construct_ShouldEstimateSizeFromBodies() {
+        PayloadData smallPayload = createStubPayloadData();
+        PayloadData largePayload = createStubPayloadData();
+        String largeBody = "x".repeat(100_000);
+        largePayload.getApiCallLogData().getResponseData().setBody(largeBody);
+
+        OutgoingLogBody small = outgoingLogBodyConstructor.construct(smallPayload, createStubLogOptions());
+        OutgoingLogBody large = outgoingLogBodyConstructor.construct(largePayload, createStubLogOptions());
+
+        assertTrue(small.getEstimatedSize() > 0);
+        assertTrue(large.getEstimatedSize() >= small.getEstimatedSize() + largeBody.length() - 100);
+    }
+
     private PayloadData createStubPayloadData() {
         UserData userData = UserData.builder()
                 .apiKey("owlApiKey")
@@ -130,6 +142,26 @@ class OutgoingLogBodyConstructorTest {
         assertFalse(anySecretHeader);
     }
 
+    @Test
+    void construct_ShouldDropTruncatedBodies_WhenDenyListIsSet() {
+        PayloadData payloadData = createStubPayloadData();
+        ResponseData responseData = payloadData.getApiCallLogData().getResponseData();
+        responseData.setBody("{\"key\":\"value\", \"secret\":\"mySec");
+        responseData.setBodySize(100_000L);
+        responseData.setBodyTruncated(true);
+
+        LogOptions logOptions = LogOptions.builder()
+                .denylist(List.of("secret"))
+                .build();
+
+        HarResponse response = outgoingLogBodyConstructor.construct(payloadData, logOptions)
+                .getRequest().getLog().getEntries().get(0).getResponse();
+
+        assertNull(response.getContent().getText());
+        assertEquals(100_000L, response.getBodySize());
+        assertEquals("truncated", response.getContent().getComment());
+    }
+
     @Test
     void construct_ShouldApplyLogOptionsAllowList() {
         PayloadData payloadData = createStubPayloadData();
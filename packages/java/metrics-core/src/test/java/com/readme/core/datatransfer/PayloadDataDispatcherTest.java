@@ -1,6 +1,7 @@
 package com.readme.core.datatransfer;
 
 import com.readme.core.dataextraction.LogOptions;
+import com.readme.core.dataextraction.OverflowPolicy;
 import com.readme.core.dataextraction.payload.PayloadData;
 import com.readme.core.dataextraction.payload.user.UserData;
 import com.readme.core.datatransfer.DataSender;
@@ -9,21 +10,34 @@ import com.readme.core.datatransfer.OutgoingLogBodyConstructor;
 import com.readme.core.datatransfer.PayloadDataDispatcher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 class PayloadDataDispatcherTest {
 
-    @Mock
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
     private DataSender dataSender;
 
     @Mock
@@ -85,6 +99,329 @@ class PayloadDataDispatcherTest {
         verifyNoInteractions(dataSender);
     }
 
+    @Test
+    void dispatch_ShouldFlushOnInterval_WhenBufferNotFull() {
+        LogOptions timedLogOptions = LogOptions.builder()
+                .bufferLength(100)
+                .flushIntervalMillis(250)
+                .build();
+        PayloadDataDispatcher timedDispatcher =
+                new PayloadDataDispatcher(dataSender, payloadConstructor, timedLogOptions);
+        when(payloadConstructor.construct(payloadData, timedLogOptions))
+                .thenReturn(OutgoingLogBody.builder().build());
+        when(dataSender.send(anyList(), eq(timedLogOptions))).thenReturn(true);
+
+        timedDispatcher.dispatch(payloadData, timedLogOptions);
+        timedDispatcher.dispatch(payloadData, timedLogOptions);
+
+        verify(dataSender, timeout(2000).times(1))
+                .send(outgoingLogBodiesCaptor.capture(), eq(timedLogOptions));
+        assertEquals(2, outgoingLogBodiesCaptor.getValue().size());
+    }
+
+    @Test
+    void dispatch_ShouldSendOnFlushThread_WhenBufferFull() {
+        LogOptions sizedLogOptions = LogOptions.builder()
+                .bufferLength(2)
+                .flushIntervalMillis(60_000)
+                .build();
+        PayloadDataDispatcher sizedDispatcher =
+                new PayloadDataDispatcher(dataSender, payloadConstructor, sizedLogOptions);
+        when(payloadConstructor.construct(payloadData, sizedLogOptions))
+                .thenReturn(OutgoingLogBody.builder().build());
+        when(dataSender.send(anyList(), eq(sizedLogOptions))).thenReturn(true);
+
+        sizedDispatcher.dispatch(payloadData, sizedLogOptions);
+        sizedDispatcher.dispatch(payloadData, sizedLogOptions);
+
+        verify(dataSender, timeout(1000).times(1))
+                .send(outgoingLogBodiesCaptor.capture(), eq(sizedLogOptions));
+        assertEquals(2, outgoingLogBodiesCaptor.getValue().size());
+    }
+
+    @Test
+    void dispatch_ShouldSendEveryLogExactlyOnce_WhenDispatchedConcurrently() throws InterruptedException {
+        int threads = 8;
+        int logsPerThread = 250;
+        LogOptions concurrentLogOptions = LogOptions.builder()
+                .bufferLength(10)
+                .build();
+        Queue<OutgoingLogBody> sentBodies = new ConcurrentLinkedQueue<>();
+        DataSender collectingSender = (batch, options) -> {
+            sentBodies.addAll(batch);
+            return true;
+        };
+        PayloadDataDispatcher concurrentDispatcher = new PayloadDataDispatcher(collectingSender, payloadConstructor);
+        when(payloadConstructor.construct(payloadData, concurrentLogOptions))
+                .thenAnswer(invocation -> OutgoingLogBody.builder().id(UUID.randomUUID()).build());
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < logsPerThread; j++) {
+                    concurrentDispatcher.dispatch(payloadData, concurrentLogOptions);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        concurrentDispatcher.flush(concurrentLogOptions);
+
+        Set<UUID> uniqueIds = sentBodies.stream()
+                .map(OutgoingLogBody::getId)
+                .collect(Collectors.toSet());
+        assertEquals(threads * logsPerThread, sentBodies.size());
+        assertEquals(threads * logsPerThread, uniqueIds.size());
+    }
+
+    @Test
+    void dispatch_ShouldKeepBatchForNextFlush_WhenSendFails() {
+        when(payloadConstructor.construct(payloadData, logOptions))
+                .thenReturn(OutgoingLogBody.builder().build());
+        when(dataSender.send(anyList(), eq(logOptions))).thenReturn(false, true);
+
+        payloadDataDispatcher.dispatch(payloadData, logOptions);
+        payloadDataDispatcher.dispatch(payloadData, logOptions);
+        payloadDataDispatcher.dispatch(payloadData, logOptions);
+        payloadDataDispatcher.dispatch(payloadData, logOptions);
+
+        verify(dataSender, times(2))
+                .send(outgoingLogBodiesCaptor.capture(), eq(logOptions));
+        assertEquals(3, outgoingLogBodiesCaptor.getAllValues().get(0).size());
+        assertEquals(3, outgoingLogBodiesCaptor.getAllValues().get(1).size());
+    }
+
+    @Test
+    void dispatch_ShouldPipelineBatches_WhileEarlierBatchIsPending() {
+        LogOptions pipelinedLogOptions = LogOptions.builder()
+                .bufferLength(1)
+                .maxPendingBatches(2)
+                .build();
+        PayloadDataDispatcher pipelinedDispatcher =
+                new PayloadDataDispatcher(dataSender, payloadConstructor, pipelinedLogOptions);
+        CompletableFuture<SendResult> firstResult = new CompletableFuture<>();
+        when(payloadConstructor.construct(payloadData, pipelinedLogOptions))
+                .thenAnswer(invocation -> OutgoingLogBody.builder().id(UUID.randomUUID()).build());
+        when(dataSender.sendAsync(anyList(), eq(pipelinedLogOptions)))
+                .thenReturn(firstResult, new CompletableFuture<>());
+
+        pipelinedDispatcher.dispatch(payloadData, pipelinedLogOptions);
+        pipelinedDispatcher.dispatch(payloadData, pipelinedLogOptions);
+        pipelinedDispatcher.dispatch(payloadData, pipelinedLogOptions);
+
+        verify(dataSender, timeout(1000).times(2)).sendAsync(anyList(), eq(pipelinedLogOptions));
+
+        firstResult.complete(SendResult.builder().successful(true).statusCode(200).build());
+
+        verify(dataSender, timeout(1000).times(3)).sendAsync(anyList(), eq(pipelinedLogOptions));
+    }
+
+    @Test
+    void dispatch_ShouldDropNewestLogs_WhenBufferIsFull() {
+        LogOptions boundedLogOptions = LogOptions.builder()
+                .bufferLength(2)
+                .bufferCapacity(2)
+                .flushIntervalMillis(0)
+                .overflowPolicy(OverflowPolicy.DROP_NEWEST)
+                .build();
+        PayloadDataDispatcher boundedDispatcher =
+                new PayloadDataDispatcher(dataSender, payloadConstructor, boundedLogOptions);
+        when(payloadConstructor.construct(payloadData, boundedLogOptions))
+                .thenReturn(OutgoingLogBody.builder().build());
+        when(dataSender.send(anyList(), eq(boundedLogOptions))).thenReturn(false);
+
+        for (int i = 0; i < 5; i++) {
+            boundedDispatcher.dispatch(payloadData, boundedLogOptions);
+        }
+
+        verify(dataSender, times(1)).send(anyList(), eq(boundedLogOptions));
+        assertEquals(3, boundedDispatcher.getDroppedLogsCount());
+    }
+
+    @Test
+    void dispatch_ShouldDropOldestLogs_WhenBufferIsFull() {
+        LogOptions boundedLogOptions = LogOptions.builder()
+                .bufferLength(4)
+                .bufferCapacity(4)
+                .flushIntervalMillis(0)
+                .overflowPolicy(OverflowPolicy.DROP_OLDEST)
+                .build();
+        PayloadDataDispatcher boundedDispatcher =
+                new PayloadDataDispatcher(dataSender, payloadConstructor, boundedLogOptions);
+        List<OutgoingLogBody> bodies = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            bodies.add(OutgoingLogBody.builder().id(UUID.randomUUID()).build());
+        }
+        when(payloadConstructor.construct(payloadData, boundedLogOptions))
+                .thenReturn(bodies.get(0), bodies.subList(1, 6).toArray(new OutgoingLogBody[0]));
+        when(dataSender.send(anyList(), eq(boundedLogOptions))).thenReturn(false, true);
+
+        for (int i = 0; i < 6; i++) {
+            boundedDispatcher.dispatch(payloadData, boundedLogOptions);
+        }
+
+        verify(dataSender, times(2)).send(outgoingLogBodiesCaptor.capture(), eq(boundedLogOptions));
+        assertEquals(bodies.subList(0, 4), outgoingLogBodiesCaptor.getAllValues().get(0));
+        assertEquals(bodies.subList(1, 5), outgoingLogBodiesCaptor.getAllValues().get(1));
+        assertEquals(1, boundedDispatcher.getDroppedLogsCount());
+    }
+
+    @Test
+    void dispatch_ShouldSendOrDropEveryLogOnce_WhenDroppingOldestConcurrently() throws InterruptedException {
+        LogOptions boundedLogOptions = LogOptions.builder()
+                .bufferLength(4)
+                .bufferCapacity(8)
+                .flushIntervalMillis(0)
+                .overflowPolicy(OverflowPolicy.DROP_OLDEST)
+                .build();
+        PayloadDataDispatcher boundedDispatcher =
+                new PayloadDataDispatcher(dataSender, payloadConstructor, boundedLogOptions);
+        when(payloadConstructor.construct(payloadData, boundedLogOptions))
+                .thenAnswer(invocation -> OutgoingLogBody.builder().id(UUID.randomUUID()).build());
+        Set<UUID> sent = ConcurrentHashMap.newKeySet();
+        when(dataSender.send(anyList(), eq(boundedLogOptions))).thenAnswer(invocation -> {
+            List<OutgoingLogBody> batch = invocation.getArgument(0);
+            batch.forEach(body -> assertTrue(sent.add(body.getId())));
+            return true;
+        });
+        int producers = 4;
+        int logsPerProducer = 2_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        for (int p = 0; p < producers; p++) {
+            executor.execute(() -> {
+                for (int i = 0; i < logsPerProducer; i++) {
+                    boundedDispatcher.dispatch(payloadData, boundedLogOptions);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(boundedDispatcher.shutdown(5, TimeUnit.SECONDS));
+
+        assertEquals(producers * logsPerProducer, sent.size() + boundedDispatcher.getDroppedLogsCount());
+    }
+
+    @Test
+    void dispatch_ShouldDropLogAfterTimeout_WhenBlockingOnFullBuffer() {
+        LogOptions blockingLogOptions = LogOptions.builder()
+                .bufferLength(2)
+                .bufferCapacity(2)
+                .flushIntervalMillis(0)
+                .overflowPolicy(OverflowPolicy.BLOCK)
+                .overflowTimeoutMillis(20)
+                .build();
+        PayloadDataDispatcher blockingDispatcher =
+                new PayloadDataDispatcher(dataSender, payloadConstructor, blockingLogOptions);
+        when(payloadConstructor.construct(payloadData, blockingLogOptions))
+                .thenReturn(OutgoingLogBody.builder().build());
+        when(dataSender.send(anyList(), eq(blockingLogOptions))).thenReturn(false);
+
+        for (int i = 0; i < 3; i++) {
+            blockingDispatcher.dispatch(payloadData, blockingLogOptions);
+        }
+
+        verify(dataSender, times(2)).send(anyList(), eq(blockingLogOptions));
+        assertEquals(1, blockingDispatcher.getDroppedLogsCount());
+    }
+
+    @Test
+    void dispatch_ShouldCloseBatchOnByteBudget_BeforeBufferLength() {
+        LogOptions budgetOptions = LogOptions.builder()
+                .bufferLength(10)
+                .maxBatchBytes(1000)
+                .flushIntervalMillis(0)
+                .build();
+        PayloadDataDispatcher budgetDispatcher =
+                new PayloadDataDispatcher(dataSender, payloadConstructor, budgetOptions);
+        when(payloadConstructor.construct(payloadData, budgetOptions))
+                .thenReturn(OutgoingLogBody.builder().estimatedSize(400).build());
+        when(dataSender.send(anyList(), eq(budgetOptions))).thenReturn(true);
+
+        budgetDispatcher.dispatch(payloadData, budgetOptions);
+        budgetDispatcher.dispatch(payloadData, budgetOptions);
+        verifyNoInteractions(dataSender);
+
+        budgetDispatcher.dispatch(payloadData, budgetOptions);
+        budgetDispatcher.flush(budgetOptions);
+
+        verify(dataSender, times(2)).send(outgoingLogBodiesCaptor.capture(), eq(budgetOptions));
+        assertEquals(2, outgoingLogBodiesCaptor.getAllValues().get(0).size());
+        assertEquals(1, outgoingLogBodiesCaptor.getAllValues().get(1).size());
+    }
+
+    @Test
+    void dispatchAsync_ShouldBufferOnDispatchExecutor() {
+        when(payloadConstructor.construct(payloadData, logOptions))
+                .thenReturn(OutgoingLogBody.builder().build());
+        when(dataSender.send(anyList(), eq(logOptions))).thenReturn(true);
+
+        payloadDataDispatcher.dispatchAsync(payloadData, logOptions);
+        payloadDataDispatcher.dispatchAsync(payloadData, logOptions);
+        payloadDataDispatcher.dispatchAsync(payloadData, logOptions);
+
+        verify(dataSender, timeout(1000).times(1))
+                .send(outgoingLogBodiesCaptor.capture(), eq(logOptions));
+        assertEquals(3, outgoingLogBodiesCaptor.getValue().size());
+    }
+
+    @Test
+    void dispatchAsync_ShouldDropPayload_WhenDispatchExecutorRejectsIt() {
+        ExecutorService rejectingExecutor = Executors.newSingleThreadExecutor();
+        rejectingExecutor.shutdown();
+        PayloadDataDispatcher rejectingDispatcher =
+                new PayloadDataDispatcher(dataSender, payloadConstructor, null, rejectingExecutor);
+
+        rejectingDispatcher.dispatchAsync(payloadData, logOptions);
+
+        assertEquals(1, rejectingDispatcher.getDroppedLogsCount());
+        verifyNoInteractions(payloadConstructor, dataSender);
+    }
+
+    @Test
+    void shutdown_ShouldSendBufferedLogsInParallel_BeforeDeadline() {
+        LogOptions largeBuffer = LogOptions.builder()
+                .bufferLength(2)
+                .bufferCapacity(16)
+                .flushIntervalMillis(60_000)
+                .build();
+        PayloadDataDispatcher closingDispatcher =
+                new PayloadDataDispatcher(dataSender, payloadConstructor, largeBuffer);
+        when(payloadConstructor.construct(payloadData, logOptions))
+                .thenReturn(OutgoingLogBody.builder().build());
+        when(dataSender.send(anyList(), eq(largeBuffer))).thenReturn(true);
+        when(dataSender.awaitCompletion(anyLong(), any(TimeUnit.class))).thenReturn(true);
+
+        for (int i = 0; i < 5; i++) {
+            closingDispatcher.dispatchAsync(payloadData, logOptions);
+        }
+        boolean completed = closingDispatcher.shutdown(5, TimeUnit.SECONDS);
+
+        assertTrue(completed);
+        verify(dataSender, atLeast(3)).send(outgoingLogBodiesCaptor.capture(), eq(largeBuffer));
+        int sentLogs = outgoingLogBodiesCaptor.getAllValues().stream().mapToInt(List::size).sum();
+        assertEquals(5, sentLogs);
+    }
+
+    @Test
+    void shutdown_ShouldDropPayloads_DispatchedAfterShutdown() {
+        when(dataSender.awaitCompletion(anyLong(), any(TimeUnit.class))).thenReturn(true);
+
+        payloadDataDispatcher.close();
+        payloadDataDispatcher.dispatchAsync(payloadData, logOptions);
+
+        assertEquals(1, payloadDataDispatcher.getDroppedLogsCount());
+        verifyNoInteractions(payloadConstructor);
+    }
+
+    @Test
+    void shutdown_ShouldReturnFalse_WhenSenderDoesNotCompleteInTime() {
+        when(dataSender.awaitCompletion(anyLong(), any(TimeUnit.class))).thenReturn(false);
+
+        assertFalse(payloadDataDispatcher.shutdown(10, TimeUnit.MILLISECONDS));
+        assertTrue(payloadDataDispatcher.shutdown(10, TimeUnit.MILLISECONDS));
+    }
+
     private PayloadData createStubPayloadData() {
         return PayloadData.builder()
                 .userData(UserData.builder().apiKey("test-api-key").build())
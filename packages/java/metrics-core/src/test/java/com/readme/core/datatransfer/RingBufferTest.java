@@ -0,0 +1,125 @@
+package com.readme.core.datatransfer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferTest {
+
+    @Test
+    void constructor_ShouldRoundCapacityUpToPowerOfTwo() {
+        assertEquals(1, new RingBuffer<String>(1).capacity());
+        assertEquals(8, new RingBuffer<String>(5).capacity());
+        assertEquals(16, new RingBuffer<String>(16).capacity());
+    }
+
+    @Test
+    void constructor_ShouldThrowException_WhenCapacityIsNotPositive() {
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<String>(0));
+    }
+
+    @Test
+    void poll_ShouldReturnElementsInInsertionOrder() {
+        RingBuffer<String> buffer = new RingBuffer<>(4);
+        buffer.offer("owl");
+        buffer.offer("eagle");
+
+        assertEquals(2, buffer.size());
+        assertEquals("owl", buffer.poll());
+        assertEquals("eagle", buffer.poll());
+        assertNull(buffer.poll());
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    void offer_ShouldReturnFalse_WhenBufferIsFull() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(2);
+
+        assertTrue(buffer.offer(1));
+        assertTrue(buffer.offer(2));
+        assertFalse(buffer.offer(3));
+
+        buffer.poll();
+        assertTrue(buffer.offer(3));
+    }
+
+    @Test
+    void drainTo_ShouldMoveAtMostMaxElements() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(8);
+        for (int i = 0; i < 5; i++) {
+            buffer.offer(i);
+        }
+        List<Integer> drained = new ArrayList<>();
+
+        assertEquals(3, buffer.drainTo(drained, 3));
+        assertEquals(List.of(0, 1, 2), drained);
+        assertEquals(2, buffer.size());
+    }
+
+    @Test
+    void offer_ShouldKeepEveryElement_WhenCalledConcurrently() throws InterruptedException {
+        int producers = 4;
+        int elementsPerProducer = 10_000;
+        RingBuffer<Integer> buffer = new RingBuffer<>(64);
+        Set<Integer> consumed = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        for (int p = 0; p < producers; p++) {
+            int offset = p * elementsPerProducer;
+            executor.execute(() -> {
+                for (int i = 0; i < elementsPerProducer; i++) {
+                    while (!buffer.offer(offset + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+
+        while (consumed.size() < producers * elementsPerProducer) {
+            Integer element = buffer.poll();
+            if (element != null) {
+                assertTrue(consumed.add(element));
+            }
+        }
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    void drainTo_ShouldStopBeforeExceedingMaxWeight() {
+        RingBuffer<String> buffer = new RingBuffer<>(8);
+        buffer.offer("aaa");
+        buffer.offer("bbbb");
+        buffer.offer("cc");
+
+        List<String> drained = new ArrayList<>();
+        int count = buffer.drainTo(drained, 8, String::length, 6);
+
+        assertEquals(1, count);
+        assertEquals(List.of("aaa"), drained);
+        assertEquals(2, buffer.size());
+    }
+
+    @Test
+    void drainTo_ShouldTakeFirstElement_WhenItExceedsMaxWeight() {
+        RingBuffer<String> buffer = new RingBuffer<>(8);
+        buffer.offer("oversized");
+        buffer.offer("a");
+
+        List<String> drained = new ArrayList<>();
+        buffer.drainTo(drained, 8, String::length, 4);
+
+        assertEquals(List.of("oversized"), drained);
+        assertEquals("a", buffer.poll());
+    }
+
+}
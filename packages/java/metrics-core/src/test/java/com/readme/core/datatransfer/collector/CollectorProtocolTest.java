@@ -0,0 +1,67 @@
+package com.readme.core.datatransfer.collector;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CollectorProtocolTest {
+
+    @Test
+    void readFrame_ShouldReturnFramesWrittenAfterHello() throws IOException {
+        DataInputStream in = input(
+                CollectorProtocol.hello("testApiKey"),
+                CollectorProtocol.frames(List.of(bytes("{\"a\":1}"), bytes("{\"b\":2}"))));
+
+        assertEquals("testApiKey", CollectorProtocol.readHello(in));
+        assertArrayEquals(bytes("{\"a\":1}"), CollectorProtocol.readFrame(in));
+        assertArrayEquals(bytes("{\"b\":2}"), CollectorProtocol.readFrame(in));
+        assertNull(CollectorProtocol.readFrame(in));
+    }
+
+    @Test
+    void readFrame_ShouldDiscardTruncatedFrame() throws IOException {
+        ByteBuffer frames = CollectorProtocol.frames(List.of(bytes("{\"a\":1}"), bytes("{\"b\":2}")));
+        byte[] truncated = Arrays.copyOf(frames.array(), frames.limit() - 2);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(truncated));
+
+        assertArrayEquals(bytes("{\"a\":1}"), CollectorProtocol.readFrame(in));
+        assertNull(CollectorProtocol.readFrame(in));
+    }
+
+    @Test
+    void readHello_ShouldRejectForeignConnection() {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes("GET / HTTP/1.1\r\n")));
+
+        assertThrows(IOException.class, () -> CollectorProtocol.readHello(in));
+    }
+
+    @Test
+    void readFrame_ShouldRejectOversizedFrame() {
+        ByteBuffer frame = ByteBuffer.allocate(Integer.BYTES).putInt(CollectorProtocol.MAX_FRAME_BYTES + 1);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame.array()));
+
+        assertThrows(IOException.class, () -> CollectorProtocol.readFrame(in));
+    }
+
+    private static DataInputStream input(ByteBuffer... buffers) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (ByteBuffer buffer : buffers) {
+            out.write(buffer.array(), buffer.position(), buffer.remaining());
+        }
+        return new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.readme.core.datatransfer.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.readme.core.dataextraction.LogOptions;
+import com.readme.core.datatransfer.DataSender;
+import com.readme.core.datatransfer.JsonMappers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class NdjsonBulkUploaderTest {
+
+    @TempDir
+    Path exportDirectory;
+
+    @Test
+    void upload_ShouldSendLinesAsJsonArrays_AndDeleteFiles() throws IOException {
+        export(5);
+        List<JsonNode> batches = new ArrayList<>();
+        DataSender dataSender = mock(DataSender.class);
+        when(dataSender.sendSerialized(any())).thenAnswer(invocation -> {
+            batches.add(JsonMappers.shared().treeReader().readTree((byte[]) invocation.getArgument(0)));
+            return true;
+        });
+
+        int uploaded = new NdjsonBulkUploader(dataSender, 300).upload(exportDirectory);
+
+        assertEquals(1, uploaded);
+        assertTrue(batches.size() > 1);
+        int logs = 0;
+        for (JsonNode batch : batches) {
+            assertTrue(batch.isArray());
+            logs += batch.size();
+        }
+        assertEquals(5, logs);
+        assertTrue(NdjsonFileDataSender.listFiles(exportDirectory, NdjsonFileDataSender.COMPLETED_SUFFIX).isEmpty());
+    }
+
+    @Test
+    void upload_ShouldKeepFile_WhenBatchFails() throws IOException {
+        export(2);
+        DataSender dataSender = mock(DataSender.class);
+        when(dataSender.sendSerialized(any())).thenReturn(false);
+
+        int uploaded = new NdjsonBulkUploader(dataSender, NdjsonBulkUploader.DEFAULT_MAX_BATCH_BYTES).upload(exportDirectory);
+
+        assertEquals(0, uploaded);
+        assertEquals(1, NdjsonFileDataSender.listFiles(exportDirectory, NdjsonFileDataSender.COMPLETED_SUFFIX).size());
+    }
+
+    private void export(int count) throws IOException {
+        try (NdjsonFileDataSender sender = new NdjsonFileDataSender(exportDirectory)) {
+            sender.send(NdjsonFileDataSenderTest.logs(count), LogOptions.builder().build());
+        }
+    }
+
+}
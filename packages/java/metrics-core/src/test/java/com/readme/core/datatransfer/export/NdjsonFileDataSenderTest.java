@@ -0,0 +1,114 @@
+package com.readme.core.datatransfer.export;
+
+import com.readme.core.dataextraction.LogOptions;
+import com.readme.core.datatransfer.OutgoingLogBody;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NdjsonFileDataSenderTest {
+
+    @TempDir
+    Path exportDirectory;
+
+    @Test
+    void send_ShouldAppendOneLinePerLog() throws IOException {
+        List<OutgoingLogBody> logs = logs(3);
+        try (NdjsonFileDataSender sender = new NdjsonFileDataSender(exportDirectory)) {
+            assertTrue(sender.send(logs, LogOptions.builder().build()));
+        }
+
+        List<Path> files = completedFiles();
+        assertEquals(1, files.size());
+        List<String> lines = Files.readAllLines(files.get(0), StandardCharsets.UTF_8);
+        assertEquals(3, lines.size());
+        for (int i = 0; i < logs.size(); i++) {
+            assertTrue(lines.get(i).startsWith("{"));
+            assertTrue(lines.get(i).contains(logs.get(i).getId().toString()));
+        }
+    }
+
+    @Test
+    void send_ShouldRotateFiles_WhenTheyReachMaxSize() throws IOException {
+        try (NdjsonFileDataSender sender = new NdjsonFileDataSender(exportDirectory, 200,
+                NdjsonFileDataSender.DEFAULT_MAX_FILE_AGE_MILLIS)) {
+            for (int i = 0; i < 4; i++) {
+                assertTrue(sender.send(logs(1), LogOptions.builder().build()));
+            }
+        }
+
+        List<Path> files = completedFiles();
+        assertTrue(files.size() > 1);
+        long lines = 0;
+        for (Path file : files) {
+            lines += Files.readAllLines(file).size();
+        }
+        assertEquals(4, lines);
+    }
+
+    @Test
+    void flushAndRotate_ShouldCompleteFile_WhenItIsTooOld() throws IOException, InterruptedException {
+        try (NdjsonFileDataSender sender = new NdjsonFileDataSender(exportDirectory,
+                NdjsonFileDataSender.DEFAULT_MAX_FILE_BYTES, 10)) {
+            sender.send(logs(1), LogOptions.builder().build());
+            Thread.sleep(20);
+
+            sender.flushAndRotate();
+
+            assertEquals(1, completedFiles().size());
+        }
+    }
+
+    @Test
+    void constructor_ShouldCompleteFileOfCrashedProcess_WithoutTornLine() throws IOException {
+        Path leftover = exportDirectory.resolve("logs-0000000000001-000000.ndjson.part");
+        Files.write(leftover, "{\"id\":1}\n{\"id\":2}\n{\"id\"".getBytes(StandardCharsets.UTF_8));
+
+        new NdjsonFileDataSender(exportDirectory).close();
+
+        assertFalse(Files.exists(leftover));
+        List<Path> files = completedFiles();
+        assertEquals(1, files.size());
+        assertEquals(List.of("{\"id\":1}", "{\"id\":2}"), Files.readAllLines(files.get(0)));
+    }
+
+    @Test
+    void constructor_ShouldNotRecoverActiveFileOfRunningExporter() throws IOException {
+        try (NdjsonFileDataSender running = new NdjsonFileDataSender(exportDirectory)) {
+            running.send(logs(1), LogOptions.builder().build());
+            running.flushAndRotate();
+            List<Path> activeFiles = NdjsonFileDataSender.listFiles(exportDirectory, NdjsonFileDataSender.ACTIVE_SUFFIX);
+
+            new NdjsonFileDataSender(exportDirectory).close();
+
+            assertEquals(activeFiles, NdjsonFileDataSender.listFiles(exportDirectory, NdjsonFileDataSender.ACTIVE_SUFFIX));
+            assertTrue(completedFiles().isEmpty());
+            assertTrue(running.send(logs(1), LogOptions.builder().build()));
+        }
+        List<Path> files = completedFiles();
+        assertEquals(1, files.size());
+        assertEquals(2, Files.readAllLines(files.get(0)).size());
+    }
+
+    private List<Path> completedFiles() throws IOException {
+        return NdjsonFileDataSender.listFiles(exportDirectory, NdjsonFileDataSender.COMPLETED_SUFFIX);
+    }
+
+    static List<OutgoingLogBody> logs(int count) {
+        List<OutgoingLogBody> logs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            logs.add(OutgoingLogBody.builder().id(UUID.randomUUID()).build());
+        }
+        return logs;
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.readme.core.datatransfer.spool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiskSpoolTest {
+
+    @TempDir
+    Path spoolDirectory;
+
+    @Test
+    void replay_ShouldDeliverBatchesInOrder_AndDeleteSegments() throws IOException {
+        DiskSpool spool = new DiskSpool(spoolDirectory, 64, DiskSpool.DEFAULT_MAX_DISK_BYTES);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(spool.append(bytes("batch-" + i + "-padding-to-roll-segments")));
+        }
+        List<String> delivered = new ArrayList<>();
+
+        int replayed = spool.replay(batch -> delivered.add(string(batch)));
+
+        assertEquals(5, replayed);
+        assertEquals("batch-0-padding-to-roll-segments", delivered.get(0));
+        assertEquals("batch-4-padding-to-roll-segments", delivered.get(4));
+        assertTrue(spool.isEmpty());
+        assertEquals(0, countSegmentFiles());
+    }
+
+    @Test
+    void replay_ShouldResumeAfterFailedBatch() throws IOException {
+        DiskSpool spool = new DiskSpool(spoolDirectory, DiskSpool.DEFAULT_MAX_SEGMENT_BYTES, DiskSpool.DEFAULT_MAX_DISK_BYTES);
+        spool.append(bytes("owl"));
+        spool.append(bytes("eagle"));
+        List<String> delivered = new ArrayList<>();
+
+        assertEquals(1, spool.replay(batch -> "owl".equals(string(batch)) && delivered.add(string(batch))));
+        assertFalse(spool.isEmpty());
+        assertEquals(1, spool.replay(batch -> delivered.add(string(batch))));
+
+        assertEquals(List.of("owl", "eagle"), delivered);
+        assertTrue(spool.isEmpty());
+    }
+
+    @Test
+    void constructor_ShouldPickUpSegmentsOfPreviousProcess() throws IOException {
+        DiskSpool previous = new DiskSpool(spoolDirectory, DiskSpool.DEFAULT_MAX_SEGMENT_BYTES, DiskSpool.DEFAULT_MAX_DISK_BYTES);
+        previous.append(bytes("owl"));
+        previous.close();
+
+        DiskSpool restarted = new DiskSpool(spoolDirectory, DiskSpool.DEFAULT_MAX_SEGMENT_BYTES, DiskSpool.DEFAULT_MAX_DISK_BYTES);
+        restarted.append(bytes("eagle"));
+        List<String> delivered = new ArrayList<>();
+        restarted.replay(batch -> delivered.add(string(batch)));
+
+        assertEquals(List.of("owl", "eagle"), delivered);
+    }
+
+    @Test
+    void sync_ShouldKeepActiveSegmentReadable_ForNextProcess() throws IOException {
+        DiskSpool crashed = new DiskSpool(spoolDirectory, DiskSpool.DEFAULT_MAX_SEGMENT_BYTES, DiskSpool.DEFAULT_MAX_DISK_BYTES);
+        crashed.append(bytes("owl"));
+        crashed.sync();
+        crashed.append(bytes("eagle"));
+        crashed.sync();
+
+        DiskSpool restarted = new DiskSpool(spoolDirectory, DiskSpool.DEFAULT_MAX_SEGMENT_BYTES, DiskSpool.DEFAULT_MAX_DISK_BYTES);
+        List<String> delivered = new ArrayList<>();
+
+        assertEquals(2, restarted.replay(batch -> delivered.add(string(batch))));
+        assertEquals(List.of("owl", "eagle"), delivered);
+    }
+
+    @Test
+    void append_ShouldRejectBatch_WhenDiskCapIsReached() throws IOException {
+        DiskSpool spool = new DiskSpool(spoolDirectory, DiskSpool.DEFAULT_MAX_SEGMENT_BYTES, 40);
+
+        assertTrue(spool.append(bytes("owl")));
+        assertFalse(spool.append(bytes("a-batch-too-large-for-the-spool")));
+
+        assertEquals(1, spool.getRejectedBatchesCount());
+    }
+
+    @Test
+    void replay_ShouldIgnoreTornRecordAtEndOfSegment() throws IOException {
+        DiskSpool previous = new DiskSpool(spoolDirectory, DiskSpool.DEFAULT_MAX_SEGMENT_BYTES, DiskSpool.DEFAULT_MAX_DISK_BYTES);
+        previous.append(bytes("owl"));
+        previous.close();
+        try (Stream<Path> segments = Files.list(spoolDirectory)) {
+            Path segment = segments.findFirst().orElseThrow();
+            Files.write(segment, new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+        }
+
+        DiskSpool restarted = new DiskSpool(spoolDirectory, DiskSpool.DEFAULT_MAX_SEGMENT_BYTES, DiskSpool.DEFAULT_MAX_DISK_BYTES);
+        List<String> delivered = new ArrayList<>();
+        restarted.replay(batch -> delivered.add(string(batch)));
+
+        assertEquals(List.of("owl"), delivered);
+        assertTrue(restarted.isEmpty());
+    }
+
+    private long countSegmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(spoolDirectory)) {
+            return files.count();
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+}
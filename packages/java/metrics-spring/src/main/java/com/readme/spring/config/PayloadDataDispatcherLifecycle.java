@@ -0,0 +1,58 @@
+package com.readme.spring.config;
+
+import com.readme.core.datatransfer.PayloadDataDispatcher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ties the {@link PayloadDataDispatcher} to the application context lifecycle.
+ * <p>
+ * On shutdown the dispatcher stops accepting new payloads and sends the buffered logs,
+ * waiting up to {@code ReadmeConfigurationProperties.getShutdownTimeoutMillis()}.
+ * It runs in a phase after the embedded web server has stopped, so the last requests
+ * served by the application are still collected.
+ */
+@Slf4j
+public class PayloadDataDispatcherLifecycle implements SmartLifecycle {
+
+    /**
+     * Web servers are stopped in phases close to {@link Integer#MAX_VALUE}, lower phases are stopped later.
+     */
+    static final int PHASE = Integer.MAX_VALUE - 4096;
+
+    private final PayloadDataDispatcher payloadDataDispatcher;
+
+    private final long shutdownTimeoutMillis;
+
+    private volatile boolean running;
+
+    public PayloadDataDispatcherLifecycle(PayloadDataDispatcher payloadDataDispatcher, long shutdownTimeoutMillis) {
+        this.payloadDataDispatcher = payloadDataDispatcher;
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        log.debug("readme-metrics: Sending buffered logs before shutdown");
+        payloadDataDispatcher.shutdown(shutdownTimeoutMillis, TimeUnit.MILLISECONDS);
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+}
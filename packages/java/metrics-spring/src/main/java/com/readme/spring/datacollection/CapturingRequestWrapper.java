@@ -0,0 +1,187 @@
+package com.readme.spring.datacollection;
+
+import com.readme.core.dataextraction.BodyCapture;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Request wrapper which copies the first bytes of the body into a {@link BodyCapture} while the application
+ * reads it, and counts the rest.
+ * <p>
+ * Unlike Spring's {@code ContentCachingRequestWrapper}, the memory kept for logging is bounded by the
+ * capture. A form body consumed by the container to resolve the request parameters is rebuilt from them,
+ * within the same limit.
+ */
+public class CapturingRequestWrapper extends HttpServletRequestWrapper {
+
+    private static final String FORM_CONTENT_TYPE = "application/x-www-form-urlencoded";
+
+    private final BodyCapture capture;
+
+    private ServletInputStream inputStream;
+
+    private BufferedReader reader;
+
+    private boolean formBodyCaptured;
+
+    public CapturingRequestWrapper(HttpServletRequest request, BodyCapture capture) {
+        super(request);
+        this.capture = capture;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        if (inputStream == null) {
+            inputStream = new CapturingInputStream(super.getInputStream(), capture);
+        }
+        return inputStream;
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        if (reader == null) {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.ISO_8859_1;
+            reader = new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+        return reader;
+    }
+
+    /**
+     * Returns the captured prefix of the body, decoded with the charset of the content type or UTF-8.
+     */
+    public String getCapturedBody() {
+        captureFormBody();
+        return capture.toString(charsetOf(getContentType()));
+    }
+
+    /**
+     * Returns the number of bytes of the body read by the application.
+     */
+    public long getBodySize() {
+        captureFormBody();
+        return capture.getTotalBytes();
+    }
+
+    public boolean isBodyTruncated() {
+        captureFormBody();
+        return capture.isTruncated();
+    }
+
+    /**
+     * Gives the capture's buffer back to the pool once the request was collected.
+     */
+    public void releaseCapture() {
+        capture.release();
+    }
+
+    private boolean isFormPost() {
+        String contentType = getContentType();
+        return contentType != null && contentType.contains(FORM_CONTENT_TYPE) && "POST".equalsIgnoreCase(getMethod());
+    }
+
+    /**
+     * Writes the form body rebuilt from the parameters into the capture, if the application did not read the
+     * body itself. The capture keeps only its usual prefix; with body capture disabled nothing is rebuilt.
+     */
+    private void captureFormBody() {
+        if (formBodyCaptured || capture.getTotalBytes() > 0 || capture.getMaxCapturedBytes() == 0 || !isFormPost()) {
+            return;
+        }
+        formBodyCaptured = true;
+        Charset charset = charsetOf(getContentType());
+        boolean first = true;
+        for (Map.Entry<String, String[]> parameter : getParameterMap().entrySet()) {
+            for (String value : parameter.getValue()) {
+                StringBuilder pair = new StringBuilder();
+                if (!first) {
+                    pair.append('&');
+                }
+                first = false;
+                pair.append(URLEncoder.encode(parameter.getKey(), charset));
+                if (value != null) {
+                    pair.append('=').append(URLEncoder.encode(value, charset));
+                }
+                byte[] bytes = pair.toString().getBytes(StandardCharsets.US_ASCII);
+                capture.write(bytes, 0, bytes.length);
+            }
+        }
+    }
+
+    static Charset charsetOf(String contentType) {
+        if (contentType != null) {
+            try {
+                Charset charset = MediaType.parseMediaType(contentType).getCharset();
+                if (charset != null) {
+                    return charset;
+                }
+            } catch (InvalidMediaTypeException e) {
+                // fall back to UTF-8
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private static final class CapturingInputStream extends ServletInputStream {
+
+        private final ServletInputStream delegate;
+
+        private final BodyCapture capture;
+
+        CapturingInputStream(ServletInputStream delegate, BodyCapture capture) {
+            this.delegate = delegate;
+            this.capture = capture;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            if (b >= 0) {
+                capture.write(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            int read = delegate.read(bytes, offset, length);
+            if (read > 0) {
+                capture.write(bytes, offset, read);
+            }
+            return read;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return delegate.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            delegate.setReadListener(readListener);
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+
+}
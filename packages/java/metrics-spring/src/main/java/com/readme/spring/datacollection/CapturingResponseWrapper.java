@@ -0,0 +1,260 @@
+package com.readme.spring.datacollection;
+
+import com.readme.core.dataextraction.BodyCapture;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Response wrapper which writes the body straight through to the client and copies its first bytes
+ * into a {@link BodyCapture}, counting the rest.
+ * <p>
+ * Unlike Spring's {@code ContentCachingResponseWrapper}, nothing is held back until the filter finishes,
+ * so the time to first byte is unchanged and the memory kept for logging is bounded by the capture.
+ * <p>
+ * Streamed responses are not captured at all, only counted: those with a content type from
+ * {@link #STREAMING_CONTENT_TYPES}, and those the application keeps writing to after flushing them,
+ * e.g. server-sent events or a {@code StreamingResponseBody}. A single flush at the end, as done by
+ * Spring's message converters, does not count as streaming.
+ */
+public class CapturingResponseWrapper extends HttpServletResponseWrapper {
+
+    static final List<String> STREAMING_CONTENT_TYPES = List.of("text/event-stream", "application/octet-stream");
+
+    private final BodyCapture capture;
+
+    private ServletOutputStream outputStream;
+
+    private PrintWriter writer;
+
+    private DiscardableWriter discardableWriter;
+
+    private boolean contentTypeChecked;
+
+    private boolean flushed;
+
+    private boolean finishing;
+
+    public CapturingResponseWrapper(HttpServletResponse response, BodyCapture capture) {
+        super(response);
+        this.capture = capture;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (outputStream == null) {
+            outputStream = new CapturingOutputStream(super.getOutputStream());
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            discardableWriter = new DiscardableWriter(newEncoder());
+            writer = new PrintWriter(discardableWriter);
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        onFlush();
+        super.flushBuffer();
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        discardBufferedOutput();
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        discardBufferedOutput();
+    }
+
+    /**
+     * Writes out the characters still buffered by the writer handed out to the application,
+     * so they reach the client and the capture.
+     */
+    public void finish() {
+        finishing = true;
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Returns the captured prefix of the body, decoded with the charset of the content type or UTF-8.
+     */
+    public String getCapturedBody() {
+        return capture.toString(CapturingRequestWrapper.charsetOf(getContentType()));
+    }
+
+    /**
+     * Returns the number of bytes of the body written by the application.
+     */
+    public long getBodySize() {
+        return capture.getTotalBytes();
+    }
+
+    public boolean isBodyTruncated() {
+        return capture.isTruncated();
+    }
+
+    /**
+     * Gives the capture's buffer back to the pool once the response was collected.
+     */
+    public void releaseCapture() {
+        capture.release();
+    }
+
+    /**
+     * Returns true if the response was detected as streamed, so only its metadata and size are logged.
+     */
+    public boolean isStreaming() {
+        return !capture.isCapturing();
+    }
+
+    private void beforeWrite() {
+        if (capture.isCapturing() && (flushed || !contentTypeChecked && isStreamingContentType(getContentType()))) {
+            capture.stopCapturing();
+        }
+        contentTypeChecked = true;
+    }
+
+    /**
+     * Drops the characters still buffered by the writer and starts the capture over, so output written
+     * before a reset neither reaches the client later nor ends up in the log.
+     */
+    private void discardBufferedOutput() {
+        if (discardableWriter != null) {
+            try {
+                discardableWriter.discard(newEncoder());
+            } catch (IOException e) {
+                // keeps the previous encoder; nothing was written to the client
+            }
+        }
+        capture.reset();
+        flushed = false;
+        contentTypeChecked = false;
+    }
+
+    private Writer newEncoder() throws IOException {
+        return new OutputStreamWriter(getOutputStream(), getCharacterEncoding());
+    }
+
+    private void onFlush() {
+        if (!finishing) {
+            flushed = true;
+        }
+    }
+
+    static boolean isStreamingContentType(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String mediaType = contentType.toLowerCase(Locale.ROOT);
+        for (String streamingContentType : STREAMING_CONTENT_TYPES) {
+            if (mediaType.startsWith(streamingContentType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writer between the application's {@link PrintWriter} and the encoder, so the characters the encoder
+     * buffers can be dropped on reset while the application keeps using the same writer.
+     */
+    private static final class DiscardableWriter extends Writer {
+
+        private Writer encoder;
+
+        DiscardableWriter(Writer encoder) {
+            this.encoder = encoder;
+        }
+
+        void discard(Writer newEncoder) {
+            encoder = newEncoder;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            encoder.write(chars, offset, length);
+        }
+
+        @Override
+        public void write(String string, int offset, int length) throws IOException {
+            encoder.write(string, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            encoder.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            encoder.close();
+        }
+    }
+
+    private final class CapturingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+
+        CapturingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            beforeWrite();
+            delegate.write(b);
+            capture.write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            beforeWrite();
+            delegate.write(bytes, offset, length);
+            capture.write(bytes, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            onFlush();
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.readme.spring.datacollection;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.Value;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the page a request is logged under from the route template Spring MVC matched it with,
+ * e.g. {@code https://api.example.com/users/{id}} for both {@code /users/123} and {@code /users/456},
+ * so the number of distinct pages stays as small as the number of endpoints.
+ * <p>
+ * The template is read from {@link HandlerMapping#BEST_MATCHING_PATTERN_ATTRIBUTE}. A handler can be mapped
+ * to several patterns, so the pages are cached per origin and pattern rather than per handler; a request
+ * to a known route is resolved without building a string. Requests not handled by Spring MVC keep their
+ * request URL. The cache is bounded; pages beyond its limits are built for every request.
+ */
+class RouteTemplates {
+
+    static final int MAX_CACHED_ORIGINS = 16;
+    static final int MAX_CACHED_ROUTES_PER_ORIGIN = 1024;
+
+    private static final int HTTP_PORT = 80;
+    private static final int HTTPS_PORT = 443;
+
+    private final Map<Origin, Map<String, String>> pagesByOrigin = new ConcurrentHashMap<>();
+
+    /**
+     * @return the route template as an absolute URL, or the request URL if no template was matched
+     */
+    String resolve(HttpServletRequest request) {
+        if (request == null) {
+            return null;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (!(pattern instanceof String)) {
+            StringBuffer url = request.getRequestURL();
+            return url != null ? url.toString() : null;
+        }
+        Origin origin = new Origin(request.getScheme(), request.getServerName(), request.getServerPort(),
+                request.getContextPath());
+        Map<String, String> pages = pagesByOrigin.get(origin);
+        if (pages == null) {
+            if (pagesByOrigin.size() >= MAX_CACHED_ORIGINS) {
+                return origin.page((String) pattern);
+            }
+            pages = pagesByOrigin.computeIfAbsent(origin, key -> new ConcurrentHashMap<>());
+        }
+        String page = pages.get(pattern);
+        if (page == null) {
+            page = origin.page((String) pattern);
+            if (pages.size() < MAX_CACHED_ROUTES_PER_ORIGIN) {
+                pages.put((String) pattern, page);
+            }
+        }
+        return page;
+    }
+
+    @Value
+    private static class Origin {
+
+        String scheme;
+        String serverName;
+        int serverPort;
+        String contextPath;
+
+        /**
+         * Builds the page like {@link HttpServletRequest#getRequestURL()}, with the route template as path.
+         */
+        String page(String pattern) {
+            StringBuilder page = new StringBuilder(scheme).append("://").append(serverName);
+            boolean defaultPort = serverPort <= 0
+                    || "http".equalsIgnoreCase(scheme) && serverPort == HTTP_PORT
+                    || "https".equalsIgnoreCase(scheme) && serverPort == HTTPS_PORT;
+            if (!defaultPort) {
+                page.append(':').append(serverPort);
+            }
+            if (contextPath != null) {
+                page.append(contextPath);
+            }
+            return page.append(pattern).toString();
+        }
+    }
+
+}
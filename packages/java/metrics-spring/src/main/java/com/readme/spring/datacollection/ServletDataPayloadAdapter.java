@@ -7,8 +7,6 @@ import lombok.AllArgsConstructor;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
-import org.springframework.web.util.ContentCachingRequestWrapper;
-import org.springframework.web.util.ContentCachingResponseWrapper;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -16,15 +14,15 @@ import java.util.stream.Collectors;
 /**
  * An implementation of {@link DataPayloadAdapter} that adapts a servlet-based HTTP request and response.
  * <p>
- * This class wraps {@link ContentCachingRequestWrapper} and {@link ContentCachingResponseWrapper}
- * to allow capturing the full content of HTTP requests and responses for logging and monitoring.
+ * This class wraps {@link CapturingRequestWrapper} and {@link CapturingResponseWrapper}, which capture
+ * a bounded prefix of the request and response bodies together with their true sizes.
  */
 @Slf4j
 @AllArgsConstructor
 public class ServletDataPayloadAdapter implements DataPayloadAdapter {
 
-    private ContentCachingRequestWrapper request;
-    private ContentCachingResponseWrapper response;
+    private CapturingRequestWrapper request;
+    private CapturingResponseWrapper response;
 
     /**
      * Returns the HTTP method of the request (e.g., GET, POST).
@@ -51,13 +49,27 @@ public class ServletDataPayloadAdapter implements DataPayloadAdapter {
     @Override
     public String getRequestBody() {
         try {
-            return request.getContentAsString();
+            return request.getCapturedBody();
         } catch (Exception e) {
             log.error("Error when trying to get request body: {}", e.getMessage());
         }
         return "";
     }
 
+    /**
+     * Returns the number of bytes of the request body read by the application.
+     */
+    public long getRequestBodySize() {
+        return request.getBodySize();
+    }
+
+    /**
+     * Returns true if {@link #getRequestBody()} is only a prefix of the request body.
+     */
+    public boolean isRequestBodyTruncated() {
+        return request.isBodyTruncated();
+    }
+
     /**
      * Returns the remote address (client IP) of the incoming request.
      */
@@ -83,6 +95,14 @@ public class ServletDataPayloadAdapter implements DataPayloadAdapter {
         return request.getRequestURL().toString();
     }
 
+    /**
+     * Returns the page the request is logged under: the route template Spring MVC matched the request with,
+     * or the full URL if there is none.
+     */
+    public String getRoutePath(RouteTemplates routeTemplates) {
+        return routeTemplates.resolve(request);
+    }
+
     /**
      * Returns a map of request parameters where each parameter name is mapped to its joined value string.
      * <p>
@@ -147,14 +167,27 @@ Example:
     @Override
     public String getResponseBody() {
         try {
-            byte[] contentAsByteArray = response.getContentAsByteArray();
-            return new String(contentAsByteArray);
+            return response.getCapturedBody();
         } catch (Exception e) {
             log.error("Error when trying to get response body: {}", e.getMessage());
         }
         return "";
     }
 
+    /**
+     * Returns the number of bytes of the response body written by the application.
+     */
+    public long getResponseBodySize() {
+        return response.getBodySize();
+    }
+
+    /**
+     * Returns true if {@link #getResponseBody()} is only a prefix of the response body.
+     */
+    public boolean isResponseBodyTruncated() {
+        return response.isBodyTruncated();
+    }
+
     /**
      * Returns the HTTP status code of the response (e.g., 200, 404).
      */
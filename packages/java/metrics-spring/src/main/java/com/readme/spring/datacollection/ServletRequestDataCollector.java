@@ -15,6 +15,8 @@ import org.springframework.stereotype.Component;
 @Component
 public class ServletRequestDataCollector implements RequestDataCollector<ServletDataPayloadAdapter> {
 
+    private final RouteTemplates routeTemplates = new RouteTemplates();
+
     @Override
     public ApiCallLogData collect(ServletDataPayloadAdapter dataPayload) {
         return ApiCallLogData
@@ -32,7 +34,9 @@ public class ServletRequestDataCollector implements RequestDataCollector<Servlet
                 .remoteAddress(dataPayload.getAddress())
                 .headers(dataPayload.getRequestHeaders())
                 .body(dataPayload.getRequestBody())
-                .routePath(dataPayload.getUrl())
+                .bodySize(dataPayload.getRequestBodySize())
+                .bodyTruncated(dataPayload.isRequestBodyTruncated())
+                .routePath(dataPayload.getRoutePath(routeTemplates))
                 .requestParameters(dataPayload.getRequestParameters())
                 .build();
     }
@@ -41,6 +45,8 @@ public class ServletRequestDataCollector implements RequestDataCollector<Servlet
         return ResponseData.builder()
                 .headers(dataPayload.getResponseHeaders())
                 .body(dataPayload.getResponseBody())
+                .bodySize(dataPayload.getResponseBodySize())
+                .bodyTruncated(dataPayload.isResponseBodyTruncated())
                 .statusCode(dataPayload.getStatusCode())
                 .statusMessage(dataPayload.getStatusMessage())
                 .build();
@@ -0,0 +1,61 @@
+package com.readme.spring.datacollection;
+
+import com.readme.core.dataextraction.BodyCapturePool;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CapturingRequestWrapperTest {
+
+    @Test
+    void getInputStream_ShouldCapturePrefixAndCountAllBytes() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/birds");
+        request.setContent("0123456789".getBytes(StandardCharsets.UTF_8));
+        CapturingRequestWrapper wrapper = new CapturingRequestWrapper(request, new BodyCapturePool(4, 1).acquire());
+
+        byte[] read = wrapper.getInputStream().readAllBytes();
+
+        assertEquals("0123456789", new String(read, StandardCharsets.UTF_8));
+        assertEquals("0123", wrapper.getCapturedBody());
+        assertEquals(10, wrapper.getBodySize());
+        assertTrue(wrapper.isBodyTruncated());
+    }
+
+    @Test
+    void getCapturedBody_ShouldRebuildFormBody_WhenBodyWasReadAsParameters() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/birds");
+        request.setContentType("application/x-www-form-urlencoded");
+        request.addParameter("name", "Kiwi");
+        CapturingRequestWrapper wrapper = new CapturingRequestWrapper(request, new BodyCapturePool().acquire());
+
+        assertEquals("name=Kiwi", wrapper.getCapturedBody());
+    }
+
+    @Test
+    void getCapturedBody_ShouldCutRebuiltFormBody_ToCaptureLimit() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/birds");
+        request.setContentType("application/x-www-form-urlencoded");
+        request.addParameter("name", "Kiwi");
+        request.addParameter("wings", "2");
+        CapturingRequestWrapper wrapper = new CapturingRequestWrapper(request, new BodyCapturePool(6, 1).acquire());
+
+        assertEquals("name=K", wrapper.getCapturedBody());
+        assertEquals("name=Kiwi&wings=2".length(), wrapper.getBodySize());
+        assertTrue(wrapper.isBodyTruncated());
+    }
+
+    @Test
+    void getCapturedBody_ShouldNotRebuildFormBody_WhenCaptureIsDisabled() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/birds");
+        request.setContentType("application/x-www-form-urlencoded");
+        request.addParameter("name", "Kiwi");
+        CapturingRequestWrapper wrapper = new CapturingRequestWrapper(request, new BodyCapturePool(0, 1).acquire());
+
+        assertEquals("", wrapper.getCapturedBody());
+        assertEquals(0, wrapper.getBodySize());
+    }
+
+}
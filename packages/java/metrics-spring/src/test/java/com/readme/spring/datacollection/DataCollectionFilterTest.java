@@ -1,23 +1,33 @@
 package com.readme.spring.datacollection;
 
+import com.readme.core.dataextraction.BodyCapturePool;
 import com.readme.core.dataextraction.LogOptions;
+import com.readme.core.dataextraction.payload.PayloadData;
 import com.readme.core.dataextraction.payload.requestresponse.RequestDataCollector;
 import com.readme.core.dataextraction.payload.user.UserData;
 import com.readme.core.dataextraction.payload.user.UserDataCollector;
+import com.readme.core.datatransfer.BaseLogUrlResolver;
 import com.readme.core.datatransfer.PayloadDataDispatcher;
-import com.readme.spring.config.ReadmeConfigurationProperties;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.WriteListener;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
-import org.springframework.web.util.ContentCachingRequestWrapper;
-import org.springframework.web.util.ContentCachingResponseWrapper;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 
 class DataCollectionFilterTest {
@@ -41,15 +51,15 @@ class DataCollectionFilterTest {
     private PayloadDataDispatcher payloadDataDispatcher;
 
     @Mock
-    private ReadmeConfigurationProperties readmeProperties;
+    private BaseLogUrlResolver baseLogUrlResolver;
 
     private DataCollectionFilter filter;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        filter = new DataCollectionFilter(readmeProperties, userDataCollector,
-                requestDataCollector, payloadDataDispatcher, LogOptions.builder().build());
+        filter = new DataCollectionFilter(baseLogUrlResolver, userDataCollector,
+                requestDataCollector, payloadDataDispatcher, LogOptions.builder().build(), new BodyCapturePool());
     }
 
     @Test
@@ -63,6 +73,26 @@ class DataCollectionFilterTest {
     }
 
 
+    @Test
+    void doFilter_ShouldSetDocumentationUrl_WhenBaseLogUrlIsResolved() throws Exception {
+        when(request.getMethod()).thenReturn("GET");
+        when(baseLogUrlResolver.getBaseLogUrl()).thenReturn("https://example.readme.io");
+
+        filter.doFilter(request, response, chain);
+
+        verify(response).setHeader(eq("x-documentation-url"), startsWith("https://example.readme.io/logs/"));
+    }
+
+    @Test
+    void doFilter_ShouldSkipDocumentationUrl_WhenBaseLogUrlIsNotResolvedYet() throws Exception {
+        when(request.getMethod()).thenReturn("GET");
+
+        filter.doFilter(request, response, chain);
+
+        verify(response, never()).setHeader(eq("x-documentation-url"), anyString());
+        verify(chain).doFilter(any(CapturingRequestWrapper.class), any(CapturingResponseWrapper.class));
+    }
+
     @Test
     void doFilter_GetRequest_ShouldProcessAndCollectData() throws Exception {
         when(request.getMethod()).thenReturn("GET");
@@ -94,18 +124,80 @@ class DataCollectionFilterTest {
     }
 
 
+    @Test
+    void doFilter_AsyncRequest_ShouldCollectDataOnCompletion() throws Exception {
+        AsyncContext asyncContext = mock(AsyncContext.class);
+        when(request.getMethod()).thenReturn("GET");
+        when(request.isAsyncStarted()).thenReturn(true);
+        when(request.getAsyncContext()).thenReturn(asyncContext);
+        when(userDataCollector.collect(any(ServletDataPayloadAdapter.class))).thenReturn(getMockedUserData());
+
+        filter.doFilter(request, response, chain);
+
+        ArgumentCaptor<AsyncListener> listenerCaptor = ArgumentCaptor.forClass(AsyncListener.class);
+        verify(asyncContext).addListener(listenerCaptor.capture());
+        verifyNoInteractions(userDataCollector, requestDataCollector, payloadDataDispatcher);
+
+        listenerCaptor.getValue().onComplete(new AsyncEvent(asyncContext));
+
+        verify(userDataCollector).collect(any(ServletDataPayloadAdapter.class));
+        verify(payloadDataDispatcher).dispatchAsync(any(PayloadData.class), any(LogOptions.class));
+    }
+
+    @Test
+    void doFilter_AsyncDispatch_ShouldPassThroughWithoutCollecting() throws Exception {
+        when(request.getDispatcherType()).thenReturn(DispatcherType.ASYNC);
+
+        filter.doFilter(request, response, chain);
+
+        verify(chain).doFilter(request, response);
+        verifyNoInteractions(userDataCollector, requestDataCollector, payloadDataDispatcher);
+    }
+
+    @Test
+    void doFilter_ChainThrowsAfterWriting_ShouldFlushWrittenCharacters() throws Exception {
+        when(request.getMethod()).thenReturn("GET");
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        when(response.getCharacterEncoding()).thenReturn("UTF-8");
+        when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+
+            @Override
+            public void write(int b) {
+                written.write(b);
+            }
+        });
+        doAnswer(invocation -> {
+            ServletResponse wrapper = invocation.getArgument(1);
+            wrapper.getWriter().write("partial body");
+            throw new ServletException("Handler failed");
+        }).when(chain).doFilter(any(), any());
+
+        filter.doFilter(request, response, chain);
+
+        assertEquals("partial body", written.toString(StandardCharsets.UTF_8));
+    }
+
     private void testChain() throws IOException, ServletException {
         UserData userData = getMockedUserData();
         when(userDataCollector.collect(any(ServletDataPayloadAdapter.class))).thenReturn(userData);
 
         filter.doFilter(request, response, chain);
 
-        verify(chain).doFilter(any(ContentCachingRequestWrapper.class), any(ContentCachingResponseWrapper.class));
+        verify(chain).doFilter(any(CapturingRequestWrapper.class), any(CapturingResponseWrapper.class));
 
         ArgumentCaptor<ServletDataPayloadAdapter> payloadCaptor = ArgumentCaptor.forClass(ServletDataPayloadAdapter.class);
 
         verify(userDataCollector).collect(payloadCaptor.capture());
         verify(requestDataCollector).collect(eq(payloadCaptor.getValue()));
+        verify(payloadDataDispatcher).dispatchAsync(any(PayloadData.class), any(LogOptions.class));
     }
 
     private static UserData getMockedUserData() {
@@ -124,7 +216,7 @@ class DataCollectionFilterTest {
 
         filter.doFilter(request, response, chain);
 
-        verify(chain).doFilter(any(ContentCachingRequestWrapper.class), any(ContentCachingResponseWrapper.class));
+        verify(chain).doFilter(any(CapturingRequestWrapper.class), any(CapturingResponseWrapper.class));
         verify(requestDataCollector, never()).collect(any());
         verifyNoMoreInteractions(requestDataCollector);
     }
@@ -140,7 +232,7 @@ class DataCollectionFilterTest {
 
         filter.doFilter(request, response, chain);
 
-        verify(chain).doFilter(any(ContentCachingRequestWrapper.class), any(ContentCachingResponseWrapper.class));
+        verify(chain).doFilter(any(CapturingRequestWrapper.class), any(CapturingResponseWrapper.class));
         verify(userDataCollector).collect(any(ServletDataPayloadAdapter.class));
     }
 }
\ No newline at end of file
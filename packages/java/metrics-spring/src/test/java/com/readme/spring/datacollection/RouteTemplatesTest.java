@@ -0,0 +1,58 @@
+package com.readme.spring.datacollection;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteTemplatesTest {
+
+    private final RouteTemplates routeTemplates = new RouteTemplates();
+
+    @Test
+    void resolve_ShouldReturnRouteTemplate_ForAllRequestsToTheSameRoute() {
+        String first = routeTemplates.resolve(request("/birds/1", "/birds/{id}"));
+        String second = routeTemplates.resolve(request("/birds/2", "/birds/{id}"));
+
+        assertEquals("https://owl-bowl.abc/birds/{id}", first);
+        assertSame(first, second);
+    }
+
+    @Test
+    void resolve_ShouldKeepContextPathAndNonDefaultPort() {
+        MockHttpServletRequest request = request("/zoo/birds/1", "/birds/{id}");
+        request.setContextPath("/zoo");
+        request.setServerPort(8443);
+
+        assertEquals("https://owl-bowl.abc:8443/zoo/birds/{id}", routeTemplates.resolve(request));
+    }
+
+    @Test
+    void resolve_ShouldFallBackToRequestUrl_WhenNoRouteWasMatched() {
+        MockHttpServletRequest request = request("/static/owl.png", null);
+
+        assertEquals("https://owl-bowl.abc/static/owl.png", routeTemplates.resolve(request));
+    }
+
+    @Test
+    void resolve_ShouldStillResolve_WhenCacheIsFull() {
+        for (int i = 0; i < RouteTemplates.MAX_CACHED_ROUTES_PER_ORIGIN; i++) {
+            routeTemplates.resolve(request("/birds/" + i, "/birds/" + i));
+        }
+
+        assertEquals("https://owl-bowl.abc/nests/{id}", routeTemplates.resolve(request("/nests/1", "/nests/{id}")));
+    }
+
+    private static MockHttpServletRequest request(String uri, String pattern) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setScheme("https");
+        request.setServerName("owl-bowl.abc");
+        request.setServerPort(443);
+        if (pattern != null) {
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        }
+        return request;
+    }
+
+}
@@ -9,8 +9,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
-import org.springframework.web.util.ContentCachingRequestWrapper;
-import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.servlet.HandlerMapping;
 
 import java.util.Collections;
 import java.util.List;
@@ -29,10 +28,10 @@ class ServletRequestDataCollectorTest {
     private ServletRequestDataCollector servletRequestDataCollector;
 
     @MockBean
-    private ContentCachingRequestWrapper requestMock;
+    private CapturingRequestWrapper requestMock;
 
     @MockBean
-    private ContentCachingResponseWrapper responseMock;
+    private CapturingResponseWrapper responseMock;
 
     @Test
     void collect_ShouldReturnApiCallLogData_WithCorrectRequestAndResponseData() {
@@ -61,6 +60,21 @@ class ServletRequestDataCollectorTest {
         assertEquals(Map.of("content-type", "application/json"), responseData.getHeaders());
     }
 
+    @Test
+    void collect_ShouldUseRouteTemplateAsRoutePath_WhenRouteWasMatched() {
+        ServletDataPayloadAdapter dataPayload = createStubServletDataPayloadAdapter();
+        when(requestMock.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE)).thenReturn("/birds/{id}");
+        when(requestMock.getScheme()).thenReturn("http");
+        when(requestMock.getServerName()).thenReturn("owl-bowl.abc");
+        when(requestMock.getServerPort()).thenReturn(80);
+        when(requestMock.getContextPath()).thenReturn("");
+
+        RequestData requestData = servletRequestDataCollector.collect(dataPayload).getRequestData();
+
+        assertEquals("http://owl-bowl.abc", requestData.getUrl());
+        assertEquals("http://owl-bowl.abc/birds/{id}", requestData.getRoutePath());
+    }
+
     @Test
     void collect_ShouldHandleNullHeaders() {
         when(requestMock.getHeaderNames()).thenReturn(null);
@@ -77,7 +91,7 @@ class ServletRequestDataCollectorTest {
     @Test
     void collect_ShouldHandleExceptionDuringRequestBodyRead() {
         ServletDataPayloadAdapter dataPayload = createStubServletDataPayloadAdapter();
-        when(requestMock.getContentAsString()).thenThrow(new RuntimeException("Test exception"));
+        when(requestMock.getCapturedBody()).thenThrow(new RuntimeException("Test exception"));
 
         ApiCallLogData result = servletRequestDataCollector.collect(dataPayload);
 
@@ -88,7 +102,7 @@ class ServletRequestDataCollectorTest {
     private ServletDataPayloadAdapter createStubServletDataPayloadAdapter() {
         when(requestMock.getMethod()).thenReturn("GET");
         when(requestMock.getContentType()).thenReturn("application/json");
-        when(requestMock.getContentAsString()).thenReturn("{}");
+        when(requestMock.getCapturedBody()).thenReturn("{}");
         when(requestMock.getRemoteAddr()).thenReturn("127.0.0.1");
         when(requestMock.getProtocol()).thenReturn("HTTP/1.1");
         when(requestMock.getRequestURL()).thenReturn(new StringBuffer("http://owl-bowl.abc"));
@@ -96,7 +110,7 @@ class ServletRequestDataCollectorTest {
         when(requestMock.getHeaderNames()).thenReturn(Collections.enumeration(List.of("authorization")));
         when(requestMock.getHeader("authorization")).thenReturn("Bearer token");
 
-        when(responseMock.getContentAsByteArray()).thenReturn("{\"status\":\"ok\"}".getBytes());
+        when(responseMock.getCapturedBody()).thenReturn("{\"status\":\"ok\"}");
         when(responseMock.getStatus()).thenReturn(200);
         when(responseMock.getHeaderNames()).thenReturn(Set.of("content-type"));
         when(responseMock.getHeader("content-type")).thenReturn("application/json");
@@ -1,21 +1,39 @@
 package com.readme.spring.config;
 
 import com.readme.core.config.CoreConfig;
+import com.readme.core.config.HttpClientOptions;
+import com.readme.core.config.HttpProtocol;
+import com.readme.core.config.HttpTransport;
+import com.readme.core.config.ReadmeCredentials;
+import com.readme.core.config.RetryPolicy;
 
+import com.readme.core.dataextraction.BodyCapturePool;
 import com.readme.core.dataextraction.LogOptions;
 import com.readme.core.dataextraction.payload.requestresponse.RequestDataCollector;
 import com.readme.core.dataextraction.payload.user.UserDataCollector;
+import com.readme.core.datatransfer.BaseLogUrlFetcher;
+import com.readme.core.datatransfer.BaseLogUrlResolver;
 import com.readme.core.datatransfer.DataSender;
+import com.readme.core.datatransfer.DispatchExecutors;
+import com.readme.core.datatransfer.HttpClients;
 import com.readme.core.datatransfer.HttpDataSender;
+import com.readme.core.datatransfer.JdkHttpDataSender;
+import com.readme.core.datatransfer.JsonMappers;
 import com.readme.core.datatransfer.OutgoingLogBodyConstructor;
 import com.readme.core.datatransfer.PayloadDataDispatcher;
+import com.readme.core.datatransfer.collector.UnixSocketDataSender;
+import com.readme.core.datatransfer.export.NdjsonFileDataSender;
+import com.readme.core.datatransfer.spool.DiskSpool;
+import com.readme.core.datatransfer.spool.SpoolingDataSender;
 import com.readme.spring.datacollection.DataCollectionFilter;
 import com.readme.spring.datacollection.ServletDataPayloadAdapter;
 import com.readme.spring.datacollection.userinfo.ServletUserDataCollector;
 import com.readme.spring.datacollection.userinfo.UserDataExtractor;
 import javax.annotation.PostConstruct;
+import javax.servlet.DispatcherType;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.logging.LogLevel;
@@ -27,6 +45,15 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
 import org.springframework.core.env.Environment;
 
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
  * Configuration class for registering and initializing the JakartaDataCollectionFilter
  * along with its dependencies in a Spring Boot application.
@@ -50,6 +77,10 @@ public class DataCollectionAutoConfiguration {
 
     private final Environment environment;
 
+    private final AtomicReference<OkHttpClient> okHttpClient = new AtomicReference<>();
+
+    private final AtomicReference<HttpClient> jdkHttpClient = new AtomicReference<>();
+
     /**
      * Configures logging level for ReadMe SDK based on application properties.
      */
@@ -62,25 +93,74 @@ public class DataCollectionAutoConfiguration {
     /**
      * Registers the {@link DataCollectionFilter} as a servlet filter to intercept HTTP requests.
      *
+     * @param baseLogUrlResolver    provides the base URL of the documentation links without blocking
      * @param requestDataCollector  component to extract request details
      * @param userDataCollector     component to extract user-specific data
      * @param payloadDataDispatcher component responsible for sending collected data
      * @param logOptions            configuration options for logging
+     * @param bodyCapturePool       buffers keeping the logged prefix of the bodies
      * @return a configured {@link FilterRegistrationBean} for data collection
      */
     @Bean
     public FilterRegistrationBean<DataCollectionFilter> metricsFilter(
+            BaseLogUrlResolver baseLogUrlResolver,
             RequestDataCollector<ServletDataPayloadAdapter> requestDataCollector,
             UserDataCollector<ServletDataPayloadAdapter> userDataCollector,
             PayloadDataDispatcher payloadDataDispatcher,
-            LogOptions logOptions) {
+            LogOptions logOptions,
+            BodyCapturePool bodyCapturePool) {
         FilterRegistrationBean<DataCollectionFilter> registrationBean = new FilterRegistrationBean<>();
-        registrationBean.setFilter(new DataCollectionFilter(readmeProperties, userDataCollector, requestDataCollector, payloadDataDispatcher, logOptions));
+        registrationBean.setFilter(new DataCollectionFilter(baseLogUrlResolver, userDataCollector, requestDataCollector, payloadDataDispatcher, logOptions, bodyCapturePool));
         registrationBean.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        registrationBean.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
         registrationBean.addUrlPatterns("/*");
         return registrationBean;
     }
 
+    /**
+     * Derives the credentials from the configured API key once, so the filter, the sender and the
+     * base log URL lookup share them instead of encoding the key for every request.
+     *
+     * @return the {@link ReadmeCredentials} of the configured project
+     */
+    @Bean
+    @ConditionalOnMissingBean(ReadmeCredentials.class)
+    public ReadmeCredentials readmeCredentials() {
+        return ReadmeCredentials.of(readmeProperties.getReadmeApiKey());
+    }
+
+    /**
+     * Provides the buffers into which the filter copies the logged prefix of the request and response bodies.
+     *
+     * @return a {@link BodyCapturePool} capturing up to <code>readme.maxCapturedBodyBytes</code> per body
+     */
+    @Bean
+    @ConditionalOnMissingBean(BodyCapturePool.class)
+    public BodyCapturePool bodyCapturePool() {
+        return new BodyCapturePool(readmeProperties.getMaxCapturedBodyBytes(), BodyCapturePool.DEFAULT_MAX_POOLED_BUFFERS);
+    }
+
+    /**
+     * Looks up the base URL of the project's logs in the background at startup and keeps it fresh,
+     * so requests never wait for the ReadMe API. Nothing is looked up if the base URL is configured.
+     *
+     * @param readmeCredentials API key and the values derived from it
+     * @param logOptions        configuration options for logging
+     * @return a started {@link BaseLogUrlResolver}, closed with the context
+     */
+    @Bean
+    @ConditionalOnMissingBean(BaseLogUrlResolver.class)
+    public BaseLogUrlResolver baseLogUrlResolver(ReadmeCredentials readmeCredentials, LogOptions logOptions) {
+        BaseLogUrlFetcher fetcher = readmeProperties.getTransport() == HttpTransport.JDK
+                ? new BaseLogUrlFetcher(jdkHttpClient())
+                : new BaseLogUrlFetcher(okHttpClient());
+        BaseLogUrlResolver resolver = new BaseLogUrlResolver(readmeCredentials, fetcher);
+        if (logOptions.getBaseLogUrl() == null) {
+            resolver.start();
+        }
+        return resolver;
+    }
+
     /**
      * Provides a default implementation of {@link UserDataCollector} if none is defined in the context.
      *
@@ -98,41 +178,106 @@ public class DataCollectionAutoConfiguration {
 
     /**
      * Creates and configures the component responsible for sending log data to ReadMe API.
+     * With virtual threads enabled, asynchronous (fire-and-forget) calls are executed on virtual threads.
+     * With a spool directory configured, batches that could not be sent are spooled to disk and resent later.
+     * With the OkHttp transport, the HTTP client is shared with the {@link BaseLogUrlResolver} of the same
+     * context, so the SDK uses a single connection pool. With a collector socket configured, logs are handed
+     * over to a local collector instead, and with an export directory configured, they are written to local files;
+     * the context fails to start if that directory cannot be opened.
+     * Applications can plug in their own transport by defining a {@link DataSender} bean.
      *
+     * @param readmeCredentials API key and the values derived from it
+     * @param jsonMappers       JSON configuration serializing the logs
      * @return an instance of {@link DataSender}.
      */
     @Bean
-    public DataSender dataSender() {
-        String readmeApiKey = readmeProperties.getReadmeApiKey();
+    @ConditionalOnMissingBean(DataSender.class)
+    public DataSender dataSender(ReadmeCredentials readmeCredentials, JsonMappers jsonMappers) {
+        RetryPolicy retryPolicy = RetryPolicy.builder()
+                .maxRetries(readmeProperties.getMaxRetries())
+                .maxDelayMillis(readmeProperties.getRetryMaxDelayMillis())
+                .circuitBreakerFailureThreshold(readmeProperties.getCircuitBreakerFailureThreshold())
+                .circuitBreakerOpenMillis(readmeProperties.getCircuitBreakerOpenMillis())
+                .build();
         CoreConfig coreConfig = CoreConfig.builder()
-                .readmeAPIKey(readmeApiKey)
+                .credentials(readmeCredentials)
+                .retryPolicy(retryPolicy)
+                .contentEncoding(readmeProperties.getCompression())
+                .compressionMinBytes(readmeProperties.getCompressionMinBytes())
+                .maxInFlightBatches(readmeProperties.getMaxInFlightBatches())
+                .maxInFlightBytes(readmeProperties.getMaxInFlightBytes())
+                .inFlightAdmissionTimeoutMillis(readmeProperties.getInFlightAdmissionTimeoutMillis())
+                .metricsUrl(readmeProperties.getMetricsUrl())
+                .maxRequestBytes(readmeProperties.getMaxRequestBytes())
                 .build();
-        OkHttpClient okHttpClient = new OkHttpClient();
+        DataSender httpDataSender = transportDataSender(coreConfig, jsonMappers);
+        String spoolDirectory = readmeProperties.getSpoolDirectory();
+        if (spoolDirectory == null || spoolDirectory.isEmpty()) {
+            return httpDataSender;
+        }
+        try {
+            DiskSpool spool = new DiskSpool(Paths.get(spoolDirectory),
+                    DiskSpool.DEFAULT_MAX_SEGMENT_BYTES, readmeProperties.getSpoolMaxDiskBytes());
+            return new SpoolingDataSender(httpDataSender, spool,
+                    SpoolingDataSender.DEFAULT_REPLAY_INTERVAL_MILLIS, jsonMappers);
+        } catch (IOException e) {
+            log.error("readme-metrics: Cannot open the spool directory {}, undelivered logs will not be spooled",
+                    spoolDirectory, e);
+            return httpDataSender;
+        }
+    }
 
-        return new HttpDataSender(okHttpClient, coreConfig);
+    /**
+     * Provides the JSON configuration of the SDK, shared by the components reading or writing JSON.
+     *
+     * @return the {@link JsonMappers#shared()} instance
+     */
+    @Bean
+    @ConditionalOnMissingBean(JsonMappers.class)
+    public JsonMappers readmeJsonMappers() {
+        return JsonMappers.shared();
     }
 
     /**
      * Provides the component that transforms request/response/user data into HAR format.
      *
+     * @param jsonMappers JSON configuration filtering the JSON bodies
      * @return an instance of {@link OutgoingLogBodyConstructor}.
      */
     @Bean
-    public OutgoingLogBodyConstructor outgoingPayloadConstructor() {
-        return new OutgoingLogBodyConstructor();
+    public OutgoingLogBodyConstructor outgoingPayloadConstructor(JsonMappers jsonMappers) {
+        return new OutgoingLogBodyConstructor(jsonMappers);
     }
 
     /**
      * Instantiates the dispatcher responsible for buffering and sending payloads.
+     * The dispatcher processes collected data on its own executor configured by
+     * {@link ReadmeConfigurationProperties}: a bounded pool of platform threads or virtual threads.
      *
      * @param dataSender             component to send data over HTTP
      * @param outgoingLogConstructor component to build HAR-like logs from payload data
+     * @param logOptions             configuration options for buffering and flushing
      * @return a configured {@link PayloadDataDispatcher}
      */
     @Bean
     public PayloadDataDispatcher payloadDataDispatcher(DataSender dataSender,
-                                                       OutgoingLogBodyConstructor outgoingLogConstructor) {
-        return new PayloadDataDispatcher(dataSender, outgoingLogConstructor);
+                                                       OutgoingLogBodyConstructor outgoingLogConstructor,
+                                                       LogOptions logOptions) {
+        ExecutorService dispatchExecutor = DispatchExecutors.newDispatchExecutor(readmeProperties.isVirtualThreads(),
+                readmeProperties.getDispatchThreads(), readmeProperties.getDispatchQueueCapacity());
+        return new PayloadDataDispatcher(dataSender, outgoingLogConstructor, logOptions, dispatchExecutor);
+    }
+
+    /**
+     * Drains the dispatcher when the application context is stopped, after the web server
+     * has stopped accepting requests.
+     *
+     * @param payloadDataDispatcher dispatcher holding the buffered logs
+     * @return a lifecycle bean bound to the dispatcher
+     */
+    @Bean
+    public PayloadDataDispatcherLifecycle payloadDataDispatcherLifecycle(PayloadDataDispatcher payloadDataDispatcher) {
+        return new PayloadDataDispatcherLifecycle(payloadDataDispatcher, readmeProperties.getShutdownTimeoutMillis());
     }
 
     /**
@@ -145,4 +290,110 @@ public class DataCollectionAutoConfiguration {
     public LogOptions logOptions() {
         return LogOptions.builder().build();
     }
+
+    private DataSender transportDataSender(CoreConfig coreConfig, JsonMappers jsonMappers) {
+        String exportDirectory = readmeProperties.getExportDirectory();
+        if (exportDirectory != null && !exportDirectory.isEmpty()) {
+            try {
+                return new NdjsonFileDataSender(Paths.get(exportDirectory), NdjsonFileDataSender.DEFAULT_MAX_FILE_BYTES,
+                        NdjsonFileDataSender.DEFAULT_MAX_FILE_AGE_MILLIS, jsonMappers);
+            } catch (IOException e) {
+                // falling back to ReadMe would turn a misconfiguration into network egress
+                throw new IllegalStateException("Cannot open the ReadMe export directory " + exportDirectory, e);
+            }
+        }
+        String collectorSocket = readmeProperties.getCollectorSocket();
+        if (collectorSocket != null && !collectorSocket.isEmpty()) {
+            try {
+                return new UnixSocketDataSender(Paths.get(collectorSocket), coreConfig,
+                        UnixSocketDataSender.DEFAULT_WRITE_TIMEOUT_MILLIS, jsonMappers);
+            } catch (IllegalStateException e) {
+                log.error("readme-metrics: {}, logs are sent to ReadMe directly", e.getMessage());
+            }
+        }
+        return readmeProperties.getTransport() == HttpTransport.JDK
+                ? jdkHttpDataSender(coreConfig, httpClientOptions(), jsonMappers)
+                : okHttpDataSender(coreConfig, httpClientOptions(), jsonMappers);
+    }
+
+    private DataSender okHttpDataSender(CoreConfig coreConfig, HttpClientOptions httpClientOptions,
+                                        JsonMappers jsonMappers) {
+        OkHttpClient okHttpClient = okHttpClient();
+        if (httpClientOptions.isWarmUp()) {
+            HttpClients.warmUp(okHttpClient, coreConfig.getMetricsUrl());
+        }
+        return new HttpDataSender(okHttpClient, coreConfig, jsonMappers);
+    }
+
+    private DataSender jdkHttpDataSender(CoreConfig coreConfig, HttpClientOptions httpClientOptions,
+                                         JsonMappers jsonMappers) {
+        HttpClient httpClient = jdkHttpClient();
+        if (httpClientOptions.isWarmUp()) {
+            JdkHttpDataSender.warmUp(httpClient, coreConfig.getMetricsUrl());
+        }
+        return new JdkHttpDataSender(httpClient, coreConfig, Duration.ofMillis(httpClientOptions.getCallTimeoutMillis()),
+                jsonMappers);
+    }
+
+    /**
+     * Returns the OkHttp client of this context, created on first use. It is shared by the sender and the
+     * base log URL lookups, so they use a single connection pool, but not with other contexts in the JVM.
+     */
+    private OkHttpClient okHttpClient() {
+        return okHttpClient.updateAndGet(client -> {
+            if (client != null) {
+                return client;
+            }
+            OkHttpClient.Builder okHttpClientBuilder = HttpClients.newClientBuilder(httpClientOptions());
+            if (useVirtualThreads()) {
+                okHttpClientBuilder.dispatcher(new Dispatcher(DispatchExecutors.newVirtualThreadPerTaskExecutor()));
+            }
+            return okHttpClientBuilder.build();
+        });
+    }
+
+    /**
+     * Returns the JDK HTTP client of this context, created on first use, when the JDK transport is configured.
+     * Like {@link #okHttpClient()}, it is shared by the sender and the base log URL lookups.
+     */
+    private HttpClient jdkHttpClient() {
+        return jdkHttpClient.updateAndGet(client -> {
+            if (client != null) {
+                return client;
+            }
+            return JdkHttpDataSender.newHttpClient(httpClientOptions(),
+                    useVirtualThreads() ? DispatchExecutors.newVirtualThreadPerTaskExecutor() : null);
+        });
+    }
+
+    private HttpClientOptions httpClientOptions() {
+        List<HttpProtocol> protocols = new ArrayList<>();
+        if (readmeProperties.getHttpProtocols() != null) {
+            for (String protocol : readmeProperties.getHttpProtocols()) {
+                try {
+                    protocols.add(HttpProtocol.get(protocol.trim()));
+                } catch (IllegalArgumentException e) {
+                    log.error("readme-metrics: Unknown HTTP protocol {} is ignored", protocol);
+                }
+            }
+        }
+        List<HttpProtocol> usableProtocols = HttpProtocol.withFallback(protocols);
+        if (usableProtocols.size() > protocols.size()) {
+            log.warn("readme-metrics: http/1.1 is added to the HTTP protocols {} as the required fallback", protocols);
+        }
+        return HttpClientOptions.builder()
+                .maxIdleConnections(readmeProperties.getHttpMaxIdleConnections())
+                .keepAliveMillis(readmeProperties.getHttpKeepAliveMillis())
+                .connectTimeoutMillis(readmeProperties.getHttpConnectTimeoutMillis())
+                .readTimeoutMillis(readmeProperties.getHttpReadTimeoutMillis())
+                .writeTimeoutMillis(readmeProperties.getHttpWriteTimeoutMillis())
+                .callTimeoutMillis(readmeProperties.getHttpCallTimeoutMillis())
+                .protocols(usableProtocols)
+                .warmUp(readmeProperties.isHttpWarmUp())
+                .build();
+    }
+
+    private boolean useVirtualThreads() {
+        return readmeProperties.isVirtualThreads() && DispatchExecutors.isVirtualThreadSupported();
+    }
 }
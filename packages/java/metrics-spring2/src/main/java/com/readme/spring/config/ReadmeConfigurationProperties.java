@@ -1,9 +1,22 @@
 package com.readme.spring.config;
 
+import com.readme.core.config.ContentEncoding;
+import com.readme.core.config.CoreConfig;
+import com.readme.core.config.HttpClientOptions;
+import com.readme.core.config.HttpTransport;
+import com.readme.core.config.RetryPolicy;
+import com.readme.core.dataextraction.BodyCapturePool;
+import com.readme.core.datatransfer.DispatchExecutors;
+import com.readme.core.datatransfer.PayloadDataDispatcher;
+import com.readme.core.datatransfer.spool.DiskSpool;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
+import static com.readme.core.config.ReadmeApiConfig.README_METRICS_URL;
+
 /**
  * Configuration properties for the ReadMe Metrics SDK.
  * <p>
@@ -26,4 +39,151 @@ public class ReadmeConfigurationProperties {
      */
     private String readmeApiKey;
 
+    /**
+     * Maximum number of bytes of a request or response body kept for logging; the body itself is
+     * streamed through unchanged and its full size is logged. 0 disables body logging.
+     */
+    private int maxCapturedBodyBytes = BodyCapturePool.DEFAULT_MAX_CAPTURED_BYTES;
+
+    /**
+     * Number of threads building and sending collected logs in the background.
+     */
+    private int dispatchThreads = DispatchExecutors.DEFAULT_DISPATCH_THREADS;
+
+    /**
+     * Maximum number of collected requests waiting for a dispatch thread.
+     * Requests collected while the queue is full are dropped instead of blocking the request thread.
+     */
+    private int dispatchQueueCapacity = DispatchExecutors.DEFAULT_DISPATCH_QUEUE_CAPACITY;
+
+    /**
+     * If true and the application runs on Java 21 or newer, logs are built and sent on virtual threads.
+     * Ignored on older Java versions. At most {@code dispatchThreads + dispatchQueueCapacity} logs are
+     * then built or sent at the same time, further ones are dropped.
+     */
+    private boolean virtualThreads;
+
+    /**
+     * Maximum time in milliseconds the application shutdown waits for the buffered logs to be sent.
+     */
+    private long shutdownTimeoutMillis = PayloadDataDispatcher.DEFAULT_SHUTDOWN_TIMEOUT_MILLIS;
+
+    /**
+     * Directory where batches that could not be sent are kept until the ReadMe API is reachable again.
+     * If not set, undelivered batches are only kept in memory.
+     */
+    private String spoolDirectory;
+
+    /**
+     * Maximum disk space in bytes used by the spool. Batches that do not fit are dropped.
+     */
+    private long spoolMaxDiskBytes = DiskSpool.DEFAULT_MAX_DISK_BYTES;
+
+    /**
+     * Number of retries of a failed request to the ReadMe API; 0 disables retries.
+     */
+    private int maxRetries = RetryPolicy.DEFAULT_MAX_RETRIES;
+
+    /**
+     * Maximum delay in milliseconds between two retries.
+     */
+    private long retryMaxDelayMillis = RetryPolicy.DEFAULT_MAX_DELAY_MILLIS;
+
+    /**
+     * Number of consecutive failed requests after which sending is paused; 0 disables the circuit breaker.
+     */
+    private int circuitBreakerFailureThreshold = RetryPolicy.DEFAULT_CIRCUIT_BREAKER_FAILURE_THRESHOLD;
+
+    /**
+     * Time in milliseconds sending is paused before a single probe request is made.
+     */
+    private long circuitBreakerOpenMillis = RetryPolicy.DEFAULT_CIRCUIT_BREAKER_OPEN_MILLIS;
+
+    /**
+     * Compression of the logs sent to the ReadMe API: none, gzip or zstd (requires zstd-jni on the classpath).
+     */
+    private ContentEncoding compression = ContentEncoding.NONE;
+
+    /**
+     * Batches smaller than this estimated number of bytes are sent uncompressed.
+     */
+    private long compressionMinBytes = CoreConfig.DEFAULT_COMPRESSION_MIN_BYTES;
+
+    /**
+     * Maximum number of batches in flight, including every batch of the dispatcher; further batches are rejected.
+     */
+    private int maxInFlightBatches = CoreConfig.DEFAULT_MAX_IN_FLIGHT_BATCHES;
+
+    /**
+     * Maximum estimated size in bytes of the batches in flight, including every batch of the dispatcher;
+     * further batches are rejected.
+     */
+    private long maxInFlightBytes = CoreConfig.DEFAULT_MAX_IN_FLIGHT_BYTES;
+
+    /**
+     * How long in milliseconds a batch may wait for room before it is rejected. A rejected batch of the
+     * dispatcher is put back into its buffer and sent later.
+     */
+    private long inFlightAdmissionTimeoutMillis = CoreConfig.DEFAULT_IN_FLIGHT_ADMISSION_TIMEOUT_MILLIS;
+
+    /**
+     * Maximum estimated size in bytes of one request to ReadMe; larger batches are split before they are sent.
+     * A batch rejected as too large is split in any case, and a single log which is still too large has its
+     * bodies truncated or is dropped.
+     */
+    private long maxRequestBytes = CoreConfig.DEFAULT_MAX_REQUEST_BYTES;
+
+    /**
+     * HTTP client used to send logs: OkHttp, or the JDK's <code>java.net.http.HttpClient</code>.
+     */
+    private HttpTransport transport = HttpTransport.OKHTTP;
+
+    /**
+     * Endpoint the logs are sent to, e.g. a local stand-in for load testing.
+     */
+    private String metricsUrl = README_METRICS_URL;
+
+    /**
+     * Unix domain socket of a local metrics-collector process. If set, logs are handed over to the collector,
+     * which uploads them for all applications on the host, instead of being sent to ReadMe directly.
+     * Requires Java 16 or later.
+     */
+    private String collectorSocket;
+
+    /**
+     * Directory the logs are exported to as rotating NDJSON files instead of being sent to ReadMe,
+     * to be uploaded later with <code>NdjsonBulkUploader</code>. If it cannot be opened, the application
+     * fails to start rather than sending the logs to ReadMe.
+     */
+    private String exportDirectory;
+
+    /**
+     * Maximum number of idle connections to ReadMe kept open.
+     */
+    private int httpMaxIdleConnections = HttpClientOptions.DEFAULT_MAX_IDLE_CONNECTIONS;
+
+    /**
+     * Time in milliseconds an idle connection to ReadMe is kept open.
+     */
+    private long httpKeepAliveMillis = HttpClientOptions.DEFAULT_KEEP_ALIVE_MILLIS;
+
+    private long httpConnectTimeoutMillis = HttpClientOptions.DEFAULT_CONNECT_TIMEOUT_MILLIS;
+
+    private long httpReadTimeoutMillis = HttpClientOptions.DEFAULT_READ_TIMEOUT_MILLIS;
+
+    private long httpWriteTimeoutMillis = HttpClientOptions.DEFAULT_WRITE_TIMEOUT_MILLIS;
+
+    private long httpCallTimeoutMillis = HttpClientOptions.DEFAULT_CALL_TIMEOUT_MILLIS;
+
+    /**
+     * Protocols in order of preference, e.g. <code>h2, http/1.1</code>; the transport's defaults are used if not set.
+     */
+    private List<String> httpProtocols;
+
+    /**
+     * If true, the connection to ReadMe is opened at startup instead of with the first batch.
+     * Off by default, so nothing is sent over the network before there are logs to send.
+     */
+    private boolean httpWarmUp;
+
 }
@@ -1,29 +1,26 @@
 package com.readme.spring.datacollection;
 
+import com.readme.core.dataextraction.BodyCapture;
+import com.readme.core.dataextraction.BodyCapturePool;
 import com.readme.core.dataextraction.LogOptions;
 import com.readme.core.dataextraction.payload.PayloadData;
 import com.readme.core.dataextraction.payload.requestresponse.ApiCallLogData;
 import com.readme.core.dataextraction.payload.requestresponse.RequestDataCollector;
 import com.readme.core.dataextraction.payload.user.UserData;
 import com.readme.core.dataextraction.payload.user.UserDataCollector;
+import com.readme.core.datatransfer.BaseLogUrlResolver;
 import com.readme.core.datatransfer.PayloadDataDispatcher;
 import javax.servlet.*;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import com.readme.core.datatransfer.ReadmeApiKeyEncoder;
-import com.readme.spring.config.ReadmeConfigurationProperties;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.web.util.ContentCachingRequestWrapper;
-import org.springframework.web.util.ContentCachingResponseWrapper;
 import java.io.IOException;
 import java.util.Date;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 
 import static com.readme.core.dataextraction.payload.PayloadData.*;
-import static com.readme.core.datatransfer.BaseLogUrlFetcher.fetchBaseLogUrl;
 import static org.springframework.http.HttpMethod.OPTIONS;
 
 /**
@@ -36,7 +33,7 @@ import static org.springframework.http.HttpMethod.OPTIONS;
 @Slf4j
 public class DataCollectionFilter implements Filter {
 
-    private ReadmeConfigurationProperties readmeProperties;
+    private BaseLogUrlResolver baseLogUrlResolver;
 
     private UserDataCollector<ServletDataPayloadAdapter> userDataCollector;
 
@@ -46,11 +43,24 @@ public class DataCollectionFilter implements Filter {
 
     private LogOptions logOptions;
 
+    private BodyCapturePool bodyCapturePool;
+
+    static final String RESPONSE_WRAPPER_ATTRIBUTE = DataCollectionFilter.class.getName() + ".RESPONSE_WRAPPER";
+
     /**
      * Intercepts HTTP requests and responses to extract structured log data for ReadMe metrics.
      * <p>
      * For non-OPTIONS requests, this method wraps the request/response, collects user and API call data,
-     * and asynchronously sends it via {@link PayloadDataDispatcher}.
+     * and hands it over to {@link PayloadDataDispatcher}, which processes it on its own executor.
+     * The wrappers stream the bodies through and only keep a bounded prefix of them for logging.
+     * <p>
+     * If the handler started async processing, e.g. by returning a {@code CompletableFuture},
+     * {@code DeferredResult} or {@code Callable}, the response is not produced yet when the chain returns.
+     * The data is then collected by an {@link AsyncListener} once the async request completes, and the
+     * container thread is released right away.
+     * <p>
+     * Exceptions thrown by the chain are logged and not rethrown; the characters the application wrote
+     * before are still flushed to the client.
      *
      * @param req   the incoming {@link ServletRequest}
      * @param resp  the outgoing {@link ServletResponse}
@@ -60,52 +70,129 @@ public class DataCollectionFilter implements Filter {
      */
     @Override
     public void doFilter(ServletRequest req, ServletResponse resp, FilterChain chain) throws IOException, ServletException {
-        ContentCachingRequestWrapper request = new ContentCachingRequestWrapper((HttpServletRequest) req);
-        ContentCachingResponseWrapper response = new ContentCachingResponseWrapper((HttpServletResponse) resp);
+        if (req.getDispatcherType() == DispatcherType.ASYNC) {
+            doFilterAsyncDispatch(req, resp, chain);
+            return;
+        }
+
+        BodyCapture requestCapture = bodyCapturePool.acquire();
+        BodyCapture responseCapture = bodyCapturePool.acquire();
+        CapturingRequestWrapper request = new CapturingRequestWrapper((HttpServletRequest) req, requestCapture);
+        CapturingResponseWrapper response = new CapturingResponseWrapper((HttpServletResponse) resp, responseCapture);
 
         PayloadDataBuilder payloadDataBuilder = PayloadData.builder();
         payloadDataBuilder.requestStartedDateTime(new Date());
 
+        boolean collectedOnCompletion = false;
         try {
             if (request.getMethod().equalsIgnoreCase(OPTIONS.name())) {
                 chain.doFilter(req, resp);
             } else {
                 setDocumentationUrl(payloadDataBuilder, response);
                 chain.doFilter(request, response);
-                ServletDataPayloadAdapter payload =
-                        new ServletDataPayloadAdapter(request, response);
-
-                UserData userData = userDataCollector.collect(payload);
-                payloadDataBuilder.userData(userData);
-
-                ApiCallLogData apiCallLogData = requestDataCollector.collect(payload);
-                payloadDataBuilder.apiCallLogData(apiCallLogData);
-                payloadDataBuilder.responseEndDateTime(new Date());
-
-                PayloadData payloadData = payloadDataBuilder.build();
-                response.copyBodyToResponse();
-
-                CompletableFuture.runAsync(() -> {
-                    try {
-                        payloadDispatcher.dispatch(payloadData, logOptions);
-                        log.info("Data dispatched successfully");
-                    } catch (Exception e) {
-                        log.error("Error occurred while sending payload data", e.getMessage());
-                    }
-                });
+                if (request.isAsyncStarted()) {
+                    request.setAttribute(RESPONSE_WRAPPER_ATTRIBUTE, response);
+                    request.getAsyncContext().addListener(
+                            new CollectingAsyncListener(request, response, payloadDataBuilder));
+                    collectedOnCompletion = true;
+                } else {
+                    collect(request, response, payloadDataBuilder);
+                }
             }
         } catch (Exception e){
             log.error("Error occurred while processing request by readme metrics-sdk: {}", e.getMessage());
+        } finally {
+            if (!collectedOnCompletion) {
+                response.finish();
+                requestCapture.release();
+                responseCapture.release();
+            }
         }
     }
 
-    private void setDocumentationUrl(PayloadDataBuilder payloadDataBuilder, ContentCachingResponseWrapper response) {
+    /**
+     * Continues an async request dispatched back to the container, e.g. with the result of a
+     * {@code Callable}. The request and response are still the wrappers the async processing was started
+     * with; the writer handed out during the dispatch is flushed here, since the listener runs too late.
+     */
+    private void doFilterAsyncDispatch(ServletRequest req, ServletResponse resp, FilterChain chain)
+            throws IOException, ServletException {
+        try {
+            chain.doFilter(req, resp);
+        } finally {
+            Object response = req.getAttribute(RESPONSE_WRAPPER_ATTRIBUTE);
+            if (response instanceof CapturingResponseWrapper && !req.isAsyncStarted()) {
+                ((CapturingResponseWrapper) response).finish();
+            }
+        }
+    }
+
+    private void collect(CapturingRequestWrapper request, CapturingResponseWrapper response,
+                         PayloadDataBuilder payloadDataBuilder) {
+        response.finish();
+        ServletDataPayloadAdapter payload =
+                new ServletDataPayloadAdapter(request, response);
+
+        UserData userData = userDataCollector.collect(payload);
+        payloadDataBuilder.userData(userData);
+
+        ApiCallLogData apiCallLogData = requestDataCollector.collect(payload);
+        payloadDataBuilder.apiCallLogData(apiCallLogData);
+        payloadDataBuilder.responseEndDateTime(new Date());
+
+        PayloadData payloadData = payloadDataBuilder.build();
+
+        payloadDispatcher.dispatchAsync(payloadData, logOptions);
+    }
+
+    private void setDocumentationUrl(PayloadDataBuilder payloadDataBuilder, CapturingResponseWrapper response) {
         UUID logId = UUID.randomUUID();
         payloadDataBuilder.logId(logId);
-        String encodedReadmeApiKey = ReadmeApiKeyEncoder.encode(readmeProperties.getReadmeApiKey());
-        String baseLogUrl = logOptions.getBaseLogUrl() != null ? logOptions.getBaseLogUrl() : fetchBaseLogUrl(encodedReadmeApiKey);
+        String baseLogUrl = logOptions.getBaseLogUrl() != null ? logOptions.getBaseLogUrl() : baseLogUrlResolver.getBaseLogUrl();
         if (baseLogUrl != null && !baseLogUrl.isEmpty()) {
             response.setHeader("x-documentation-url", baseLogUrl + "/logs/" + logId);
         }
     }
+
+    /**
+     * Collects the data of an async request once it completed, whether normally, by timeout or with an error.
+     */
+    @AllArgsConstructor
+    private class CollectingAsyncListener implements AsyncListener {
+
+        private final CapturingRequestWrapper request;
+
+        private final CapturingResponseWrapper response;
+
+        private final PayloadDataBuilder payloadDataBuilder;
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            try {
+                collect(request, response, payloadDataBuilder);
+            } catch (Exception e) {
+                log.error("Error occurred while processing async request by readme metrics-sdk: {}", e.getMessage());
+            } finally {
+                request.releaseCapture();
+                response.releaseCapture();
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        /**
+         * Stays registered when the async processing is started again, e.g. during an async dispatch.
+         */
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
 }
@@ -3,9 +3,11 @@ package com.readme.spring.datacollection.userinfo;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.readme.core.datatransfer.JsonMappers;
 import com.readme.spring.datacollection.ServletDataPayloadAdapter;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Component;
 import com.auth0.jwt.JWT;
@@ -19,12 +21,31 @@ import java.util.Map;
  * It supports multiple extraction strategies, including HTTP headers, JSON request bodies,
  * and JWT tokens (from the Authorization header).
  */
-@AllArgsConstructor
 @Component
 @Slf4j
 public class ServletUserDataExtractor implements UserDataExtractor<ServletDataPayloadAdapter> {
 
-    private ObjectMapper objectMapper;
+    private final ObjectReader treeReader;
+
+    /**
+     * Creates an extractor using the SDK's {@link JsonMappers#shared()} configuration, so the application's
+     * own mapper configuration does not affect how request bodies are read.
+     */
+    public ServletUserDataExtractor() {
+        this(JsonMappers.shared());
+    }
+
+    /**
+     * @param jsonMappers JSON configuration of the SDK, provided by the auto-configuration
+     */
+    @Autowired
+    public ServletUserDataExtractor(JsonMappers jsonMappers) {
+        this.treeReader = jsonMappers.treeReader();
+    }
+
+    public ServletUserDataExtractor(ObjectMapper objectMapper) {
+        this.treeReader = objectMapper.reader();
+    }
 
     @Override
     public String extractFromHeader(ServletDataPayloadAdapter payload, String fieldName) {
@@ -42,7 +63,7 @@ public class ServletUserDataExtractor implements UserDataExtractor<ServletDataPa
             if (payload.getRequestContentType().equalsIgnoreCase("application/json")) {
                 String requestBody = payload.getRequestBody();
                 try {
-                    JsonNode currentNode = objectMapper.readTree(requestBody);
+                    JsonNode currentNode = treeReader.readTree(requestBody);
                     if (!fieldPath.startsWith("/")) {
                         fieldPath = "/" + fieldPath;
                     }
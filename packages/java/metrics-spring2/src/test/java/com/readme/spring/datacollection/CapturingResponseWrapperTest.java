@@ -0,0 +1,134 @@
+package com.readme.spring.datacollection;
+
+import com.readme.core.dataextraction.BodyCapture;
+import com.readme.core.dataextraction.BodyCapturePool;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CapturingResponseWrapperTest {
+
+    @Test
+    void getOutputStream_ShouldWriteThroughAndCapturePrefix() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        BodyCapture capture = new BodyCapturePool(4, 1).acquire();
+        CapturingResponseWrapper wrapper = new CapturingResponseWrapper(response, capture);
+
+        wrapper.getOutputStream().write("0123456789".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("0123456789", response.getContentAsString());
+        assertEquals("0123", wrapper.getCapturedBody());
+        assertEquals(10, wrapper.getBodySize());
+        assertTrue(wrapper.isBodyTruncated());
+    }
+
+    @Test
+    void getWriter_ShouldReachClientAndCapture_OnFinish() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setContentType("application/json;charset=UTF-8");
+        BodyCapture capture = new BodyCapturePool().acquire();
+        CapturingResponseWrapper wrapper = new CapturingResponseWrapper(response, capture);
+
+        PrintWriter writer = wrapper.getWriter();
+        writer.write("{\"bird\":\"Kiwi ü\"}");
+        wrapper.finish();
+
+        assertEquals("{\"bird\":\"Kiwi ü\"}", response.getContentAsString(StandardCharsets.UTF_8));
+        assertEquals("{\"bird\":\"Kiwi ü\"}", wrapper.getCapturedBody());
+        assertEquals(response.getContentAsByteArray().length, wrapper.getBodySize());
+        assertFalse(wrapper.isBodyTruncated());
+    }
+
+    @Test
+    void resetBuffer_ShouldDiscardCapturedBody() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        CapturingResponseWrapper wrapper = new CapturingResponseWrapper(response, new BodyCapturePool().acquire());
+
+        wrapper.getOutputStream().write("error".getBytes(StandardCharsets.UTF_8));
+        wrapper.resetBuffer();
+        wrapper.getOutputStream().write("ok".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("ok", wrapper.getCapturedBody());
+        assertEquals(2, wrapper.getBodySize());
+    }
+
+    @Test
+    void resetBuffer_ShouldDiscardCharactersBufferedByWriter() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setCharacterEncoding("UTF-8");
+        CapturingResponseWrapper wrapper = new CapturingResponseWrapper(response, new BodyCapturePool().acquire());
+
+        PrintWriter writer = wrapper.getWriter();
+        writer.write("error");
+        wrapper.resetBuffer();
+        writer.write("ok");
+        wrapper.finish();
+
+        assertEquals("ok", response.getContentAsString());
+        assertEquals("ok", wrapper.getCapturedBody());
+        assertEquals(2, wrapper.getBodySize());
+    }
+
+    @Test
+    void reset_ShouldCaptureAgain_AfterStreamingContentTypeWasReset() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        CapturingResponseWrapper wrapper = new CapturingResponseWrapper(response, new BodyCapturePool().acquire());
+
+        wrapper.setContentType("text/event-stream");
+        wrapper.getOutputStream().write("chunk".getBytes(StandardCharsets.UTF_8));
+        assertTrue(wrapper.isStreaming());
+        wrapper.reset();
+        wrapper.setContentType("application/json");
+        wrapper.getOutputStream().write("ok".getBytes(StandardCharsets.UTF_8));
+
+        assertFalse(wrapper.isStreaming());
+        assertEquals("ok", wrapper.getCapturedBody());
+    }
+
+    @Test
+    void getOutputStream_ShouldOnlyCount_WhenContentTypeIsStreamed() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setContentType("text/event-stream");
+        CapturingResponseWrapper wrapper = new CapturingResponseWrapper(response, new BodyCapturePool().acquire());
+
+        wrapper.getOutputStream().write("data: kiwi\n\n".getBytes(StandardCharsets.UTF_8));
+
+        assertTrue(wrapper.isStreaming());
+        assertEquals("data: kiwi\n\n", response.getContentAsString());
+        assertEquals("", wrapper.getCapturedBody());
+        assertEquals(12, wrapper.getBodySize());
+    }
+
+    @Test
+    void getOutputStream_ShouldStopCapturing_WhenWrittenAfterFlush() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        CapturingResponseWrapper wrapper = new CapturingResponseWrapper(response, new BodyCapturePool().acquire());
+
+        wrapper.getOutputStream().write("first".getBytes(StandardCharsets.UTF_8));
+        wrapper.getOutputStream().flush();
+        wrapper.getOutputStream().write("second".getBytes(StandardCharsets.UTF_8));
+
+        assertTrue(wrapper.isStreaming());
+        assertTrue(response.isCommitted());
+        assertEquals("", wrapper.getCapturedBody());
+        assertEquals(11, wrapper.getBodySize());
+    }
+
+    @Test
+    void getOutputStream_ShouldKeepCapturing_WhenFlushedOnlyAtTheEnd() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        CapturingResponseWrapper wrapper = new CapturingResponseWrapper(response, new BodyCapturePool().acquire());
+
+        wrapper.getOutputStream().write("{\"bird\":\"Kiwi\"}".getBytes(StandardCharsets.UTF_8));
+        wrapper.getOutputStream().flush();
+        wrapper.flushBuffer();
+
+        assertFalse(wrapper.isStreaming());
+        assertEquals("{\"bird\":\"Kiwi\"}", wrapper.getCapturedBody());
+    }
+
+}
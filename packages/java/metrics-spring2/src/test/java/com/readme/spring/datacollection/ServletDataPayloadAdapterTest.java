@@ -4,8 +4,6 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.web.util.ContentCachingRequestWrapper;
-import org.springframework.web.util.ContentCachingResponseWrapper;
 
 import java.io.IOException;
 import java.util.*;
@@ -17,10 +15,10 @@ import static org.mockito.Mockito.*;
 class ServletDataPayloadAdapterTest {
 
     @Mock
-    private ContentCachingRequestWrapper requestMock;
+    private CapturingRequestWrapper requestMock;
 
     @Mock
-    private ContentCachingResponseWrapper responseMock;
+    private CapturingResponseWrapper responseMock;
 
     private ServletDataPayloadAdapter adapter;
 
@@ -77,7 +75,7 @@ class ServletDataPayloadAdapterTest {
     @Test
     void getRequestBody_HappyPath_ReturnsRequestBody() throws IOException {
         String requestBody = "{\"bird\": \"Owl\"}";
-        when(requestMock.getContentAsByteArray()).thenReturn(requestBody.getBytes());
+        when(requestMock.getCapturedBody()).thenReturn(requestBody);
         String result = adapter.getRequestBody();
 
         assertEquals(requestBody, result);